@@ -0,0 +1,56 @@
+package bench;
+
+import graph.common.CsrGraph;
+
+import java.util.SplittableRandom;
+
+ // Seeded synthetic inputs for the benchmarks.
+ // structure = "dag"   : every edge goes from a lower to a higher vertex id
+ //             "giant" : one ring over half the vertices plus random chords (one giant SCC)
+ //             "many"  : cycles of 8 vertices linked forward only (n / 8 small SCCs)
+
+public final class BenchGraphs {
+
+    private BenchGraphs() {
+    }
+
+    public static CsrGraph generate(int n, int degree, String structure, long seed) {
+        SplittableRandom rnd = new SplittableRandom(seed);
+        long m = (long) n * degree;
+        CsrGraph.Builder b = new CsrGraph.Builder(n, true, (int) Math.min(Integer.MAX_VALUE - 8, m + n));
+        switch (structure) {
+            case "dag":
+                for (long e = 0; e < m; e++) {
+                    int u = rnd.nextInt(n);
+                    if (u == n - 1) continue;
+                    b.addEdge(u, u + 1 + rnd.nextInt(Math.min(n - u - 1, 1024)), 1 + rnd.nextInt(10));
+                }
+                break;
+            case "giant":
+                int ring = Math.max(1, n / 2);
+                for (int v = 0; v < ring; v++) {
+                    b.addEdge(v, (v + 1) % ring, 1 + rnd.nextInt(10));
+                }
+                for (long e = ring; e < m; e++) {
+                    b.addEdge(rnd.nextInt(n), rnd.nextInt(n), 1 + rnd.nextInt(10));
+                }
+                break;
+            case "many":
+                for (int v = 0; v < n; v++) {
+                    int block = v & ~7;
+                    int next = Math.min(block + 8, n);
+                    b.addEdge(v, v + 1 < next ? v + 1 : block, 1 + rnd.nextInt(10)); // cycle inside the block
+                }
+                for (long e = n; e < m; e++) {
+                    int u = rnd.nextInt(n);
+                    int from = (u & ~7) + 8;
+                    if (from >= n) continue;
+                    b.addEdge(u, from + rnd.nextInt(Math.min(n - from, 1024)), 1 + rnd.nextInt(10));
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("unknown structure: " + structure);
+        }
+        return b.build();
+    }
+}
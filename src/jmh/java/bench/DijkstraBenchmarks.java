@@ -0,0 +1,89 @@
+package bench;
+
+import graph.common.CsrGraph;
+import graph.common.Metrics;
+import graph.dagsp.DagShortestPath;
+import graph.dagsp.LocalDagPaths;
+import graph.sp.Dijkstra;
+import graph.topo.TopoKahn;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+ // JMH benchmarks for Dijkstra against the DAG path, on "dag" inputs where both apply.
+ // *All runs single-source shortest paths from vertex 0; the DAG version reuses a precomputed
+ // topological order, as PreparedDag does. *Pairs runs QUERIES point-to-point queries, which
+ // Dijkstra ends at the target and LocalDagPaths bounds by the target's topological position.
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class DijkstraBenchmarks {
+    private static final int QUERIES = 64;
+
+    @Param({"100000", "1000000"})
+    public int n;
+
+    @Param({"2", "8"})
+    public int degree;
+
+    @Param({"2", "4", "8"})
+    public int arity;
+
+    private CsrGraph graph;
+    private int[] order;
+    private Dijkstra dijkstra;
+    private LocalDagPaths local;
+    private int[] sources;
+    private int[] targets;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = BenchGraphs.generate(n, degree, "dag", 42);
+        order = new TopoKahn(graph).order();
+        dijkstra = new Dijkstra(graph, arity);
+        local = new LocalDagPaths(graph, order, null);
+        // targets a few thousand ids ahead, where most of them are reachable
+        SplittableRandom rnd = new SplittableRandom(7);
+        sources = new int[QUERIES];
+        targets = new int[QUERIES];
+        for (int q = 0; q < QUERIES; q++) {
+            sources[q] = rnd.nextInt(n / 2);
+            targets[q] = sources[q] + 1 + rnd.nextInt(5_000);
+        }
+    }
+
+    @Benchmark
+    public DagShortestPath.Result dijkstraAll() {
+        return dijkstra.shortestPaths(0, new Metrics());
+    }
+
+    @Benchmark
+    public DagShortestPath.Result dagAll() {
+        return new DagShortestPath(graph, order).shortestPaths(0, new Metrics());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public double dijkstraPairs() {
+        double sum = 0;
+        for (int q = 0; q < QUERIES; q++) {
+            sum += dijkstra.shortestPath(sources[q], targets[q], new Metrics()).distance;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public double dagPairs() {
+        double sum = 0;
+        for (int q = 0; q < QUERIES; q++) {
+            sum += local.shortestPath(sources[q], targets[q], new Metrics()).distance(targets[q]);
+        }
+        return sum;
+    }
+}
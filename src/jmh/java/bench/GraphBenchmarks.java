@@ -0,0 +1,72 @@
+package bench;
+
+import graph.common.CsrGraph;
+import graph.common.Metrics;
+import graph.dagsp.DagLongestPath;
+import graph.dagsp.DagShortestPath;
+import graph.scc.CondensationBuilder;
+import graph.scc.TarjanSCC;
+import graph.topo.TopoKahn;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+ // JMH benchmarks for every stage of the pipeline.
+ // SCC and condensation run on the generated graph; topo and DAG paths run on its condensation.
+ // Inputs are built once per trial, so only the algorithm itself is measured.
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class GraphBenchmarks {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int n;
+
+    @Param({"2", "8"})
+    public int degree; // average out-degree
+
+    @Param({"dag", "giant", "many"})
+    public String structure;
+
+    private CsrGraph graph;
+    private TarjanSCC.Result scc;
+    private CondensationBuilder.CondensationResult cond;
+    private int srcComp;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = BenchGraphs.generate(n, degree, structure, 42);
+        scc = new TarjanSCC(graph).run();
+        cond = CondensationBuilder.build(graph, scc);
+        srcComp = scc.compId[0];
+    }
+
+    @Benchmark
+    public TarjanSCC.Result tarjan() {
+        return new TarjanSCC(graph).run(new Metrics());
+    }
+
+    @Benchmark
+    public CondensationBuilder.CondensationResult condensation() {
+        return CondensationBuilder.build(graph, scc);
+    }
+
+    @Benchmark
+    public int[] topoKahn() {
+        return new TopoKahn(cond.dag).order(new Metrics());
+    }
+
+    @Benchmark
+    public DagShortestPath.Result dagShortest() {
+        return new DagShortestPath(cond.dag).shortestPaths(srcComp, new Metrics());
+    }
+
+    @Benchmark
+    public DagLongestPath.Result dagLongest() {
+        return new DagLongestPath(cond.dag, cond.nodeWeight).longestPaths(srcComp, new Metrics());
+    }
+}
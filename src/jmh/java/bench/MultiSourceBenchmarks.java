@@ -0,0 +1,60 @@
+package bench;
+
+import graph.common.CsrGraph;
+import graph.common.Metrics;
+import graph.dagsp.DagShortestPath;
+import graph.dagsp.MultiSourceDagPaths;
+import graph.io.GraphGenerator;
+import graph.topo.TopoKahn;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+ // K sources over one layered DAG: one batched walk versus K separate DagShortestPath calls
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class MultiSourceBenchmarks {
+
+    @Param({"10000", "100000"})
+    public int n;
+
+    @Param({"16", "128"})
+    public int k;
+
+    private CsrGraph dag;
+    private int[] order;
+    private int[] sources;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dag = new GraphGenerator(GraphGenerator.Model.LAYERED, n, 4, 42).toCsr();
+        order = new TopoKahn(dag).order();
+        SplittableRandom rnd = new SplittableRandom(7);
+        sources = new int[k];
+        for (int i = 0; i < k; i++) {
+            sources[i] = rnd.nextInt(n / 4); // early layers reach most of the DAG
+        }
+    }
+
+    @Benchmark
+    public MultiSourceDagPaths.Result batched() {
+        return new MultiSourceDagPaths(dag, order, null).shortestPaths(sources, new Metrics());
+    }
+
+    @Benchmark
+    public double separateCalls() {
+        DagShortestPath sp = new DagShortestPath(dag, order);
+        double sum = 0;
+        for (int s : sources) {
+            sum += sp.shortestPaths(s, new Metrics()).distances[n - 1];
+        }
+        return sum;
+    }
+}
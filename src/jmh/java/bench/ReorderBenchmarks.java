@@ -0,0 +1,96 @@
+package bench;
+
+import graph.common.CsrGraph;
+import graph.common.Metrics;
+import graph.dagsp.DagLongestPath;
+import graph.dagsp.DagShortestPath;
+import graph.reorder.Relabeling;
+import graph.scc.CondensationBuilder;
+import graph.scc.TarjanSCC;
+import graph.topo.TopoKahn;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+ // JMH benchmarks for vertex relabeling.
+ // BenchGraphs numbers neighbours close together, which real input ids rarely do, so its ids are
+ // shuffled first. strategy = NONE runs on the shuffled ids; the others relabel them once per
+ // trial. relabel measures what the relabeling itself costs, to weigh against the savings.
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ReorderBenchmarks {
+
+    @Param({"100000", "1000000"})
+    public int n;
+
+    @Param({"4"})
+    public int degree;
+
+    @Param({"dag", "giant", "many"})
+    public String structure;
+
+    @Param({"NONE", "BFS", "RCM", "DEGREE"})
+    public String strategy;
+
+    private CsrGraph shuffled;
+    private CsrGraph graph;
+    private CondensationBuilder.CondensationResult cond;
+    private int srcComp;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        shuffled = shuffle(BenchGraphs.generate(n, degree, structure, 42), 7);
+        graph = strategy.equals("NONE") ? shuffled
+                : Relabeling.of(shuffled, Relabeling.Strategy.valueOf(strategy)).apply(shuffled);
+        TarjanSCC.Result scc = new TarjanSCC(graph).run();
+        cond = CondensationBuilder.build(graph, scc);
+        srcComp = scc.compId[0];
+    }
+
+    private static CsrGraph shuffle(CsrGraph g, long seed) {
+        int[] order = new int[g.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        SplittableRandom rnd = new SplittableRandom(seed);
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int t = order[i];
+            order[i] = order[j];
+            order[j] = t;
+        }
+        return Relabeling.fromOrder(order).apply(g);
+    }
+
+    @Benchmark
+    public CsrGraph relabel() {
+        if (strategy.equals("NONE")) return shuffled;
+        return Relabeling.of(shuffled, Relabeling.Strategy.valueOf(strategy)).apply(shuffled);
+    }
+
+    @Benchmark
+    public TarjanSCC.Result tarjan() {
+        return new TarjanSCC(graph).run(new Metrics());
+    }
+
+    @Benchmark
+    public int[] topoKahn() {
+        return new TopoKahn(cond.dag).order(new Metrics());
+    }
+
+    @Benchmark
+    public DagShortestPath.Result dagShortest() {
+        return new DagShortestPath(cond.dag).shortestPaths(srcComp, new Metrics());
+    }
+
+    @Benchmark
+    public DagLongestPath.Result dagLongest() {
+        return new DagLongestPath(cond.dag, cond.nodeWeight).longestPaths(srcComp, new Metrics());
+    }
+}
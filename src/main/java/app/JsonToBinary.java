@@ -0,0 +1,61 @@
+package app;
+
+import graph.common.Metrics;
+import graph.io.BinaryGraphFormat;
+import graph.io.JsonGraphLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+// Converts JSON datasets into the memory-mappable binary format.
+// Usage: JsonToBinary [--memory 512m] [file.json | directory ...]   (default: ./data)
+// Every x.json is written as x.bin next to it; Main then prefers the .bin file.
+// The edges are streamed through sorted runs on disk (JsonGraphLoader.convert), so a graph
+// larger than the heap can be converted; --memory bounds the sort buffers (default: heap / 4).
+
+public class JsonToBinary {
+
+    public static void main(String[] args) throws IOException {
+        long memory = Runtime.getRuntime().maxMemory() / 4;
+        int first = 0;
+        if (args.length > 0 && args[0].equals("--memory")) {
+            if (args.length < 2) {
+                System.err.println("Usage: JsonToBinary [--memory 512m] [file.json | directory ...]");
+                System.exit(2);
+            }
+            memory = OutOfCoreScc.parseBytes(args[1]);
+            first = 2;
+        }
+        String[] inputs = args.length > first ? Arrays.copyOfRange(args, first, args.length) : new String[]{"data"};
+        int converted = 0;
+        for (String in : inputs) {
+            File f = new File(in);
+            File[] files = f.isDirectory() ? f.listFiles((dir, name) -> name.endsWith(".json")) : new File[]{f};
+            if (files == null) continue;
+            for (File json : files) {
+                convert(json, memory);
+                converted++;
+            }
+        }
+        System.out.println("Converted " + converted + " file(s)");
+    }
+
+    // Converts one file and returns the written binary file
+    public static File convert(File json) throws IOException {
+        return convert(json, Runtime.getRuntime().maxMemory() / 4);
+    }
+
+    // Same, with at most sortMemory bytes of sort buffers
+    public static File convert(File json, long sortMemory) throws IOException {
+        String name = json.getName();
+        String base = name.endsWith(".json") ? name.substring(0, name.length() - 5) : name;
+        File out = new File(json.getAbsoluteFile().getParentFile(), base + BinaryGraphFormat.EXTENSION);
+
+        Metrics m = new Metrics();
+        long arcs = JsonGraphLoader.convert(json, out.toPath(), out.getParentFile().toPath(), sortMemory, m);
+        int n = BinaryGraphFormat.open(out.toPath()).size();
+        System.out.printf("%s -> %s (n = %d, arcs = %d, %d bytes)%n", json.getPath(), out.getName(), n, arcs, out.length());
+        return out;
+    }
+}
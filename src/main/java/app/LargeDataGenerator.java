@@ -0,0 +1,57 @@
+package app;
+
+import graph.io.BinaryGraphFormat;
+import graph.io.GraphGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+
+// Command line generator for large synthetic graphs.
+// Usage: LargeDataGenerator <random|powerlaw|grid|layered|giant> <n> <out.json|out.bin>
+//                           [--degree 4] [--seed 42] [--source 0]
+// The output format follows the file extension; edges are streamed, never held in memory.
+
+public class LargeDataGenerator {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: LargeDataGenerator <random|powerlaw|grid|layered|giant> <n> <out.json|out.bin>"
+                    + " [--degree d] [--seed s] [--source v]");
+            System.exit(2);
+        }
+        GraphGenerator.Model model = GraphGenerator.Model.valueOf(args[0].toUpperCase(Locale.ROOT));
+        int n = Integer.parseInt(args[1]);
+        File out = new File(args[2]);
+        int degree = 4;
+        long seed = 42;
+        int source = 0;
+        for (int i = 3; i < args.length; i += 2) {
+            switch (args[i]) {
+                case "--degree": degree = Integer.parseInt(valueOf(args, i)); break;
+                case "--seed": seed = Long.parseLong(valueOf(args, i)); break;
+                case "--source": source = Integer.parseInt(valueOf(args, i)); break;
+                default: throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+
+        File dir = out.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.exists()) dir.mkdirs();
+
+        GraphGenerator gen = new GraphGenerator(model, n, degree, seed);
+        long start = System.nanoTime();
+        if (out.getName().endsWith(BinaryGraphFormat.EXTENSION)) {
+            gen.writeBinary(out.toPath(), source);
+        } else {
+            gen.writeJson(out.toPath(), source);
+        }
+        System.out.printf("Generated %s graph: n = %d -> %s (%d bytes, %.1f s)%n",
+                args[0], n, out.getPath(), out.length(), (System.nanoTime() - start) / 1e9);
+    }
+
+    // The value after option args[i]; an option at the end of the line is rejected, not ignored
+    private static String valueOf(String[] args, int i) {
+        if (i + 1 >= args.length) throw new IllegalArgumentException("missing value for option " + args[i]);
+        return args[i + 1];
+    }
+}
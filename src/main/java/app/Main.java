@@ -1,147 +1,357 @@
 package app;
 
-import com.google.gson.*;
-import graph.common.Graph;
+import graph.common.CsrGraph;
 import graph.common.Metrics;
+import graph.common.MetricsRegistry;
+import graph.common.MetricsRegistry.Phase;
 import graph.scc.TarjanSCC;
 import graph.scc.CondensationBuilder;
+import graph.scc.SccSidecar;
 import graph.topo.TopoKahn;
 import graph.dagsp.DagShortestPath;
 import graph.dagsp.DagLongestPath;
+import graph.dagsp.LocalDagPaths;
+import graph.dagsp.PreparedDag;
+import graph.io.BinaryGraphFormat;
+import graph.io.GraphDataset;
+import graph.io.JsonGraphLoader;
+import graph.io.MappedGraph;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class Main {
+    private static final String USAGE =
+            "Usage: Main [--threads k] [--quiet] [--no-sidecar] [--metrics out.json|out.csv] [file | directory ...]";
 
-    public static void main(String[] args) {
-        // Check if the data directory exists
-        File dataDir = new File("data");
-        if (!dataDir.exists() || !dataDir.isDirectory()) {
-            System.err.println("data/ directory not found. Put your JSONs there.");
-            return;
+    // Usage: Main [--threads k] [--quiet] [--no-sidecar] [--metrics out.json|out.csv] [file | directory ...]
+    //   --threads k     process k datasets at a time (default 1: sequential, in file order)
+    //   --quiet         one summary line per dataset instead of the full report
+    //   --no-sidecar    neither read nor write the x.json.scc sidecar files (see SccSidecar)
+    // Without file arguments every dataset in ./data is processed.
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path metricsOut = null;
+        int threads = 1;
+        boolean full = true;
+        boolean sidecars = true;
+        List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--metrics") && i + 1 < args.length) metricsOut = Path.of(args[++i]);
+            else if (args[i].equals("--threads") && i + 1 < args.length) {
+                try {
+                    threads = Math.max(1, Integer.parseInt(args[++i]));
+                } catch (NumberFormatException e) {
+                    System.err.println("--threads needs a number, got \"" + args[i] + "\"");
+                    System.err.println(USAGE);
+                    return;
+                }
+            }
+            else if (args[i].equals("--quiet")) full = false;
+            else if (args[i].equals("--no-sidecar")) sidecars = false;
+            else inputs.add(args[i]);
         }
 
-        // Load all JSON files from the data folder
-        File[] files = dataDir.listFiles((dir, name) -> name.endsWith(".json"));
-        if (files == null || files.length == 0) {
-            System.err.println("No JSON files in data/");
+        List<File> files = new ArrayList<>();
+        if (inputs.isEmpty()) {
+            // Check if the data directory exists
+            File dataDir = new File("data");
+            if (!dataDir.exists() || !dataDir.isDirectory()) {
+                System.err.println("data/ directory not found. Put your JSONs there.");
+                return;
+            }
+            inputs.add("data");
+        }
+        // Load all JSON and binary files from the given folders
+        for (String in : inputs) {
+            File f = new File(in);
+            File[] found = f.isDirectory() ? listDatasets(f) : new File[]{f};
+            if (found != null) files.addAll(Arrays.asList(found));
+        }
+        if (files.isEmpty()) {
+            System.err.println("No JSON or binary graph files in " + inputs);
             return;
         }
 
-        // Process each dataset file
+        // Process the datasets on a bounded pool, one metrics registry per dataset.
+        // Every dataset writes its report to its own buffer, printed in one piece when it is done.
+        List<MetricsRegistry> registries = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long wallStart = System.nanoTime();
+        boolean report = full;
+        boolean useSidecars = sidecars;
         for (File f : files) {
-            runForFile(f);
+            MetricsRegistry reg = new MetricsRegistry(f.getName());
+            registries.add(reg);
+            pool.execute(() -> {
+                String text = runForFile(f, reg, report, useSidecars);
+                synchronized (System.out) {
+                    System.out.print(text);
+                    System.out.flush();
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+
+        if (!full) {
+            long work = 0;
+            for (MetricsRegistry reg : registries) {
+                for (Phase p : Phase.values()) {
+                    work += reg.histogram(p).totalNanos();
+                }
+            }
+            System.out.printf("Processed %d dataset(s) on %d thread(s): wall %.1f ms, work %.1f ms%n",
+                    files.size(), threads, (System.nanoTime() - wallStart) / 1e6, work / 1e6);
+        }
+        if (metricsOut != null) {
+            MetricsRegistry.export(registries, metricsOut);
+            System.out.println("Metrics written to " + metricsOut);
         }
     }
 
-    private static void runForFile(File f) {
-        System.out.println("-------------------------------------");
-        System.out.println("Dataset: " + f.getName());
-        System.out.println("--------------------------------------");
-        try {
-            // Parse the JSON file
-            JsonObject root = JsonParser.parseReader(new FileReader(f)).getAsJsonObject();
+    // Dataset files of a directory; a converted x.bin replaces its x.json source unless the JSON
+    // was modified after the conversion, in which case the JSON is used and a warning printed
+    static File[] listDatasets(File dir) {
+        return dir.listFiles((d, name) -> {
+            if (name.endsWith(".json")) {
+                File bin = binaryOf(d, name);
+                return !bin.exists() || bin.lastModified() < new File(d, name).lastModified();
+            }
+            if (!name.endsWith(BinaryGraphFormat.EXTENSION)) return false;
+            File json = new File(d, name.substring(0, name.length() - BinaryGraphFormat.EXTENSION.length()) + ".json");
+            if (json.exists() && new File(d, name).lastModified() < json.lastModified()) {
+                System.err.println("Skipping " + name + ": older than " + json.getName() + ", rerun JsonToBinary");
+                return false;
+            }
+            return true;
+        });
+    }
 
-            boolean directed = root.get("directed").getAsBoolean();
-            int n = root.get("n").getAsInt();
-            int source = root.get("source").getAsInt();
-            JsonArray edges = root.getAsJsonArray("edges");
+    private static File binaryOf(File dir, String jsonName) {
+        return new File(dir, jsonName.substring(0, jsonName.length() - 5) + BinaryGraphFormat.EXTENSION);
+    }
 
-            // Build the graph
-            Graph g = new Graph(n, directed);
-            for (JsonElement el : edges) {
-                JsonObject e = el.getAsJsonObject();
-                int u = e.get("u").getAsInt();
-                int v = e.get("v").getAsInt();
-                double w = e.get("w").getAsDouble();
-                g.addEdge(u, v, w);
-            }
+    // Loads either file format into memory, timing the whole load in m. A binary file is mapped
+    // and then copied onto the heap in bulk: no parsing, but not lazy either, since the in-heap
+    // algorithms need a CsrGraph (OutOfCoreScc is the path that works on the mapping itself).
+    static GraphDataset load(File f, boolean binary, Metrics m) throws IOException {
+        if (!binary) {
+            return JsonGraphLoader.load(f, m);
+        }
+        m.start();
+        MappedGraph mapped = BinaryGraphFormat.open(f.toPath());
+        GraphDataset data = mapped.toDataset();
+        m.edgesSeen += mapped.edgeCount();
+        m.stop();
+        return data;
+    }
 
-            System.out.println("Loaded graph: n = " + n + ", edges = " + edges.size());
+    // Runs the whole pipeline on one dataset and returns its report:
+    // everything when full is set, otherwise a single summary line.
+    // With sidecars, an up-to-date sidecar replaces loading the graph and steps 1-3; without one,
+    // steps 1-3 run on the loaded graph and their results are saved for the next run.
+    static String runForFile(File f, MetricsRegistry reg, boolean full, boolean sidecars) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(buffer, true, StandardCharsets.UTF_8);
+        if (full) {
+            out.println("-------------------------------------");
+            out.println("Dataset: " + f.getName());
+            out.println("--------------------------------------");
+        }
+        try {
+            // The sidecar is checked against the input's SHA-256; the check counts as loading
+            Metrics mLoad = new Metrics();
+            mLoad.start();
+            Path sidecarPath = SccSidecar.pathFor(f.toPath());
+            long inputBytes = sidecars ? Files.size(f.toPath()) : 0;
+            byte[] inputHash = sidecars ? SccSidecar.hash(f.toPath()) : null;
+            SccSidecar cached = sidecars ? SccSidecar.read(sidecarPath, inputBytes, inputHash) : null;
+            mLoad.stop();
+
+            int n;
+            long arcs;
+            int source;
+            CsrGraph csr = null;
+            if (cached != null) {
+                n = cached.vertices;
+                arcs = cached.arcs;
+                source = cached.source;
+                reg.record(Phase.LOAD, mLoad);
+                if (full) {
+                    out.println("Loaded SCC sidecar: n = " + n + ", edges = " + arcs);
+                    mLoad.print("Load (sidecar)", out);
+                }
+            } else {
+                // Map a binary file, or stream a JSON file straight into a CSR graph
+                boolean binary = BinaryGraphFormat.isBinary(f);
+                Metrics mRead = new Metrics();
+                GraphDataset data = load(f, binary, mRead);
+                mLoad.edgesSeen += mRead.edgesSeen;
+                mLoad.stop();
+                csr = data.graph;
+                n = csr.size();
+                arcs = csr.edgeCount();
+                source = data.source;
+                reg.record(Phase.LOAD, mLoad);
+                if (full) {
+                    out.println("Loaded graph: n = " + n + ", edges = " + arcs);
+                    mLoad.print(binary ? "Load (binary)" : "Load (json)", out);
+                }
+            }
 
             // --- 1) Strongly Connected Components (SCC)
             Metrics mScc = new Metrics();
-            TarjanSCC tarjan = new TarjanSCC(g);
-            TarjanSCC.Result sccRes = tarjan.run(mScc);
-            mScc.print("Tarjan SCC");
-
-            System.out.println("\n--- SCC components ---");
-            for (int i = 0; i < sccRes.components.size(); i++) {
-                List<Integer> comp = sccRes.components.get(i);
-                System.out.println("C" + i + " = " + comp + " (size = " + comp.size() + ")");
+            TarjanSCC.Result sccRes;
+            if (cached != null) {
+                sccRes = cached.scc;
+            } else {
+                TarjanSCC tarjan = new TarjanSCC(csr);
+                sccRes = tarjan.run(mScc);
+                reg.record(Phase.SCC, mScc);
+                if (full) mScc.print("Tarjan SCC", out);
+            }
+            if (full) {
+                out.println("\n--- SCC components ---");
+                for (int i = 0; i < sccRes.components.size(); i++) {
+                    List<Integer> comp = sccRes.components.get(i);
+                    out.println("C" + i + " = " + comp + " (size = " + comp.size() + ")");
+                }
             }
 
             // --- 2) Build the condensation DAG
-            CondensationBuilder.CondensationResult cRes = CondensationBuilder.build(g, sccRes);
-            Graph dag = cRes.dag;
-
-            System.out.println("\nCondensation DAG nodes = " + dag.size());
-            System.out.println("\n--- SCC internal weights ---");
-            for (int i = 0; i < cRes.nodeWeight.length; i++) {
-                System.out.printf("Comp %d: weight=%.2f%n", i, cRes.nodeWeight[i]);
+            Metrics mCond = new Metrics();
+            CondensationBuilder.CondensationResult cRes;
+            if (cached != null) {
+                cRes = cached.condensation;
+            } else {
+                mCond.start();
+                cRes = CondensationBuilder.build(csr, sccRes);
+                mCond.stop();
+                reg.record(Phase.CONDENSATION, mCond);
+            }
+            CsrGraph dag = cRes.dag;
+            if (full) {
+                out.println("\nCondensation DAG nodes = " + dag.size());
+                out.println("\n--- SCC internal weights ---");
+                for (int i = 0; i < cRes.nodeWeight.length; i++) {
+                    out.printf("Comp %d: weight=%.2f%n", i, cRes.nodeWeight[i]);
+                }
             }
 
             // --- 3) Topological sorting of the condensation DAG
             Metrics mTopo = new Metrics();
-            TopoKahn topo = new TopoKahn(dag);
-            List<Integer> order = topo.sort(mTopo);
-            mTopo.print("Topo (condensation)");
-            System.out.println("\n--- Topological order of components ---");
-            System.out.println(order);
-
-            // Derived order of original vertices
-            System.out.println("\n--- Derived order of original tasks ---");
+            int[] order;
+            if (cached != null) {
+                order = cached.order;
+            } else {
+                TopoKahn topo = new TopoKahn(dag);
+                order = topo.order(mTopo);
+                reg.record(Phase.TOPO, mTopo);
+                if (full) mTopo.print("Topo (condensation)", out);
+            }
             int[] compId = sccRes.compId;
-            for (int comp : order) {
-                for (int v = 0; v < n; v++) {
-                    if (compId[v] == comp) System.out.print(v + " ");
+            if (full) {
+                out.println("\n--- Topological order of components ---");
+                out.println(Arrays.toString(order));
+
+                // Derived order of original vertices, expanded in linear time
+                out.println("\n--- Derived order of original tasks ---");
+                StringBuilder derived = new StringBuilder();
+                for (int v : TopoKahn.expand(order, compId)) {
+                    derived.append(v).append(' ');
+                }
+                out.println(derived);
+            }
+
+            // A sidecar that cannot be written (read-only input directory) only costs the next run
+            if (sidecars && cached == null) {
+                try {
+                    new SccSidecar(inputBytes, inputHash, n, arcs, source, sccRes, cRes, order).write(sidecarPath);
+                } catch (IOException e) {
+                    System.err.println("Could not write sidecar " + sidecarPath + ": " + e.getMessage());
                 }
             }
-            System.out.println();
 
             // Identify which component the source vertex belongs to
             int srcComp = compId[source];
-            System.out.println("\nSource vertex " + source + " is in component " + srcComp);
+            if (full) out.println("\nSource vertex " + source + " is in component " + srcComp);
 
             // --- 4) Shortest paths in DAG
+            // The summary shows only the distance to the last component, so it skips the
+            // full-order DP and touches just what the source reaches.
             Metrics mSp = new Metrics();
-            DagShortestPath sp = new DagShortestPath(dag);
-            DagShortestPath.Result spRes = sp.shortestPaths(srcComp, mSp);
-            mSp.print("DAG shortest");
-
-            System.out.println("\n--- Shortest distances from component " + srcComp + " ---");
-            System.out.println(spRes.dist);
+            PreparedDag prepared = new PreparedDag(dag, order, cRes.nodeWeight, 16);
+            LocalDagPaths local = full ? null : prepared.local();
             int lastNode = dag.size() - 1;
-            System.out.println("Shortest path " + srcComp + " -> " + lastNode + ": " + spRes.buildPath(lastNode));
+            double shortest;
+            if (full) {
+                DagShortestPath.Result spRes = prepared.shortestPaths(srcComp, mSp);
+                shortest = spRes.distances[lastNode];
+                reg.record(Phase.SP, mSp);
+                mSp.print("DAG shortest", out);
+                out.println("\n--- Shortest distances from component " + srcComp + " ---");
+                out.println(spRes.dist);
+                out.println("Shortest path " + srcComp + " -> " + lastNode + ": " + spRes.buildPath(lastNode));
+            } else {
+                shortest = local.shortestPath(srcComp, lastNode, mSp).distance(lastNode);
+                reg.record(Phase.SP, mSp);
+            }
 
             // --- 5) Longest (critical) path in DAG
             Metrics mLp = new Metrics();
-            DagLongestPath lp = new DagLongestPath(dag, cRes.nodeWeight);
-            DagLongestPath.Result lpRes = lp.longestPaths(srcComp, mLp);
-            mLp.print("DAG longest");
-
+            DagLongestPath.Result lpRes = null;
             double best = Double.NEGATIVE_INFINITY;
             int bestNode = srcComp;
-            for (Map.Entry<Integer, Double> e : lpRes.dist.entrySet()) {
-                if (e.getValue() > best) {
-                    best = e.getValue();
-                    bestNode = e.getKey();
+            if (full) {
+                lpRes = prepared.longestPaths(srcComp, mLp);
+                for (int v = 0; v < lpRes.distances.length; v++) {
+                    if (lpRes.distances[v] > best) {
+                        best = lpRes.distances[v];
+                        bestNode = v;
+                    }
+                }
+            } else {
+                // reached components only, same choice: the first component id on ties
+                LocalDagPaths.Result res = local.longestPaths(srcComp, mLp);
+                for (int i = 0; i < res.size(); i++) {
+                    double d = res.distances[i];
+                    if (d > best || d == best && res.vertices[i] < bestNode) {
+                        best = d;
+                        bestNode = res.vertices[i];
+                    }
                 }
             }
+            reg.record(Phase.LP, mLp);
 
-            System.out.println("\n--- Longest / critical distances from component " + srcComp + " ---");
-            System.out.println(lpRes.dist);
-            System.out.println("Critical length = " + best);
-            System.out.println("Critical path   = " + lpRes.buildPath(bestNode));
-
-            System.out.println("\nDone: " + f.getName());
+            if (full) {
+                mLp.print("DAG longest", out);
+                out.println("\n--- Longest / critical distances from component " + srcComp + " ---");
+                out.println(lpRes.dist);
+                out.println("Critical length = " + best);
+                out.println("Critical path   = " + lpRes.buildPath(bestNode));
+                out.println("\nDone: " + f.getName());
+            } else {
+                long nanos = mLoad.elapsedNanos() + mScc.elapsedNanos() + mCond.elapsedNanos()
+                        + mTopo.elapsedNanos() + mSp.elapsedNanos() + mLp.elapsedNanos();
+                out.printf("%-30s n=%-9d arcs=%-10d sccs=%-8d shortest=%-12.1f critical=%-12.1f time=%.3f ms%n",
+                        f.getName(), n, arcs, sccRes.count(), shortest, best, nanos / 1e6);
+            }
 
         } catch (Exception e) {
-            System.out.println("Error on " + f.getName() + ": " + e.getMessage());
-            e.printStackTrace();
+            out.println("Error on " + f.getName() + ": " + e.getMessage());
+            e.printStackTrace(out);
         }
+        return buffer.toString(StandardCharsets.UTF_8);
     }
 }
@@ -0,0 +1,62 @@
+package app;
+
+import graph.common.Metrics;
+import graph.io.BinaryGraphFormat;
+import graph.io.JsonGraphLoader;
+import graph.scc.CondensationBuilder.EdgePolicy;
+import graph.scc.ExternalSCC;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// SCCs and condensation of a graph file that does not fit in heap.
+// Usage: OutOfCoreScc [--memory 512m] [--policy FIRST|MIN|MAX|SUM] graph.bin|graph.json outDir
+// Writes comp-id.bin, node-weight.bin and condensation.bin to outDir; see ExternalSCC.
+// A JSON input is first streamed into outDir/graph.bin through sorted runs on disk
+// (JsonGraphLoader.convert), within the same memory budget.
+
+public class OutOfCoreScc {
+
+    public static void main(String[] args) throws IOException {
+        long memory = Runtime.getRuntime().maxMemory() / 2;
+        EdgePolicy policy = EdgePolicy.FIRST;
+        String graph = null;
+        String out = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--memory") && i + 1 < args.length) memory = parseBytes(args[++i]);
+            else if (args[i].equals("--policy") && i + 1 < args.length) policy = EdgePolicy.valueOf(args[++i].toUpperCase());
+            else if (graph == null) graph = args[i];
+            else out = args[i];
+        }
+        if (graph == null || out == null) {
+            System.err.println("Usage: OutOfCoreScc [--memory 512m] [--policy FIRST|MIN|MAX|SUM] graph.bin|graph.json outDir");
+            return;
+        }
+
+        Path input = Path.of(graph);
+        Path outDir = Path.of(out);
+        if (!graph.endsWith(BinaryGraphFormat.EXTENSION)) {
+            Files.createDirectories(outDir);
+            Path bin = outDir.resolve("graph" + BinaryGraphFormat.EXTENSION);
+            Metrics load = new Metrics();
+            long arcs = JsonGraphLoader.convert(input.toFile(), bin, outDir, memory, load);
+            load.print("JSON -> binary (" + arcs + " arcs)");
+            input = bin;
+        }
+
+        Metrics m = new Metrics();
+        ExternalSCC.Result res = new ExternalSCC(memory).run(input, outDir, policy, m);
+        m.print("External SCC + condensation");
+        System.out.printf("n = %d, components = %d, DAG arcs = %d, peak heap %.1f of %.1f MiB%n",
+                res.vertices, res.components, res.dagArcs, res.peakBytes / 1048576.0, memory / 1048576.0);
+    }
+
+    // "123", "64k", "512m", "2g"
+    static long parseBytes(String s) {
+        char unit = Character.toLowerCase(s.charAt(s.length() - 1));
+        int shift = unit == 'k' ? 10 : unit == 'm' ? 20 : unit == 'g' ? 30 : 0;
+        String digits = shift == 0 ? s : s.substring(0, s.length() - 1);
+        return Long.parseLong(digits) << shift;
+    }
+}
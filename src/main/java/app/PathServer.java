@@ -0,0 +1,347 @@
+package app;
+
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import graph.common.CsrGraph;
+import graph.common.Metrics;
+import graph.common.MetricsRegistry;
+import graph.common.MetricsRegistry.Phase;
+import graph.dagsp.DagLongestPath;
+import graph.dagsp.LocalDagPaths;
+import graph.dagsp.PreparedDag;
+import graph.dagsp.ReachabilityIndex;
+import graph.io.BinaryGraphFormat;
+import graph.io.GraphDataset;
+import graph.scc.CondensationBuilder;
+import graph.scc.TarjanSCC;
+import graph.topo.TopoKahn;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Resident path query server: datasets are loaded and preprocessed once, then queried over HTTP.
+// Usage: PathServer [--port p] [file | directory ...]   (default: ./data on port 8080)
+//
+// Endpoints (GET, answers are JSON, vertices are original vertex ids):
+//   /datasets                                  names of the loaded datasets
+//   /component?dataset=d&v=x                   component of x and its size
+//   /shortest?dataset=d&to=y[&from=x]          shortest distance and component path x -> y (bounded local search)
+//   /critical?dataset=d[&from=x][&to=y]        longest (critical) path from x, to y or to the farthest component
+//   /reachable?dataset=d&to=y[&from=x]         whether y can be reached from x
+//   /metrics                                   preprocessing and query latency per dataset
+// from defaults to the source stored in the dataset.
+
+public class PathServer {
+
+    // One dataset with everything the queries need. Apart from the thread-safe metrics nothing
+    // is written after construction, so request threads share it without locks; PreparedDag
+    // synchronizes its own caches.
+    public static class Prepared {
+        public final String name;
+        public final CsrGraph graph;
+        public final int source;
+        public final TarjanSCC.Result scc;
+        public final PreparedDag dag;
+        public final ReachabilityIndex reach; // over the components
+        public final MetricsRegistry metrics; // preprocessing phases and query latencies
+
+        public Prepared(String name, GraphDataset data, int cacheSize) {
+            this.name = name;
+            this.graph = data.graph;
+            this.source = data.source;
+            this.metrics = new MetricsRegistry(name);
+            Metrics m = new Metrics();
+            this.scc = new TarjanSCC(graph).run(m);
+            metrics.record(Phase.SCC, m);
+            m = new Metrics();
+            m.start();
+            CondensationBuilder.CondensationResult cRes = CondensationBuilder.build(graph, scc);
+            m.stop();
+            metrics.record(Phase.CONDENSATION, m);
+            m = new Metrics();
+            int[] order = new TopoKahn(cRes.dag).order(m);
+            metrics.record(Phase.TOPO, m);
+            this.dag = new PreparedDag(cRes.dag, order, cRes.nodeWeight, cacheSize);
+            this.reach = new ReachabilityIndex(dag);
+        }
+    }
+
+    // Invalid request parameter, answered with 400
+    private static class BadRequest extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        BadRequest(String message) {
+            super(message);
+        }
+    }
+
+    private interface Query {
+        void answer(Map<String, String> params, JsonWriter out) throws IOException;
+    }
+
+    private final Map<String, Prepared> datasets;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public PathServer(Collection<Prepared> datasets) {
+        Map<String, Prepared> byName = new LinkedHashMap<>();
+        for (Prepared p : datasets) {
+            byName.put(p.name, p);
+        }
+        this.datasets = Collections.unmodifiableMap(byName);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = 8080;
+        List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--port") && i + 1 < args.length) port = Integer.parseInt(args[++i]);
+            else inputs.add(args[i]);
+        }
+        if (inputs.isEmpty()) inputs.add("data");
+
+        List<Prepared> loaded = new ArrayList<>();
+        for (String in : inputs) {
+            File f = new File(in);
+            File[] files = f.isDirectory() ? Main.listDatasets(f) : new File[]{f};
+            if (files == null) continue;
+            for (File file : files) {
+                Metrics m = new Metrics();
+                GraphDataset data = Main.load(file, BinaryGraphFormat.isBinary(file), m);
+                Prepared p = new Prepared(file.getName(), data, 1024);
+                p.metrics.record(Phase.LOAD, m);
+                loaded.add(p);
+                m.print("Load " + file.getName());
+            }
+        }
+        if (loaded.isEmpty()) {
+            System.err.println("No JSON or binary graph files found");
+            return;
+        }
+
+        PathServer srv = new PathServer(loaded);
+        int bound = srv.start(port);
+        System.out.println("Serving " + loaded.size() + " dataset(s) on http://localhost:" + bound + "/");
+    }
+
+    // Binds to the loopback interface (port 0 picks a free port) and returns the bound port
+    public synchronized int start(int port) throws IOException {
+        if (server != null) throw new IllegalStateException("already started");
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        executor = newExecutor();
+        server.setExecutor(executor);
+        server.createContext("/datasets", ex -> handle(ex, (params, out) -> {
+            out.beginArray();
+            for (String name : datasets.keySet()) {
+                out.value(name);
+            }
+            out.endArray();
+        }));
+        server.createContext("/component", ex -> handle(ex, this::component));
+        server.createContext("/shortest", ex -> handle(ex, this::shortest));
+        server.createContext("/critical", ex -> handle(ex, this::critical));
+        server.createContext("/reachable", ex -> handle(ex, this::reachable));
+        server.createContext("/metrics", ex -> handle(ex, (params, out) -> {
+            out.beginArray();
+            for (Prepared p : datasets.values()) {
+                out.jsonValue(p.metrics.toJson());
+            }
+            out.endArray();
+        }));
+        server.start();
+        return server.getAddress().getPort();
+    }
+
+    public synchronized void stop() {
+        if (server == null) return;
+        server.stop(0);
+        executor.shutdown();
+        server = null;
+    }
+
+    // One virtual thread per request where the runtime has them (Java 21+),
+    // a fixed pool of platform threads otherwise
+    static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Math.max(4, 2 * Runtime.getRuntime().availableProcessors()));
+        }
+    }
+
+    private void component(Map<String, String> params, JsonWriter out) throws IOException {
+        Prepared p = dataset(params);
+        int v = vertex(p, params, "v", -1);
+        int c = p.scc.compId[v];
+        out.beginObject();
+        out.name("dataset").value(p.name);
+        out.name("vertex").value(v);
+        out.name("component").value(c);
+        out.name("size").value(p.scc.size(c));
+        out.endObject();
+    }
+
+    private void shortest(Map<String, String> params, JsonWriter out) throws IOException {
+        Prepared p = dataset(params);
+        int from = vertex(p, params, "from", p.source);
+        int to = vertex(p, params, "to", -1);
+        int cs = p.scc.compId[from];
+        int ct = p.scc.compId[to];
+        Metrics m = new Metrics();
+        LocalDagPaths.Result res = p.dag.shortestPath(cs, ct, m);
+        p.metrics.record(Phase.SP, m);
+        double d = res.distance(ct);
+        out.beginObject();
+        out.name("dataset").value(p.name);
+        out.name("from").value(from);
+        out.name("to").value(to);
+        out.name("fromComponent").value(cs);
+        out.name("toComponent").value(ct);
+        out.name("distance");
+        if (Double.isInfinite(d)) out.nullValue();
+        else out.value(d);
+        writePath(out, res.path(ct));
+        out.endObject();
+    }
+
+    private void critical(Map<String, String> params, JsonWriter out) throws IOException {
+        Prepared p = dataset(params);
+        int from = vertex(p, params, "from", p.source);
+        int cs = p.scc.compId[from];
+        // only computations go into the LP latency histogram, cache hits would skew it
+        DagLongestPath.Result res = p.dag.cachedLongestPaths(cs);
+        if (res == null) {
+            Metrics m = new Metrics();
+            res = p.dag.longestPaths(cs, m);
+            p.metrics.record(Phase.LP, m);
+        }
+        int end;
+        if (params.containsKey("to")) {
+            end = p.scc.compId[vertex(p, params, "to", -1)];
+        } else {
+            // farthest component, first one on ties (same choice as Main)
+            end = cs;
+            for (int c = 0; c < res.distances.length; c++) {
+                if (res.distances[c] > res.distances[end]) end = c;
+            }
+        }
+        double len = res.distances[end];
+        out.beginObject();
+        out.name("dataset").value(p.name);
+        out.name("from").value(from);
+        out.name("fromComponent").value(cs);
+        out.name("toComponent").value(end);
+        out.name("length");
+        if (Double.isInfinite(len)) out.nullValue();
+        else out.value(len);
+        writePath(out, res.path(end));
+        out.endObject();
+    }
+
+    private void reachable(Map<String, String> params, JsonWriter out) throws IOException {
+        Prepared p = dataset(params);
+        int from = vertex(p, params, "from", p.source);
+        int to = vertex(p, params, "to", -1);
+        boolean reachable = p.reach.reaches(p.scc.compId[from], p.scc.compId[to]);
+        out.beginObject();
+        out.name("dataset").value(p.name);
+        out.name("from").value(from);
+        out.name("to").value(to);
+        out.name("reachable").value(reachable);
+        out.endObject();
+    }
+
+    private static void writePath(JsonWriter out, int[] path) throws IOException {
+        out.name("path").beginArray();
+        for (int c : path) {
+            out.value(c);
+        }
+        out.endArray();
+    }
+
+    private Prepared dataset(Map<String, String> params) {
+        String name = params.get("dataset");
+        if (name == null && datasets.size() == 1) return datasets.values().iterator().next();
+        if (name == null) throw new BadRequest("missing parameter: dataset");
+        Prepared p = datasets.get(name);
+        if (p == null) throw new NoSuchElementException("unknown dataset: " + name);
+        return p;
+    }
+
+    // Reads a vertex parameter; def < 0 means the parameter is required
+    private static int vertex(Prepared p, Map<String, String> params, String key, int def) {
+        String s = params.get(key);
+        if (s == null) {
+            if (def < 0) throw new BadRequest("missing parameter: " + key);
+            return def;
+        }
+        int v;
+        try {
+            v = Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            throw new BadRequest("not a vertex: " + key + "=" + s);
+        }
+        if (v < 0 || v >= p.graph.size()) {
+            throw new BadRequest(key + "=" + v + " outside [0, " + p.graph.size() + ")");
+        }
+        return v;
+    }
+
+    private static void handle(HttpExchange ex, Query query) throws IOException {
+        int status = 200;
+        StringWriter body = new StringWriter();
+        try {
+            if (!ex.getRequestMethod().equals("GET")) {
+                status = 405;
+                error(body, "only GET is supported");
+            } else {
+                query.answer(params(ex.getRequestURI().getRawQuery()), new JsonWriter(body));
+            }
+        } catch (BadRequest e) {
+            status = 400;
+            body = new StringWriter();
+            error(body, e.getMessage());
+        } catch (NoSuchElementException e) {
+            status = 404;
+            body = new StringWriter();
+            error(body, e.getMessage());
+        } catch (RuntimeException e) {
+            status = 500;
+            body = new StringWriter();
+            error(body, String.valueOf(e));
+        }
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = ex.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    private static void error(StringWriter body, String message) throws IOException {
+        JsonWriter out = new JsonWriter(body);
+        out.beginObject().name("error").value(message).endObject();
+    }
+
+    private static Map<String, String> params(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) return params;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String k = eq < 0 ? pair : pair.substring(0, eq);
+            String v = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(k, StandardCharsets.UTF_8), URLDecoder.decode(v, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+}
@@ -0,0 +1,178 @@
+package graph.common;
+
+import java.util.Arrays;
+
+ // Immutable compressed sparse row (CSR) representation of a weighted graph.
+ // Out-edges of vertex u are stored at positions offsets[u] .. offsets[u + 1] - 1
+ // of the targets/weights arrays, so there is no object per edge.
+ // The arrays are shared, not copied: callers must treat them as read-only.
+
+public final class CsrGraph {
+    private final int n; // number of vertices
+    private final boolean directed; // true if the graph is directed
+    public final int[] offsets; // n + 1 entries, offsets[n] == number of arcs
+    public final int[] targets; // head vertex of every arc
+    public final double[] weights; // weight of every arc
+
+    public CsrGraph(int n, boolean directed, int[] offsets, int[] targets, double[] weights) {
+        if (offsets.length != n + 1) {
+            throw new IllegalArgumentException("offsets must have n + 1 = " + (n + 1) + " entries, got " + offsets.length);
+        }
+        int m = offsets[n];
+        if (targets.length != m || weights.length != m) {
+            throw new IllegalArgumentException("targets/weights must have " + m + " entries");
+        }
+        this.n = n;
+        this.directed = directed;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    // Converts an adjacency-list graph, keeping the order of every adjacency list
+    public static CsrGraph from(Graph g) {
+        int n = g.size();
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] = offsets[u] + g.adj.get(u).size();
+        }
+        int[] targets = new int[offsets[n]];
+        double[] weights = new double[offsets[n]];
+        int i = 0;
+        for (int u = 0; u < n; u++) {
+            for (Graph.Edge e : g.adj.get(u)) {
+                targets[i] = e.to;
+                weights[i] = e.w;
+                i++;
+            }
+        }
+        return new CsrGraph(n, g.isDirected(), offsets, targets, weights);
+    }
+
+    // Returns the number of vertices
+    public int size() {
+        return n;
+    }
+
+    // Returns the number of stored arcs (an undirected edge counts twice)
+    public int edgeCount() {
+        return offsets[n];
+    }
+
+    // Returns whether the graph is directed
+    public boolean isDirected() {
+        return directed;
+    }
+
+    // Number of out-edges of u
+    public int outDegree(int u) {
+        return offsets[u + 1] - offsets[u];
+    }
+
+    // Reverse graph: every arc u -> v becomes v -> u with the same weight.
+    // In-edges of v appear in increasing order of their source u.
+    public CsrGraph transpose() {
+        int m = edgeCount();
+        int[] revOffsets = new int[n + 1];
+        for (int i = 0; i < m; i++) {
+            revOffsets[targets[i] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            revOffsets[v + 1] += revOffsets[v];
+        }
+        int[] next = Arrays.copyOf(revOffsets, n);
+        int[] revTargets = new int[m];
+        double[] revWeights = new double[m];
+        for (int u = 0; u < n; u++) {
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int pos = next[targets[i]]++;
+                revTargets[pos] = u;
+                revWeights[pos] = weights[i];
+            }
+        }
+        return new CsrGraph(n, directed, revOffsets, revTargets, revWeights);
+    }
+
+    // Lays the first m arcs (from[i] -> to[i], weight w[i]) out by source with a stable counting sort
+    public static CsrGraph fromArcs(int n, boolean directed, int[] from, int[] to, double[] w, int m) {
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < m; i++) {
+            offsets[from[i] + 1]++;
+        }
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] += offsets[u];
+        }
+        int[] next = Arrays.copyOf(offsets, n);
+        int[] targets = new int[m];
+        double[] weights = new double[m];
+        for (int i = 0; i < m; i++) {
+            int pos = next[from[i]]++;
+            targets[pos] = to[i];
+            weights[pos] = w[i];
+        }
+        return new CsrGraph(n, directed, offsets, targets, weights);
+    }
+
+    // Incremental builder: collects edges in any order and lays them out in CSR form.
+    // Edges of the same source keep their insertion order, exactly like Graph.addEdge.
+    public static class Builder {
+        private final int n;
+        private final boolean directed;
+        private int[] from;
+        private int[] to;
+        private double[] w;
+        private int m = 0;
+
+        public Builder(int n, boolean directed) {
+            this(n, directed, 16);
+        }
+
+        public Builder(int n, boolean directed, int expectedEdges) {
+            if (n < 0) {
+                throw new IllegalArgumentException("negative vertex count: " + n);
+            }
+            int cap = Math.max(16, directed ? expectedEdges : 2 * expectedEdges);
+            this.n = n;
+            this.directed = directed;
+            this.from = new int[cap];
+            this.to = new int[cap];
+            this.w = new double[cap];
+        }
+
+        // Adds an edge u -> v with weight w
+        // If undirected, also adds v -> u
+        public Builder addEdge(int u, int v, double weight) {
+            if (u < 0 || u >= n || v < 0 || v >= n) {
+                throw new IndexOutOfBoundsException("edge " + u + "->" + v + " outside [0, " + n + ")");
+            }
+            append(u, v, weight);
+            if (!directed) {
+                append(v, u, weight);
+            }
+            return this;
+        }
+
+        private void append(int u, int v, double weight) {
+            if (m == from.length) {
+                int cap = from.length + (from.length >> 1);
+                from = Arrays.copyOf(from, cap);
+                to = Arrays.copyOf(to, cap);
+                w = Arrays.copyOf(w, cap);
+            }
+            from[m] = u;
+            to[m] = v;
+            w[m] = weight;
+            m++;
+        }
+
+        // Returns the number of vertices
+        public int size() {
+            return n;
+        }
+
+        // Lays the collected arcs out by source
+        public CsrGraph build() {
+            return fromArcs(n, directed, from, to, w, m);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package graph.common;
+
+import java.util.Arrays;
+
+ // Indexed d-ary min-heap of int ids 0..capacity-1 with double keys, for Dijkstra-style searches.
+ // The heap slots hold ids and keys side by side in two flat arrays, and index[id] is the slot of
+ // id (-1 when absent), so decrease-key is a sift-up from a known slot and nothing is boxed.
+ // A wider node (d = 4 by default) makes the tree shallower: fewer cache misses per sift, at the
+ // price of more key comparisons per level in pollMin.
+ // Ids leave the index when they are polled, so a drained heap is empty again without any reset.
+
+public class IndexedDaryHeap {
+    public static final int DEFAULT_ARITY = 4;
+
+    private final int d;
+    private final int[] ids; // ids[slot]
+    private final double[] keys; // keys[slot] = key of ids[slot]
+    private final int[] index; // index[id] = slot, or -1
+    private int size = 0;
+
+    public IndexedDaryHeap(int capacity) {
+        this(capacity, DEFAULT_ARITY);
+    }
+
+    public IndexedDaryHeap(int capacity, int arity) {
+        if (capacity < 0) throw new IllegalArgumentException("negative capacity: " + capacity);
+        if (arity < 2) throw new IllegalArgumentException("arity must be at least 2: " + arity);
+        this.d = arity;
+        this.ids = new int[capacity];
+        this.keys = new double[capacity];
+        this.index = new int[capacity];
+        Arrays.fill(index, -1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int id) {
+        return index[id] >= 0;
+    }
+
+    // Key of an id in the heap
+    public double key(int id) {
+        int slot = index[id];
+        if (slot < 0) throw new IllegalArgumentException("id " + id + " is not in the heap");
+        return keys[slot];
+    }
+
+    // Inserts id, or lowers its key if it is already in the heap with a larger one.
+    // Returns false if the id was present with a key <= key and nothing changed.
+    public boolean push(int id, double key) {
+        int slot = index[id];
+        if (slot < 0) {
+            slot = size++;
+        } else if (keys[slot] <= key) {
+            return false;
+        }
+        siftUp(slot, id, key);
+        return true;
+    }
+
+    public int peekMin() {
+        if (size == 0) throw new IllegalStateException("heap is empty");
+        return ids[0];
+    }
+
+    public double minKey() {
+        if (size == 0) throw new IllegalStateException("heap is empty");
+        return keys[0];
+    }
+
+    // Removes and returns the id with the smallest key
+    public int pollMin() {
+        if (size == 0) throw new IllegalStateException("heap is empty");
+        int top = ids[0];
+        index[top] = -1;
+        int last = --size;
+        if (last > 0) siftDown(0, ids[last], keys[last]);
+        return top;
+    }
+
+    // Empties the heap in O(size)
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            index[ids[i]] = -1;
+        }
+        size = 0;
+    }
+
+    // Moves the hole at slot up until key fits, then stores (id, key) there
+    private void siftUp(int slot, int id, double key) {
+        while (slot > 0) {
+            int up = (slot - 1) / d;
+            double k = keys[up];
+            if (k <= key) break;
+            ids[slot] = ids[up];
+            keys[slot] = k;
+            index[ids[slot]] = slot;
+            slot = up;
+        }
+        ids[slot] = id;
+        keys[slot] = key;
+        index[id] = slot;
+    }
+
+    // Moves the hole at slot down past every smaller child, then stores (id, key) there
+    private void siftDown(int slot, int id, double key) {
+        while (true) {
+            int first = slot * d + 1;
+            if (first >= size) break;
+            int end = Math.min(first + d, size);
+            int best = first;
+            double bestKey = keys[first];
+            for (int c = first + 1; c < end; c++) {
+                if (keys[c] < bestKey) {
+                    best = c;
+                    bestKey = keys[c];
+                }
+            }
+            if (bestKey >= key) break;
+            ids[slot] = ids[best];
+            keys[slot] = bestKey;
+            index[ids[slot]] = slot;
+            slot = best;
+        }
+        ids[slot] = id;
+        keys[slot] = key;
+        index[id] = slot;
+    }
+}
@@ -0,0 +1,90 @@
+package graph.common;
+
+import java.util.*;
+
+ // Read-only Map views over per-vertex primitive arrays.
+ // Keys are the vertex ids 0 .. length - 1; nothing is copied or boxed until a value is read.
+
+public final class IndexedMaps {
+
+    private IndexedMaps() {
+    }
+
+    // View of a double[] as vertex -> value
+    public static Map<Integer, Double> ofDoubles(double[] values) {
+        return new View<>(values.length) {
+            @Override
+            Double valueAt(int i) {
+                return values[i];
+            }
+        };
+    }
+
+    // View of a parent array as vertex -> parent, where -1 is shown as null
+    public static Map<Integer, Integer> ofParents(int[] parents) {
+        return new View<>(parents.length) {
+            @Override
+            Integer valueAt(int i) {
+                return parents[i] < 0 ? null : parents[i];
+            }
+        };
+    }
+
+    private abstract static class View<V> extends AbstractMap<Integer, V> {
+        private final int size;
+
+        View(int size) {
+            this.size = size;
+        }
+
+        abstract V valueAt(int i);
+
+        private boolean inRange(Object key) {
+            return key instanceof Integer && (Integer) key >= 0 && (Integer) key < size;
+        }
+
+        @Override
+        public V get(Object key) {
+            return inRange(key) ? valueAt((Integer) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return inRange(key);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Set<Entry<Integer, V>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Integer, V>> iterator() {
+                    return new Iterator<>() {
+                        private int next = 0;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < size;
+                        }
+
+                        @Override
+                        public Entry<Integer, V> next() {
+                            if (next >= size) throw new NoSuchElementException();
+                            int i = next++;
+                            return new SimpleImmutableEntry<>(i, valueAt(i));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package graph.common;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+ // Lock-free log-linear histogram of durations in nanoseconds.
+ // Every power of two is split into 8 sub-buckets, so a reported percentile is within 12.5%
+ // of the true value. Any number of threads may record concurrently.
+
+public class LatencyHistogram {
+    private static final int SUB_BITS = 3;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(0);
+
+    // Records one duration; negative values count as 0
+    public void record(long nanos) {
+        long v = Math.max(0, nanos);
+        counts.incrementAndGet(bucket(v));
+        count.increment();
+        total.add(v);
+        min.accumulateAndGet(v, Math::min);
+        max.accumulateAndGet(v, Math::max);
+    }
+
+    // Values below 8 get exact buckets, larger ones 8 buckets per power of two
+    private static int bucket(long v) {
+        if (v < SUB) return (int) v;
+        int exp = 63 - Long.numberOfLeadingZeros(v); // >= SUB_BITS
+        int sub = (int) (v >>> (exp - SUB_BITS)) & (SUB - 1);
+        return (exp - SUB_BITS + 1) * SUB + sub;
+    }
+
+    // Largest value that falls into bucket b
+    private static long upperBound(int b) {
+        if (b < SUB) return b;
+        int exp = b / SUB + SUB_BITS - 1;
+        long sub = b % SUB;
+        long lo = (1L << exp) + (sub << (exp - SUB_BITS));
+        return lo + (1L << (exp - SUB_BITS)) - 1;
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long totalNanos() {
+        return total.sum();
+    }
+
+    public long minNanos() {
+        return count() == 0 ? 0 : min.get();
+    }
+
+    public long maxNanos() {
+        return max.get();
+    }
+
+    public double meanNanos() {
+        long c = count();
+        return c == 0 ? 0 : (double) totalNanos() / c;
+    }
+
+    // Value at quantile q (0..1), reported as the upper bound of its bucket, capped at the maximum
+    public long percentile(double q) {
+        long c = count();
+        if (c == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(q * c));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts.get(b);
+            if (seen >= rank) return Math.min(upperBound(b), maxNanos());
+        }
+        return maxNanos();
+    }
+}
@@ -0,0 +1,108 @@
+package graph.common;
+
+import java.util.Arrays;
+
+ // Open-addressing hash map from non-negative long keys to int values.
+ // Keys and values live in two flat arrays (linear probing), so lookups never box or allocate.
+ // Key -1 marks an empty slot, which is why negative keys are not allowed.
+ // The table stops doubling at 2^30 slots; a full table of that size rejects new keys.
+
+public class LongIntHashMap {
+    private static final long EMPTY = -1L;
+    static final int MAX_CAPACITY = 1 << 30;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int threshold; // size at which the next insert grows the table
+    private int size = 0;
+
+    public LongIntHashMap(int expectedSize) {
+        long want = (long) expectedSize * 4 / 3 + 1; // stay under the 3/4 load factor
+        int cap = 4;
+        while (cap < want && cap < MAX_CAPACITY) {
+            cap <<= 1;
+        }
+        keys = new long[cap];
+        values = new int[cap];
+        Arrays.fill(keys, EMPTY);
+        mask = cap - 1;
+        threshold = threshold(cap);
+    }
+
+    // 3/4 of the capacity, in long arithmetic: (1 << 30) * 3 does not fit in an int
+    static int threshold(int capacity) {
+        return (int) ((long) capacity * 3 / 4);
+    }
+
+    // Packs two non-negative ints into one key
+    public static long key(int hi, int lo) {
+        return ((long) hi << 32) | (lo & 0xFFFFFFFFL);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Returns the value for key, or -1 if the key is absent
+    public int get(long key) {
+        int slot = slot(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) return values[slot];
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    // Stores value only if key is absent. Returns the existing value, or -1 if value was inserted.
+    public int putIfAbsent(long key, int value) {
+        if (key < 0) throw new IllegalArgumentException("negative key: " + key);
+        int slot = slot(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) return values[slot];
+            slot = (slot + 1) & mask;
+        }
+        if (size == threshold) {
+            grow();
+            slot = slot(key);
+            while (keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        return -1;
+    }
+
+    private int slot(long key) {
+        // murmur3 finalizer: spreads the (hi, lo) halves over the table
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    private void grow() {
+        if (keys.length == MAX_CAPACITY) {
+            throw new IllegalStateException("LongIntHashMap is full: " + size + " keys");
+        }
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        mask = keys.length - 1;
+        threshold = threshold(keys.length);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) continue;
+            int slot = slot(oldKeys[i]);
+            while (keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package graph.common;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+ // Thread-safe aggregate of many Metrics runs, e.g. all runs over one dataset.
+ // A Metrics object belongs to one run on one thread; when the run is over it is folded in here
+ // with record(phase, m): its time goes into the latency histogram of the phase, its counters
+ // into LongAdder totals, and a PhaseEvent is emitted for JFR.
+ // Start the JVM with -Dgraph.metrics=off to disable all of it, together with the Metrics counters;
+ // ENABLED is a constant, so the JIT removes the disabled calls entirely.
+
+public class MetricsRegistry {
+    public static final boolean ENABLED = Metrics.COUNTERS;
+
+    // Named phases of the processing pipeline
+    public enum Phase {
+        LOAD, SCC, CONDENSATION, TOPO, SP, LP
+    }
+
+    private final String name;
+    private final LatencyHistogram[] phases = new LatencyHistogram[Phase.values().length];
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    public MetricsRegistry(String name) {
+        this.name = name;
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new LatencyHistogram();
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public LatencyHistogram histogram(Phase phase) {
+        return phases[phase.ordinal()];
+    }
+
+    // Adds delta to a named counter
+    public void add(String counter, long delta) {
+        if (!ENABLED) return;
+        counters.computeIfAbsent(counter, k -> new LongAdder()).add(delta);
+    }
+
+    // Current total of a named counter, 0 if it was never incremented
+    public long counter(String counter) {
+        LongAdder a = counters.get(counter);
+        return a == null ? 0 : a.sum();
+    }
+
+    // Folds one finished run into the phase histogram and counters
+    public void record(Phase phase, Metrics m) {
+        if (!ENABLED) return;
+        long nanos = m.elapsedNanos();
+        histogram(phase).record(nanos);
+        String prefix = phase.name().toLowerCase() + ".";
+        addNonZero(prefix + "dfsVisits", m.dfsVisits);
+        addNonZero(prefix + "edgesSeen", m.edgesSeen);
+        addNonZero(prefix + "queuePushes", m.queuePushes);
+        addNonZero(prefix + "queuePops", m.queuePops);
+        addNonZero(prefix + "relaxations", m.relaxations);
+
+        PhaseEvent e = new PhaseEvent();
+        if (e.isEnabled()) {
+            e.registry = name;
+            e.phase = phase.name();
+            e.nanos = nanos;
+            e.dfsVisits = m.dfsVisits;
+            e.edgesSeen = m.edgesSeen;
+            e.queuePushes = m.queuePushes;
+            e.queuePops = m.queuePops;
+            e.relaxations = m.relaxations;
+            e.commit();
+        }
+    }
+
+    private void addNonZero(String counter, long delta) {
+        if (delta != 0) add(counter, delta);
+    }
+
+    // This registry as one JSON object
+    public String toJson() {
+        StringWriter s = new StringWriter();
+        try {
+            JsonWriter out = new JsonWriter(s);
+            writeJson(out);
+            out.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // StringWriter does not throw
+        }
+        return s.toString();
+    }
+
+    private void writeJson(JsonWriter out) throws IOException {
+        out.beginObject();
+        out.name("registry").value(name);
+        out.name("phases").beginObject();
+        for (Phase p : Phase.values()) {
+            LatencyHistogram h = histogram(p);
+            if (h.count() == 0) continue;
+            out.name(p.name()).beginObject();
+            out.name("count").value(h.count());
+            out.name("totalNanos").value(h.totalNanos());
+            out.name("minNanos").value(h.minNanos());
+            out.name("meanNanos").value(h.meanNanos());
+            out.name("p50Nanos").value(h.percentile(0.50));
+            out.name("p90Nanos").value(h.percentile(0.90));
+            out.name("p99Nanos").value(h.percentile(0.99));
+            out.name("maxNanos").value(h.maxNanos());
+            out.endObject();
+        }
+        out.endObject();
+        out.name("counters").beginObject();
+        for (Map.Entry<String, LongAdder> c : new TreeMap<>(counters).entrySet()) {
+            out.name(c.getKey()).value(c.getValue().sum());
+        }
+        out.endObject();
+        out.endObject();
+    }
+
+    public static final String CSV_HEADER = "registry,phase,count,total_ns,min_ns,mean_ns,p50_ns,p90_ns,p99_ns,max_ns";
+
+    // One CSV line per recorded phase, without header
+    public String toCsv() {
+        StringBuilder sb = new StringBuilder();
+        for (Phase p : Phase.values()) {
+            LatencyHistogram h = histogram(p);
+            if (h.count() == 0) continue;
+            sb.append(csvField(name)).append(',').append(p.name())
+                    .append(',').append(h.count())
+                    .append(',').append(h.totalNanos())
+                    .append(',').append(h.minNanos())
+                    .append(',').append(Math.round(h.meanNanos()))
+                    .append(',').append(h.percentile(0.50))
+                    .append(',').append(h.percentile(0.90))
+                    .append(',').append(h.percentile(0.99))
+                    .append(',').append(h.maxNanos())
+                    .append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static String csvField(String s) {
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0) return s;
+        return '"' + s.replace("\"", "\"\"") + '"';
+    }
+
+    // Writes several registries to file: a CSV table for *.csv, a JSON array otherwise
+    public static void export(Collection<MetricsRegistry> registries, Path file) throws IOException {
+        try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            if (file.getFileName().toString().endsWith(".csv")) {
+                w.write(CSV_HEADER);
+                w.write('\n');
+                for (MetricsRegistry r : registries) {
+                    w.write(r.toCsv());
+                }
+            } else {
+                JsonWriter out = new JsonWriter(w);
+                out.setIndent("  ");
+                out.beginArray();
+                for (MetricsRegistry r : registries) {
+                    r.writeJson(out);
+                }
+                out.endArray();
+                out.flush();
+            }
+        }
+    }
+
+    public static void export(MetricsRegistry registry, Path file) throws IOException {
+        export(List.of(registry), file);
+    }
+}
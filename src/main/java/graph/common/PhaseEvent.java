@@ -0,0 +1,42 @@
+package graph.common;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+ // JFR event for one timed algorithm phase, emitted by MetricsRegistry.record.
+ // Shows up in a recording (java -XX:StartFlightRecording ...) as graph.Phase.
+
+@Name("graph.Phase")
+@Label("Graph Phase")
+@Category("Graph Algorithms")
+@Description("One run of a graph algorithm phase with its operation counts")
+@StackTrace(false)
+public class PhaseEvent extends Event {
+    @Label("Registry")
+    public String registry;
+
+    @Label("Phase")
+    public String phase;
+
+    @Label("Duration (ns)")
+    public long nanos;
+
+    @Label("DFS Visits")
+    public long dfsVisits;
+
+    @Label("Edges Seen")
+    public long edgesSeen;
+
+    @Label("Queue Pushes")
+    public long queuePushes;
+
+    @Label("Queue Pops")
+    public long queuePops;
+
+    @Label("Relaxations")
+    public long relaxations;
+}
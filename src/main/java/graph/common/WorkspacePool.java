@@ -0,0 +1,53 @@
+package graph.common;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+ // Bounded pool of reusable per-query workspaces (O(V) arrays), shared by all threads.
+ // A ThreadLocal does not help servers that run every request on a fresh (virtual) thread: each
+ // request would allocate and zero a new workspace. Here a query borrows one and gives it back;
+ // at most maxIdle idle workspaces are kept, extras from a burst are left to the GC.
+
+public class WorkspacePool<T> {
+    private final Supplier<T> factory;
+    private final int maxIdle;
+    private final ConcurrentLinkedQueue<T> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final AtomicInteger created = new AtomicInteger();
+
+    public WorkspacePool(Supplier<T> factory) {
+        this(factory, Math.max(4, 2 * Runtime.getRuntime().availableProcessors()));
+    }
+
+    public WorkspacePool(Supplier<T> factory, int maxIdle) {
+        if (maxIdle < 1) throw new IllegalArgumentException("maxIdle must be positive: " + maxIdle);
+        this.factory = factory;
+        this.maxIdle = maxIdle;
+    }
+
+    // An idle workspace, or a new one when all are in use
+    public T borrow() {
+        T w = idle.poll();
+        if (w == null) {
+            created.incrementAndGet();
+            return factory.get();
+        }
+        idleCount.decrementAndGet();
+        return w;
+    }
+
+    // Returns a workspace borrowed from this pool; it must not be used afterwards
+    public void giveBack(T w) {
+        if (idleCount.incrementAndGet() <= maxIdle) {
+            idle.offer(w);
+        } else {
+            idleCount.decrementAndGet();
+        }
+    }
+
+    // Workspaces allocated so far; stays near the peak number of concurrent queries
+    public int created() {
+        return created.get();
+    }
+}
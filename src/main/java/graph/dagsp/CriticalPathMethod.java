@@ -0,0 +1,257 @@
+package graph.dagsp;
+
+import graph.common.CsrGraph;
+import graph.common.Metrics;
+import graph.topo.TopoKahn;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+ // Critical path method (CPM) over a DAG of activities, e.g. the condensation DAG with
+ // CondensationResult.nodeWeight as durations and edge weights as lags between activities.
+ //   ES[c]   earliest start: 0 for activities without predecessors, else max(EF[p] + lag)
+ //   tail[c] longest chain from c to the end, c's own duration included
+ //   T       project length = max EF
+ //   LS = T - tail, EF = ES + duration, LF = LS + duration, slack = LS - ES
+ // ES and tail do not depend on T, so one forward and one backward pass compute everything, and
+ // changing one duration only re-evaluates the descendants (ES) and ancestors (tail) whose values
+ // actually change, visited in topological order from a primitive heap of positions.
+ // T is the root of a max-tree over the EF of the sinks, so an update that moves a sink's EF
+ // repairs T in O(log #sinks) instead of rescanning every sink.
+
+public class CriticalPathMethod {
+    private final CsrGraph g;
+    private final CsrGraph rev; // predecessors, for pulling ES
+    private final int[] order;
+    private final int[] position;
+    private final double[] duration;
+    private final double[] es;
+    private final double[] tail;
+    private final int[] sinks; // activities without successors; T = max over them of EF
+    private final int[] sinkSlot; // index of v in sinks, or -1
+    private final double[] sinkTree; // max-tree over EF of the sinks, leaves at sinks.length + i
+    private final boolean[] queued; // update queue membership
+    private int[] heap = new int[64]; // binary min-heap of queue keys, see setDuration
+    private int heapSize = 0;
+    private double length;
+
+    public CriticalPathMethod(CsrGraph dag, double[] duration) {
+        this(dag, new TopoKahn(dag).order(), duration);
+    }
+
+    // Durations of a prepared condensation: its node weights
+    public CriticalPathMethod(PreparedDag dag) {
+        this(dag.graph(), dag.order(), dag.nodeWeight());
+    }
+
+    public CriticalPathMethod(CsrGraph dag, int[] order, double[] duration) {
+        int n = dag.size();
+        this.g = dag;
+        this.rev = dag.transpose();
+        this.order = order;
+        this.position = new int[n];
+        for (int p = 0; p < n; p++) {
+            position[order[p]] = p;
+        }
+        this.duration = duration != null ? duration.clone() : new double[n];
+        this.es = new double[n];
+        this.tail = new double[n];
+        this.sinks = IntStream.range(0, n).filter(v -> dag.outDegree(v) == 0).toArray();
+        this.sinkSlot = new int[n];
+        Arrays.fill(sinkSlot, -1);
+        for (int i = 0; i < sinks.length; i++) {
+            sinkSlot[sinks[i]] = i;
+        }
+        this.sinkTree = new double[2 * sinks.length];
+        this.queued = new boolean[n];
+        recompute(new Metrics());
+    }
+
+    // Wrapper without metrics
+    public void recompute() {
+        recompute(new Metrics());
+    }
+
+    // Full forward and backward pass
+    public void recompute(Metrics m) {
+        m.start();
+        Arrays.fill(es, 0.0);
+        for (int u : order) {
+            double ef = es[u] + duration[u];
+            for (int i = g.offsets[u]; i < g.offsets[u + 1]; i++) {
+                int v = g.targets[i];
+                es[v] = Math.max(es[v], ef + g.weights[i]);
+                if (Metrics.COUNTERS) m.relaxations++;
+            }
+        }
+        for (int p = order.length - 1; p >= 0; p--) {
+            tail[order[p]] = tailOf(order[p], m);
+        }
+        int s = sinks.length;
+        for (int i = 0; i < s; i++) {
+            sinkTree[s + i] = es[sinks[i]] + duration[sinks[i]];
+        }
+        for (int i = s - 1; i > 0; i--) {
+            sinkTree[i] = Math.max(sinkTree[2 * i], sinkTree[2 * i + 1]);
+        }
+        length = sinkMax();
+        m.stop();
+    }
+
+    private double esOf(int v, Metrics m) {
+        double best = 0.0;
+        for (int i = rev.offsets[v]; i < rev.offsets[v + 1]; i++) {
+            int p = rev.targets[i];
+            best = Math.max(best, (es[p] + duration[p]) + rev.weights[i]);
+            if (Metrics.COUNTERS) m.relaxations++;
+        }
+        return best;
+    }
+
+    private double tailOf(int u, Metrics m) {
+        double best = 0.0;
+        for (int i = g.offsets[u]; i < g.offsets[u + 1]; i++) {
+            best = Math.max(best, g.weights[i] + tail[g.targets[i]]);
+            if (Metrics.COUNTERS) m.relaxations++;
+        }
+        return duration[u] + best;
+    }
+
+    private double sinkMax() {
+        return sinks.length == 0 ? 0.0 : Math.max(0.0, sinkTree[1]);
+    }
+
+    // Refreshes the leaf of v after its EF moved; a no-op for activities with successors
+    private void updateSink(int v) {
+        int i = sinkSlot[v];
+        if (i < 0) return;
+        i += sinks.length;
+        sinkTree[i] = es[v] + duration[v];
+        for (i >>= 1; i > 0; i >>= 1) {
+            sinkTree[i] = Math.max(sinkTree[2 * i], sinkTree[2 * i + 1]);
+        }
+    }
+
+    // Wrapper without metrics
+    public void setDuration(int c, double d) {
+        setDuration(c, d, new Metrics());
+    }
+
+    // Changes one duration and repairs ES downstream and tail upstream of c
+    public void setDuration(int c, double d, Metrics m) {
+        m.start();
+        double old = duration[c];
+        duration[c] = d;
+        if (d != old) {
+            // forward, by increasing position: EF[c] moved, so successors may start at another time
+            updateSink(c);
+            enqueue(g, c, false, m);
+            while (heapSize > 0) {
+                int v = order[pop(m)];
+                queued[v] = false;
+                double nv = esOf(v, m);
+                if (nv != es[v]) {
+                    es[v] = nv;
+                    updateSink(v);
+                    enqueue(g, v, false, m);
+                }
+            }
+            // backward, by decreasing position: tail[c] moved, so predecessors' chains may too
+            tail[c] = tailOf(c, m);
+            enqueue(rev, c, true, m);
+            while (heapSize > 0) {
+                int u = order[order.length - 1 - pop(m)];
+                queued[u] = false;
+                double nt = tailOf(u, m);
+                if (nt != tail[u]) {
+                    tail[u] = nt;
+                    enqueue(rev, u, true, m);
+                }
+            }
+            length = sinkMax();
+        }
+        m.stop();
+    }
+
+    // Queues the neighbours of u in adj by topological position, once each; the backward pass
+    // keys them by last position - position so the min-heap pops the latest one first.
+    // Every queued vertex is polled again, so queued is all false between updates.
+    private void enqueue(CsrGraph adj, int u, boolean backward, Metrics m) {
+        for (int i = adj.offsets[u]; i < adj.offsets[u + 1]; i++) {
+            int v = adj.targets[i];
+            if (!queued[v]) {
+                queued[v] = true;
+                push(backward ? order.length - 1 - position[v] : position[v], m);
+            }
+        }
+    }
+
+    private void push(int key, Metrics m) {
+        if (heapSize == heap.length) heap = Arrays.copyOf(heap, heapSize * 2);
+        int i = heapSize++;
+        while (i > 0) {
+            int up = (i - 1) >>> 1;
+            if (heap[up] <= key) break;
+            heap[i] = heap[up];
+            i = up;
+        }
+        heap[i] = key;
+        if (Metrics.COUNTERS) m.queuePushes++;
+    }
+
+    private int pop(Metrics m) {
+        int top = heap[0];
+        int last = heap[--heapSize];
+        int i = 0;
+        while (true) {
+            int c = 2 * i + 1;
+            if (c >= heapSize) break;
+            if (c + 1 < heapSize && heap[c + 1] < heap[c]) c++;
+            if (heap[c] >= last) break;
+            heap[i] = heap[c];
+            i = c;
+        }
+        heap[i] = last;
+        if (Metrics.COUNTERS) m.queuePops++;
+        return top;
+    }
+
+    public double duration(int c) {
+        return duration[c];
+    }
+
+    // Project length T
+    public double projectLength() {
+        return length;
+    }
+
+    public double earliestStart(int c) {
+        return es[c];
+    }
+
+    public double earliestFinish(int c) {
+        return es[c] + duration[c];
+    }
+
+    public double latestStart(int c) {
+        return length - tail[c];
+    }
+
+    public double latestFinish(int c) {
+        return length - tail[c] + duration[c];
+    }
+
+    public double slack(int c) {
+        return length - tail[c] - es[c];
+    }
+
+    // Whether c has zero slack (up to rounding in the sums)
+    public boolean isCritical(int c) {
+        return slack(c) <= 1e-9 * Math.max(1.0, Math.abs(length));
+    }
+
+    // All zero-slack activities in topological order
+    public int[] criticalComponents() {
+        return Arrays.stream(order).filter(this::isCritical).toArray();
+    }
+}
@@ -1,6 +1,8 @@
 package graph.dagsp;
 
+import graph.common.CsrGraph;
 import graph.common.Graph;
+import graph.common.IndexedMaps;
 import graph.common.Metrics;
 import graph.topo.TopoKahn;
 import java.util.*;
@@ -9,40 +11,69 @@ import java.util.*;
  // Works with edge weights and optionally includes node weights
 
 public class DagLongestPath {
-    private final Graph g;
+    private final CsrGraph g;
     private final double[] nodeWeight; // optional array of node weights
+    private final int[] order; // precomputed topological order, or null to sort on every call
 
     public DagLongestPath(Graph g) {
         this(g, null);
     }
 
     public DagLongestPath(Graph g, double[] nodeWeight) {
+        this(CsrGraph.from(g), nodeWeight);
+    }
+
+    public DagLongestPath(CsrGraph g) {
+        this(g, null);
+    }
+
+    public DagLongestPath(CsrGraph g, double[] nodeWeight) {
+        this(g, nodeWeight, null);
+    }
+
+    public DagLongestPath(CsrGraph g, double[] nodeWeight, int[] order) {
         this.g = g;
         this.nodeWeight = nodeWeight;
+        this.order = order;
     }
 
-    // Result container: stores distances and parent links
+    // Result container: distances and parent links in flat arrays.
+    // parents[v] == -1 means v has no parent (the source, or unreachable)
     public static class Result {
-        public final Map<Integer, Double> dist;
-        public final Map<Integer, Integer> parent;
+        public final double[] distances;
+        public final int[] parents;
+        public final Map<Integer, Double> dist; // read-only map view of distances
+        public final Map<Integer, Integer> parent; // read-only map view of parents, -1 shown as null
+
+        public Result(double[] distances, int[] parents) {
+            this.distances = distances;
+            this.parents = parents;
+            this.dist = IndexedMaps.ofDoubles(distances);
+            this.parent = IndexedMaps.ofParents(parents);
+        }
 
-        public Result(Map<Integer, Double> dist, Map<Integer, Integer> parent) {
-            this.dist = dist;
-            this.parent = parent;
+        // Reconstructs path from source to target using parent links, empty if unreachable
+        public int[] path(int target) {
+            if (target < 0 || target >= distances.length || distances[target] == Double.NEGATIVE_INFINITY) {
+                return new int[0];
+            }
+            int len = 0;
+            for (int cur = target; cur != -1; cur = parents[cur]) {
+                len++;
+            }
+            int[] path = new int[len];
+            for (int cur = target; cur != -1; cur = parents[cur]) {
+                path[--len] = cur;
+            }
+            return path;
         }
 
-        // Reconstructs path from source to target using parent map
+        // Same path as a boxed list
         public List<Integer> buildPath(int target) {
-            if (!dist.containsKey(target) || dist.get(target) == Double.NEGATIVE_INFINITY) {
-                return Collections.emptyList();
-            }
             List<Integer> path = new ArrayList<>();
-            Integer cur = target;
-            while (cur != null) {
-                path.add(cur);
-                cur = parent.get(cur);
+            for (int v : path(target)) {
+                path.add(v);
             }
-            Collections.reverse(path);
             return path;
         }
     }
@@ -54,38 +85,40 @@ public class DagLongestPath {
 
     // Main DP algorithm for longest paths in DAG
     public Result longestPaths(int src, Metrics m) {
-        // Topological order is required for DAG DP
-        List<Integer> order = new TopoKahn(g).sort();
+        // Topological order is required for DAG DP, compute it unless it was given
+        int[] order = this.order != null ? this.order : new TopoKahn(g).order();
 
         m.start();
-        Map<Integer, Double> dist = new HashMap<>();
-        Map<Integer, Integer> parent = new HashMap<>();
+        int n = g.size();
+        int[] offsets = g.offsets;
+        int[] targets = g.targets;
+        double[] weights = g.weights;
+        double[] dist = new double[n];
+        int[] parent = new int[n];
 
         // Initialize distances
-        for (int i = 0; i < g.size(); i++) {
-            dist.put(i, Double.NEGATIVE_INFINITY);
-            parent.put(i, null);
-        }
+        Arrays.fill(dist, Double.NEGATIVE_INFINITY);
+        Arrays.fill(parent, -1);
 
         // Start from source node (include its own weight if available)
-        double startVal = (nodeWeight != null ? nodeWeight[src] : 0.0);
-        dist.put(src, startVal);
+        dist[src] = (nodeWeight != null ? nodeWeight[src] : 0.0);
 
         // Relax edges in topological order
         for (int u : order) {
-            double du = dist.get(u);
+            double du = dist[u];
             if (du == Double.NEGATIVE_INFINITY) continue;
 
-            for (Graph.Edge e : g.adj.get(u)) {
-                double edgeCost = e.w;
-                double nodeCost = (nodeWeight != null ? nodeWeight[e.to] : 0.0);
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int v = targets[i];
+                double edgeCost = weights[i];
+                double nodeCost = (nodeWeight != null ? nodeWeight[v] : 0.0);
                 double nd = du + edgeCost + nodeCost;
 
                 // Update if longer path found
-                if (nd > dist.get(e.to)) {
-                    dist.put(e.to, nd);
-                    parent.put(e.to, u);
-                    m.relaxations++;
+                if (nd > dist[v]) {
+                    dist[v] = nd;
+                    parent[v] = u;
+                    if (Metrics.COUNTERS) m.relaxations++;
                 }
             }
         }
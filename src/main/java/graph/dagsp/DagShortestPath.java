@@ -1,6 +1,8 @@
 package graph.dagsp;
 
+import graph.common.CsrGraph;
 import graph.common.Graph;
+import graph.common.IndexedMaps;
 import graph.common.Metrics;
 import graph.topo.TopoKahn;
 import java.util.*;
@@ -9,34 +11,59 @@ import java.util.*;
 // Runs in O(V + E) using dynamic programming over a topological order
 
 public class DagShortestPath {
-    private final Graph g;
+    private final CsrGraph g;
+    private final int[] order; // precomputed topological order, or null to sort on every call
 
     public DagShortestPath(Graph g) {
+        this(CsrGraph.from(g));
+    }
+
+    public DagShortestPath(CsrGraph g) {
+        this(g, null);
+    }
+
+    public DagShortestPath(CsrGraph g, int[] order) {
         this.g = g;
+        this.order = order;
     }
 
-    // Result container: holds distances and parent links
+    // Result container: distances and parent links in flat arrays.
+    // parents[v] == -1 means v has no parent (the source, or unreachable)
     public static class Result {
-        public final Map<Integer, Double> dist;
-        public final Map<Integer, Integer> parent;
+        public final double[] distances;
+        public final int[] parents;
+        public final Map<Integer, Double> dist; // read-only map view of distances
+        public final Map<Integer, Integer> parent; // read-only map view of parents, -1 shown as null
 
-        public Result(Map<Integer, Double> dist, Map<Integer, Integer> parent) {
-            this.dist = dist;
-            this.parent = parent;
+        public Result(double[] distances, int[] parents) {
+            this.distances = distances;
+            this.parents = parents;
+            this.dist = IndexedMaps.ofDoubles(distances);
+            this.parent = IndexedMaps.ofParents(parents);
         }
 
-        // Reconstructs the path from source to target
-        public List<Integer> buildPath(int target) {
-            if (!dist.containsKey(target) || dist.get(target) == Double.POSITIVE_INFINITY) {
-                return Collections.emptyList();
+        // Reconstructs the path from source to target, empty if unreachable
+        public int[] path(int target) {
+            if (target < 0 || target >= distances.length || distances[target] == Double.POSITIVE_INFINITY) {
+                return new int[0];
+            }
+            int len = 0;
+            for (int cur = target; cur != -1; cur = parents[cur]) {
+                len++;
             }
+            int[] path = new int[len];
+            for (int cur = target; cur != -1; cur = parents[cur]) {
+                path[--len] = cur;
+            }
+            return path;
+        }
+
+        // Same path as a boxed list
+        public List<Integer> buildPath(int target) {
             List<Integer> path = new ArrayList<>();
-            Integer cur = target;
-            while (cur != null) {
-                path.add(cur);
-                cur = parent.get(cur);
+            for (int v : path(target)) {
+                path.add(v);
             }
-            Collections.reverse(path);
             return path;
         }
     }
@@ -48,30 +75,33 @@ public class DagShortestPath {
 
     // Main shortest path algorithm for DAGs
     public Result shortestPaths(int src, Metrics m) {
-        // Compute topological order first
-        List<Integer> order = new TopoKahn(g).sort();
+        // Compute topological order first, unless it was given
+        int[] order = this.order != null ? this.order : new TopoKahn(g).order();
 
         m.start();
-        Map<Integer, Double> dist = new HashMap<>();
-        Map<Integer, Integer> parent = new HashMap<>();
+        int n = g.size();
+        int[] offsets = g.offsets;
+        int[] targets = g.targets;
+        double[] weights = g.weights;
+        double[] dist = new double[n];
+        int[] parent = new int[n];
 
         // Initialize all distances to infinity
-        for (int i = 0; i < g.size(); i++) {
-            dist.put(i, Double.POSITIVE_INFINITY);
-            parent.put(i, null);
-        }
-        dist.put(src, 0.0);
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(parent, -1);
+        dist[src] = 0.0;
 
         // Relax edges following topological order
         for (int u : order) {
-            double du = dist.get(u);
+            double du = dist[u];
             if (du == Double.POSITIVE_INFINITY) continue;
-            for (Graph.Edge e : g.adj.get(u)) {
-                double nd = du + e.w;
-                if (nd < dist.get(e.to)) {
-                    dist.put(e.to, nd);
-                    parent.put(e.to, u);
-                    m.relaxations++;
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int v = targets[i];
+                double nd = du + weights[i];
+                if (nd < dist[v]) {
+                    dist[v] = nd;
+                    parent[v] = u;
+                    if (Metrics.COUNTERS) m.relaxations++;
                 }
             }
         }
@@ -0,0 +1,362 @@
+package graph.dagsp;
+
+import graph.common.CsrGraph;
+import graph.common.Metrics;
+import graph.common.WorkspacePool;
+import graph.topo.TopoKahn;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+ // K best source-to-target paths in a DAG, shortest or longest, in order.
+ // One backward DP over the topological window [source, target] gives the best cost h[v] from every
+ // vertex to the target and the best out-edge of every vertex. Any other path is the best path
+ // with a few "sidetracks" (non-best edges) taken, each costing delta = edge + h[head] - h[tail]
+ // extra. Paths are enumerated lazily from a heap in which every path contributes at most two
+ // entries: its own first sidetrack candidates along its best completion and the next sibling of
+ // the sidetrack that created it (sidetracks of a vertex are sorted by delta on first use).
+ // K paths cost O(window) for the DP plus O(K * L log(K * L)) for L-edge paths; paths are never
+ // enumerated beyond the K-th. Parallel edges count as different paths.
+ // The n-sized arrays of a query come from a pool of workspaces: the DP overwrites h and the best
+ // edges across the whole window before reading them, and the lazily sorted sidetracks are valid
+ // only when their stamp equals the query generation, so nothing outside the window is touched.
+
+public class KBestPaths {
+    private final CsrGraph g;
+    private final int[] order;
+    private final int[] position; // position[v] = index of v in order
+    private final double[] nodeWeight; // optional node weights for the longest variant
+    private final WorkspacePool<Workspace> workspaces;
+
+    public KBestPaths(CsrGraph g, double[] nodeWeight) {
+        this(g, new TopoKahn(g).order(), nodeWeight);
+    }
+
+    // Reuses the order and node weights of a prepared DAG
+    public KBestPaths(PreparedDag dag) {
+        this(dag.graph(), dag.order(), dag.nodeWeight());
+    }
+
+    public KBestPaths(CsrGraph g, int[] order, double[] nodeWeight) {
+        this.g = g;
+        this.order = order;
+        this.nodeWeight = nodeWeight;
+        this.position = new int[order.length];
+        for (int p = 0; p < order.length; p++) {
+            position[order[p]] = p;
+        }
+        int n = g.size();
+        this.workspaces = new WorkspacePool<>(() -> new Workspace(n));
+    }
+
+    // One enumerated path with its length under the chosen cost model
+    public static class Path {
+        public final int[] vertices;
+        public final double length;
+
+        public Path(int[] vertices, double length) {
+            this.vertices = vertices;
+            this.length = length;
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(vertices) + " = " + length;
+        }
+    }
+
+    // Wrapper without metrics
+    public List<Path> shortest(int src, int target, int k) {
+        return shortest(src, target, k, new Metrics());
+    }
+
+    // Up to k paths src -> target by increasing edge-weight sum
+    public List<Path> shortest(int src, int target, int k, Metrics m) {
+        return search(src, target, false, k, m);
+    }
+
+    // Wrapper without metrics
+    public List<Path> longest(int src, int target, int k) {
+        return longest(src, target, k, new Metrics());
+    }
+
+    // Up to k paths src -> target by decreasing length, counted like DagLongestPath
+    // (node weight of the source, then edge + node weight of every next vertex)
+    public List<Path> longest(int src, int target, int k, Metrics m) {
+        return search(src, target, true, k, m);
+    }
+
+    private List<Path> search(int src, int target, boolean longest, int k, Metrics m) {
+        Workspace w = workspaces.borrow();
+        try {
+            return new Search(src, target, longest, m, w).run(k);
+        } finally {
+            workspaces.giveBack(w);
+        }
+    }
+
+    // Per-query arrays, reused by the queries that borrow them in turn
+    private static final class Workspace {
+        final double[] h; // best cost from v to target, +Infinity if target is unreachable
+        final int[] bestEdge;
+        final int[] sideStamp; // sidetracks[v] belongs to the current query iff sideStamp[v] == generation
+        final int[][] sidetracks; // non-best useful out-edges sorted by delta
+        final double[][] sideDelta; // their deltas, in the same order
+        int generation = 0;
+        // sort buffers, grown to the largest out-degree seen
+        int[] edgeBuf = new int[16];
+        double[] deltaBuf = new double[16];
+        int[] edgeTmp = new int[16];
+        double[] deltaTmp = new double[16];
+
+        Workspace(int n) {
+            h = new double[n];
+            bestEdge = new int[n];
+            sideStamp = new int[n];
+            sidetracks = new int[n][];
+            sideDelta = new double[n][];
+        }
+
+        void nextGeneration() {
+            if (++generation == 0) {
+                // wrapped around after 2^32 queries: old stamps could look current again
+                Arrays.fill(sideStamp, 0);
+                generation = 1;
+            }
+        }
+
+        void ensureSortCapacity(int size) {
+            if (edgeBuf.length >= size) return;
+            int cap = Math.max(size, 2 * edgeBuf.length);
+            edgeBuf = new int[cap];
+            deltaBuf = new double[cap];
+            edgeTmp = new int[cap];
+            deltaTmp = new double[cap];
+        }
+    }
+
+    // Heap entry: take sidetrack number rank of vertex x, after the prefix ending in trie node prefix
+    private static final class Candidate implements Comparable<Candidate> {
+        final double key;
+        final int prefix;
+        final int x;
+        final int rank;
+
+        Candidate(double key, int prefix, int x, int rank) {
+            this.key = key;
+            this.prefix = prefix;
+            this.x = x;
+            this.rank = rank;
+        }
+
+        @Override
+        public int compareTo(Candidate o) {
+            return Double.compare(key, o.key);
+        }
+    }
+
+    // Stable bottom-up merge sort of edges[0..count) by deltas, moving both arrays together;
+    // the tmp arrays must hold count entries
+    private static void sortByDelta(int[] edges, double[] deltas, int count, int[] edgeTmp, double[] deltaTmp) {
+        int[] srcE = edges, dstE = edgeTmp;
+        double[] srcD = deltas, dstD = deltaTmp;
+        for (int width = 1; width < count; width *= 2) {
+            for (int lo = 0; lo < count; lo += 2 * width) {
+                int mid = Math.min(lo + width, count);
+                int hi = Math.min(lo + 2 * width, count);
+                int a = lo, b = mid, out = lo;
+                while (a < mid && b < hi) {
+                    // take from the right run only if strictly smaller, which keeps the sort stable
+                    int from = Double.compare(srcD[b], srcD[a]) < 0 ? b++ : a++;
+                    dstE[out] = srcE[from];
+                    dstD[out++] = srcD[from];
+                }
+                while (a < mid) {
+                    dstE[out] = srcE[a];
+                    dstD[out++] = srcD[a++];
+                }
+                while (b < hi) {
+                    dstE[out] = srcE[b];
+                    dstD[out++] = srcD[b++];
+                }
+            }
+            int[] te = srcE;
+            srcE = dstE;
+            dstE = te;
+            double[] td = srcD;
+            srcD = dstD;
+            dstD = td;
+        }
+        if (srcE != edges) {
+            System.arraycopy(srcE, 0, edges, 0, count);
+            System.arraycopy(srcD, 0, deltas, 0, count);
+        }
+    }
+
+    // State of one query; costs are minimized, longest paths negate them
+    private final class Search {
+        final int src, target;
+        final boolean longest;
+        final Metrics m;
+        final Workspace w;
+        final double[] h;
+        final int[] bestEdge;
+        // trie of path prefixes: vertex, parent node, edge used to enter
+        int[] trieVertex = new int[64];
+        int[] trieParent = new int[64];
+        int[] trieEdge = new int[64];
+        int trieSize = 0;
+        final PriorityQueue<Candidate> heap = new PriorityQueue<>();
+
+        Search(int src, int target, boolean longest, Metrics m, Workspace w) {
+            this.src = src;
+            this.target = target;
+            this.longest = longest;
+            this.m = m;
+            this.w = w;
+            this.h = w.h;
+            this.bestEdge = w.bestEdge;
+            w.nextGeneration();
+        }
+
+        // Cost of arc i entering v in minimization units
+        double cost(int i, int v) {
+            double c = g.weights[i] + (longest && nodeWeight != null ? nodeWeight[v] : 0.0);
+            return longest ? -c : c;
+        }
+
+        double delta(int u, int i) {
+            return cost(i, g.targets[i]) + h[g.targets[i]] - h[u];
+        }
+
+        List<Path> run(int k) {
+            m.start();
+            List<Path> paths = new ArrayList<>();
+            if (k > 0 && position[src] <= position[target]) {
+                backwardDp();
+                if (h[src] != Double.POSITIVE_INFINITY) {
+                    walk(src, -1, -1, h[src], paths);
+                    while (paths.size() < k && !heap.isEmpty()) {
+                        Candidate c = heap.poll();
+                        if (Metrics.COUNTERS) m.queuePops++;
+                        int[] side = w.sidetracks[c.x];
+                        double[] deltas = w.sideDelta[c.x];
+                        int e = side[c.rank];
+                        if (c.rank + 1 < side.length) {
+                            push(c.key - deltas[c.rank] + deltas[c.rank + 1], c.prefix, c.x, c.rank + 1);
+                        }
+                        walk(g.targets[e], c.prefix, e, c.key, paths);
+                    }
+                }
+            }
+            m.stop();
+            return paths;
+        }
+
+        // h and bestEdge over the window between src and target in reverse topological order
+        void backwardDp() {
+            int[] offsets = g.offsets;
+            int[] targets = g.targets;
+            for (int p = position[target]; p >= position[src]; p--) {
+                int u = order[p];
+                double best = u == target ? 0.0 : Double.POSITIVE_INFINITY;
+                int be = -1;
+                if (u != target) {
+                    for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                        int v = targets[i];
+                        if (position[v] > position[target]) continue; // cannot lead back to target
+                        if (Metrics.COUNTERS) m.edgesSeen++;
+                        double hv = h[v];
+                        if (hv == Double.POSITIVE_INFINITY) continue;
+                        double c = cost(i, v) + hv;
+                        if (c < best) {
+                            best = c;
+                            be = i;
+                            if (Metrics.COUNTERS) m.relaxations++;
+                        }
+                    }
+                }
+                h[u] = best;
+                bestEdge[u] = be;
+            }
+        }
+
+        // Follows best edges from v (entered from trie node parent over edge e) to the target,
+        // offering the first sidetrack of every vertex on the way, and emits the finished path
+        void walk(int v, int parent, int e, double key, List<Path> paths) {
+            int node = addNode(v, parent, e);
+            while (v != target) {
+                int[] side = sidetracks(v);
+                if (side.length > 0) push(key + w.sideDelta[v][0], node, v, 0);
+                e = bestEdge[v];
+                v = g.targets[e];
+                node = addNode(v, node, e);
+            }
+            paths.add(toPath(node));
+        }
+
+        // Sidetracks of u sorted by delta, computed once per query; their deltas go to sideDelta[u]
+        int[] sidetracks(int u) {
+            if (w.sideStamp[u] == w.generation) return w.sidetracks[u];
+            int be = bestEdge[u];
+            w.ensureSortCapacity(g.offsets[u + 1] - g.offsets[u]);
+            int[] edges = w.edgeBuf;
+            double[] deltas = w.deltaBuf;
+            int count = 0;
+            for (int i = g.offsets[u]; i < g.offsets[u + 1]; i++) {
+                int v = g.targets[i];
+                if (i == be || position[v] > position[target] || h[v] == Double.POSITIVE_INFINITY) continue;
+                edges[count] = i;
+                deltas[count] = delta(u, i);
+                count++;
+            }
+            // stable sort: equal deltas stay in adjacency order
+            sortByDelta(edges, deltas, count, w.edgeTmp, w.deltaTmp);
+            w.sidetracks[u] = Arrays.copyOf(edges, count);
+            w.sideDelta[u] = Arrays.copyOf(deltas, count);
+            w.sideStamp[u] = w.generation;
+            return w.sidetracks[u];
+        }
+
+        void push(double key, int prefix, int x, int rank) {
+            heap.add(new Candidate(key, prefix, x, rank));
+            if (Metrics.COUNTERS) m.queuePushes++;
+        }
+
+        int addNode(int v, int parent, int e) {
+            if (trieSize == trieVertex.length) {
+                int cap = trieSize * 2;
+                trieVertex = Arrays.copyOf(trieVertex, cap);
+                trieParent = Arrays.copyOf(trieParent, cap);
+                trieEdge = Arrays.copyOf(trieEdge, cap);
+            }
+            trieVertex[trieSize] = v;
+            trieParent[trieSize] = parent;
+            trieEdge[trieSize] = e;
+            return trieSize++;
+        }
+
+        // Rebuilds the vertices of a trie path and sums its exact length source-first
+        Path toPath(int node) {
+            int len = 0;
+            for (int x = node; x != -1; x = trieParent[x]) {
+                len++;
+            }
+            int[] vertices = new int[len];
+            int[] edges = new int[len];
+            for (int x = node; x != -1; x = trieParent[x]) {
+                len--;
+                vertices[len] = trieVertex[x];
+                edges[len] = trieEdge[x];
+            }
+            double length = longest && nodeWeight != null ? nodeWeight[src] : 0.0;
+            for (int i = 1; i < vertices.length; i++) {
+                double nodeCost = longest && nodeWeight != null ? nodeWeight[vertices[i]] : 0.0;
+                length = length + g.weights[edges[i]] + nodeCost; // same association as DagLongestPath
+            }
+            return new Path(vertices, length);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package graph.dagsp;
+
+import graph.common.CsrGraph;
+import graph.common.Metrics;
+import graph.topo.TopoKahn;
+
+import java.util.Arrays;
+
+ // Shortest and longest paths that only touch the part of a DAG the source can reach.
+ // Instead of walking the whole topological order, reached vertices are processed from a min-heap
+ // of topological positions: every predecessor of v has a smaller position, so v is popped only
+ // after all its in-edges from reached vertices were relaxed, exactly as in the full DP.
+ // With a target, vertices positioned after the target are never queued, and the query ends as
+ // soon as the target is processed.
+ // Distances live in a reusable workspace whose entries are valid only when their stamp equals
+ // the current query generation, so a query costs O(touched log touched), not O(V).
+ // Values and parents are identical to DagShortestPath / DagLongestPath on the same order.
+ // One instance serves one thread; create one per thread to query in parallel.
+
+public class LocalDagPaths {
+    private final CsrGraph g;
+    private final double[] nodeWeight; // optional node weights for the longest variant
+    private final int[] order;
+    private final int[] position; // position[v] = index of v in order
+
+    // Workspace, reset by bumping generation
+    private final double[] dist;
+    private final int[] parent;
+    private final int[] stamp; // stamp[v] == generation: dist[v] and parent[v] belong to this query
+    private int generation = 0;
+    private int[] heap = new int[64]; // binary min-heap of positions
+    private int heapSize = 0;
+
+    public LocalDagPaths(CsrGraph g, double[] nodeWeight) {
+        this(g, new TopoKahn(g).order(), nodeWeight);
+    }
+
+    // Reuses the order and node weights of a prepared DAG
+    public LocalDagPaths(PreparedDag dag) {
+        this(dag.graph(), dag.order(), dag.nodeWeight());
+    }
+
+    public LocalDagPaths(CsrGraph g, int[] order, double[] nodeWeight) {
+        int n = g.size();
+        this.g = g;
+        this.order = order;
+        this.nodeWeight = nodeWeight;
+        this.position = new int[n];
+        for (int p = 0; p < n; p++) {
+            position[order[p]] = p;
+        }
+        this.dist = new double[n];
+        this.parent = new int[n];
+        this.stamp = new int[n];
+    }
+
+    // Vertices reached by one query in topological order, with their distances and parents.
+    // Lookups binary-search the positions of the reached vertices, so a result is O(touched)
+    // in size; the full position array is shared read-only with the instance.
+    public static class Result {
+        public final int[] vertices; // reached vertices in topological order
+        public final double[] distances; // distances[i] belongs to vertices[i]
+        public final int[] parents; // parents[i] belongs to vertices[i], -1 for the source
+        private final int[] positions; // increasing topological positions of vertices
+        private final int[] position;
+        private final double unreachable;
+
+        Result(int[] vertices, int[] positions, double[] distances, int[] parents, int[] position, double unreachable) {
+            this.vertices = vertices;
+            this.positions = positions;
+            this.distances = distances;
+            this.parents = parents;
+            this.position = position;
+            this.unreachable = unreachable;
+        }
+
+        public int size() {
+            return vertices.length;
+        }
+
+        public boolean reached(int v) {
+            return indexOf(v) >= 0;
+        }
+
+        // Distance of v: +Infinity (shortest) or -Infinity (longest) when v was not reached
+        public double distance(int v) {
+            int i = indexOf(v);
+            return i < 0 ? unreachable : distances[i];
+        }
+
+        // Reconstructs the path from the source to v, empty if v was not reached
+        public int[] path(int v) {
+            int i = indexOf(v);
+            if (i < 0) return new int[0];
+            int len = 0;
+            for (int j = i; j != -1; j = parents[j] < 0 ? -1 : indexOf(parents[j])) {
+                len++;
+            }
+            int[] path = new int[len];
+            for (int j = i; j != -1; j = parents[j] < 0 ? -1 : indexOf(parents[j])) {
+                path[--len] = vertices[j];
+            }
+            return path;
+        }
+
+        private int indexOf(int v) {
+            if (v < 0 || v >= position.length) return -1;
+            int i = Arrays.binarySearch(positions, position[v]);
+            return i >= 0 ? i : -1;
+        }
+    }
+
+    // Wrapper without metrics
+    public Result shortestPaths(int src) {
+        return shortestPaths(src, new Metrics());
+    }
+
+    // Shortest paths from src to every vertex it reaches
+    public Result shortestPaths(int src, Metrics m) {
+        return run(src, -1, false, m);
+    }
+
+    // Wrapper without metrics
+    public Result shortestPath(int src, int target) {
+        return shortestPath(src, target, new Metrics());
+    }
+
+    // Shortest path src -> target; vertices after the target in the order are never touched
+    public Result shortestPath(int src, int target, Metrics m) {
+        return run(src, target, false, m);
+    }
+
+    // Wrapper without metrics
+    public Result longestPaths(int src) {
+        return longestPaths(src, new Metrics());
+    }
+
+    // Longest (node-weighted) paths from src to every vertex it reaches
+    public Result longestPaths(int src, Metrics m) {
+        return run(src, -1, true, m);
+    }
+
+    // Wrapper without metrics
+    public Result longestPath(int src, int target) {
+        return longestPath(src, target, new Metrics());
+    }
+
+    // Longest path src -> target, bounded like shortestPath
+    public Result longestPath(int src, int target, Metrics m) {
+        return run(src, target, true, m);
+    }
+
+    // target < 0: no bound
+    private Result run(int src, int target, boolean longest, Metrics m) {
+        m.start();
+        double unreachable = longest ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        int limit = target < 0 ? order.length - 1 : position[target];
+        nextGeneration();
+        int[] offsets = g.offsets;
+        int[] targets = g.targets;
+        double[] weights = g.weights;
+
+        int[] touched = new int[16]; // popped vertices, in increasing position
+        int count = 0;
+        if (position[src] <= limit) {
+            touch(src, longest && nodeWeight != null ? nodeWeight[src] : 0.0);
+            push(position[src], m);
+        }
+        while (heapSize > 0) {
+            int u = order[pop(m)];
+            if (count == touched.length) touched = Arrays.copyOf(touched, count * 2);
+            touched[count++] = u;
+            if (u == target) break;
+            double du = dist[u];
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int v = targets[i];
+                if (position[v] > limit) continue;
+                if (Metrics.COUNTERS) m.edgesSeen++;
+                double nd;
+                if (longest) {
+                    nd = du + weights[i] + (nodeWeight != null ? nodeWeight[v] : 0.0);
+                } else {
+                    nd = du + weights[i];
+                }
+                if (stamp[v] != generation) {
+                    touch(v, unreachable);
+                    push(position[v], m);
+                }
+                if (longest ? nd > dist[v] : nd < dist[v]) {
+                    dist[v] = nd;
+                    parent[v] = u;
+                    if (Metrics.COUNTERS) m.relaxations++;
+                }
+            }
+        }
+        heapSize = 0;
+
+        int[] vertices = Arrays.copyOf(touched, count);
+        int[] positions = new int[count];
+        double[] d = new double[count];
+        int[] p = new int[count];
+        for (int i = 0; i < count; i++) {
+            int v = vertices[i];
+            positions[i] = position[v];
+            d[i] = dist[v];
+            p[i] = parent[v];
+        }
+        m.stop();
+        return new Result(vertices, positions, d, p, position, unreachable);
+    }
+
+    private void nextGeneration() {
+        if (++generation == 0) {
+            // wrapped around after 2^32 queries: old stamps could look current again
+            Arrays.fill(stamp, 0);
+            generation = 1;
+        }
+    }
+
+    private void touch(int v, double d) {
+        stamp[v] = generation;
+        dist[v] = d;
+        parent[v] = -1;
+    }
+
+    private void push(int p, Metrics m) {
+        if (heapSize == heap.length) heap = Arrays.copyOf(heap, heapSize * 2);
+        int i = heapSize++;
+        while (i > 0) {
+            int up = (i - 1) >>> 1;
+            if (heap[up] <= p) break;
+            heap[i] = heap[up];
+            i = up;
+        }
+        heap[i] = p;
+        if (Metrics.COUNTERS) m.queuePushes++;
+    }
+
+    private int pop(Metrics m) {
+        int top = heap[0];
+        int last = heap[--heapSize];
+        int i = 0;
+        while (true) {
+            int c = 2 * i + 1;
+            if (c >= heapSize) break;
+            if (c + 1 < heapSize && heap[c + 1] < heap[c]) c++;
+            if (heap[c] >= last) break;
+            heap[i] = heap[c];
+            i = c;
+        }
+        heap[i] = last;
+        if (Metrics.COUNTERS) m.queuePops++;
+        return top;
+    }
+}
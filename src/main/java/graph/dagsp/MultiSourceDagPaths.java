@@ -0,0 +1,146 @@
+package graph.dagsp;
+
+import graph.common.CsrGraph;
+import graph.common.Graph;
+import graph.common.Metrics;
+import graph.topo.TopoKahn;
+
+import java.util.Arrays;
+
+ // Shortest and longest paths from K sources at once in a DAG.
+ // Distances live in one vertex-major block: dist[v * K + k] is the distance of v from sources[k].
+ // One walk over the topological order relaxes every edge for all K sources, and the inner loop
+ // over k is a plain min/max over two contiguous rows, which C2 turns into SIMD code.
+ // Values are identical to K separate DagShortestPath / DagLongestPath calls.
+
+public class MultiSourceDagPaths {
+    private final CsrGraph g;
+    private final int[] order; // topological order of g
+    private final double[] nodeWeight; // optional node weights for the longest variant
+
+    public MultiSourceDagPaths(Graph g) {
+        this(CsrGraph.from(g), null);
+    }
+
+    public MultiSourceDagPaths(CsrGraph g, double[] nodeWeight) {
+        this(g, new TopoKahn(g).order(), nodeWeight);
+    }
+
+    public MultiSourceDagPaths(CsrGraph g, int[] order, double[] nodeWeight) {
+        this.g = g;
+        this.order = order;
+        this.nodeWeight = nodeWeight;
+    }
+
+    // Result container: K distance columns in one vertex-major array
+    public static class Result {
+        public final int[] sources;
+        public final double[] dist; // dist[v * sources.length + k]
+
+        public Result(int[] sources, double[] dist) {
+            this.sources = sources;
+            this.dist = dist;
+        }
+
+        // Distance of v from sources[k]
+        public double distance(int k, int v) {
+            return dist[v * sources.length + k];
+        }
+
+        // All distances from sources[k], laid out like DagShortestPath.Result.distances
+        public double[] distancesFrom(int k) {
+            int stride = sources.length;
+            double[] out = new double[dist.length / stride];
+            for (int v = 0; v < out.length; v++) {
+                out[v] = dist[v * stride + k];
+            }
+            return out;
+        }
+    }
+
+    private int blockSize(int k) {
+        long size = (long) g.size() * k;
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException(k + " sources x " + g.size() + " vertices do not fit in one block");
+        }
+        return (int) size;
+    }
+
+    // Wrapper without metrics
+    public Result shortestPaths(int[] sources) {
+        return shortestPaths(sources, new Metrics());
+    }
+
+    // Shortest distances from every source; unreachable entries stay +Infinity
+    public Result shortestPaths(int[] sources, Metrics m) {
+        m.start();
+        int k = sources.length;
+        double[] dist = new double[blockSize(k)];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        boolean[] reached = new boolean[g.size()];
+        for (int s = 0; s < k; s++) {
+            dist[sources[s] * k + s] = 0.0;
+            reached[sources[s]] = true;
+        }
+
+        int[] offsets = g.offsets;
+        int[] targets = g.targets;
+        double[] weights = g.weights;
+        for (int u : order) {
+            if (!reached[u]) continue; // row u is all +Infinity
+            int bu = u * k;
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int v = targets[i];
+                double w = weights[i];
+                int bv = v * k;
+                for (int s = 0; s < k; s++) {
+                    dist[bv + s] = Math.min(dist[bv + s], dist[bu + s] + w);
+                }
+                reached[v] = true;
+                if (Metrics.COUNTERS) m.relaxations += k;
+            }
+        }
+        m.stop();
+        return new Result(sources.clone(), dist);
+    }
+
+    // Wrapper without metrics
+    public Result longestPaths(int[] sources) {
+        return longestPaths(sources, new Metrics());
+    }
+
+    // Longest (node-weighted) distances from every source; unreachable entries stay -Infinity
+    public Result longestPaths(int[] sources, Metrics m) {
+        m.start();
+        int k = sources.length;
+        double[] dist = new double[blockSize(k)];
+        Arrays.fill(dist, Double.NEGATIVE_INFINITY);
+        boolean[] reached = new boolean[g.size()];
+        for (int s = 0; s < k; s++) {
+            dist[sources[s] * k + s] = (nodeWeight != null ? nodeWeight[sources[s]] : 0.0);
+            reached[sources[s]] = true;
+        }
+
+        int[] offsets = g.offsets;
+        int[] targets = g.targets;
+        double[] weights = g.weights;
+        for (int u : order) {
+            if (!reached[u]) continue; // row u is all -Infinity
+            int bu = u * k;
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int v = targets[i];
+                double w = weights[i];
+                double nodeCost = (nodeWeight != null ? nodeWeight[v] : 0.0);
+                int bv = v * k;
+                // same association as DagLongestPath: (du + edgeCost) + nodeCost
+                for (int s = 0; s < k; s++) {
+                    dist[bv + s] = Math.max(dist[bv + s], dist[bu + s] + w + nodeCost);
+                }
+                reached[v] = true;
+                if (Metrics.COUNTERS) m.relaxations += k;
+            }
+        }
+        m.stop();
+        return new Result(sources.clone(), dist);
+    }
+}
@@ -0,0 +1,169 @@
+package graph.dagsp;
+
+import graph.common.CsrGraph;
+import graph.common.Graph;
+import graph.common.Metrics;
+import graph.topo.ParallelTopoKahn;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+ // Wavefront shortest and longest paths in a DAG.
+ // Vertices of one topological level never depend on each other, so every level is solved in
+ // parallel once the previous levels are final. Each vertex pulls from its in-edges, so no two
+ // threads write the same slot and no atomics are needed. In-edges are stored in the order the
+ // sequential DP would relax them (by topological position of the source, then edge index), and
+ // ties are broken with the same strict comparison: results, parents included, are identical to
+ // DagShortestPath / DagLongestPath run with levels.order.
+
+public class ParallelDagPaths {
+    private static final int PARALLEL_LEVEL = 1024; // narrower levels run on the calling thread
+
+    private final int n;
+    private final ParallelTopoKahn.Levels levels;
+    private final double[] nodeWeight; // optional node weights for the longest variant
+    private final ForkJoinPool pool;
+    private final int[] inOffsets; // in-edges of v: inOffsets[v] .. inOffsets[v + 1] - 1
+    private final int[] inSources;
+    private final double[] inWeights;
+
+    public ParallelDagPaths(Graph g) {
+        this(CsrGraph.from(g), null);
+    }
+
+    public ParallelDagPaths(CsrGraph g, double[] nodeWeight) {
+        this(g, new ParallelTopoKahn(g).levels(), nodeWeight, ForkJoinPool.commonPool());
+    }
+
+    public ParallelDagPaths(CsrGraph g, ParallelTopoKahn.Levels levels, double[] nodeWeight, ForkJoinPool pool) {
+        this.n = g.size();
+        this.levels = levels;
+        this.nodeWeight = nodeWeight;
+        this.pool = pool;
+
+        // Reverse arcs, filled by walking sources in topological order
+        int m = g.edgeCount();
+        int[] offsets = g.offsets;
+        int[] targets = g.targets;
+        inOffsets = new int[n + 1];
+        for (int i = 0; i < m; i++) {
+            inOffsets[targets[i] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            inOffsets[v + 1] += inOffsets[v];
+        }
+        int[] next = Arrays.copyOf(inOffsets, n);
+        inSources = new int[m];
+        inWeights = new double[m];
+        for (int u : levels.order) {
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int pos = next[targets[i]]++;
+                inSources[pos] = u;
+                inWeights[pos] = g.weights[i];
+            }
+        }
+    }
+
+    public ParallelTopoKahn.Levels levels() {
+        return levels;
+    }
+
+    // Computes vertex v from its final predecessors, returns the number of relaxations
+    private interface VertexStep {
+        int solve(int v);
+    }
+
+    // Runs the levels after the one holding src, one barrier per level
+    private long sweep(int src, VertexStep step) {
+        int[] order = levels.order;
+        int[] levelStart = levels.levelStart;
+        int first = Arrays.binarySearch(levelStart, levels.position[src]);
+        if (first < 0) first = -first - 2; // level containing src
+        long relaxations = 0;
+        for (int l = first + 1; l < levels.count(); l++) {
+            IntStream range = IntStream.range(levelStart[l], levelStart[l + 1]);
+            relaxations += (levelStart[l + 1] - levelStart[l] >= PARALLEL_LEVEL ? range.parallel() : range)
+                    .map(p -> step.solve(order[p]))
+                    .asLongStream().sum();
+        }
+        return relaxations;
+    }
+
+    // Wrapper without metrics
+    public DagShortestPath.Result shortestPaths(int src) {
+        return shortestPaths(src, new Metrics());
+    }
+
+    public DagShortestPath.Result shortestPaths(int src, Metrics m) {
+        m.start();
+        double[] dist = new double[n];
+        int[] parent = new int[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(parent, -1);
+        dist[src] = 0.0;
+
+        long total = pool.submit(() -> sweep(src, v -> {
+            double best = dist[v];
+            int bestParent = -1;
+            int relaxed = 0;
+            for (int i = inOffsets[v]; i < inOffsets[v + 1]; i++) {
+                double du = dist[inSources[i]];
+                if (du == Double.POSITIVE_INFINITY) continue;
+                double nd = du + inWeights[i];
+                if (nd < best) {
+                    best = nd;
+                    bestParent = inSources[i];
+                    relaxed++;
+                }
+            }
+            if (relaxed > 0) {
+                dist[v] = best;
+                parent[v] = bestParent;
+            }
+            return relaxed;
+        })).join();
+        if (Metrics.COUNTERS) m.relaxations += total;
+        m.stop();
+        return new DagShortestPath.Result(dist, parent);
+    }
+
+    // Wrapper without metrics
+    public DagLongestPath.Result longestPaths(int src) {
+        return longestPaths(src, new Metrics());
+    }
+
+    public DagLongestPath.Result longestPaths(int src, Metrics m) {
+        m.start();
+        double[] dist = new double[n];
+        int[] parent = new int[n];
+        Arrays.fill(dist, Double.NEGATIVE_INFINITY);
+        Arrays.fill(parent, -1);
+        dist[src] = (nodeWeight != null ? nodeWeight[src] : 0.0);
+
+        long total = pool.submit(() -> sweep(src, v -> {
+            double nodeCost = (nodeWeight != null ? nodeWeight[v] : 0.0);
+            double best = dist[v];
+            int bestParent = -1;
+            int relaxed = 0;
+            for (int i = inOffsets[v]; i < inOffsets[v + 1]; i++) {
+                double du = dist[inSources[i]];
+                if (du == Double.NEGATIVE_INFINITY) continue;
+                double nd = du + inWeights[i] + nodeCost; // same association as DagLongestPath
+                if (nd > best) {
+                    best = nd;
+                    bestParent = inSources[i];
+                    relaxed++;
+                }
+            }
+            if (relaxed > 0) {
+                dist[v] = best;
+                parent[v] = bestParent;
+            }
+            return relaxed;
+        })).join();
+        if (Metrics.COUNTERS) m.relaxations += total;
+        m.stop();
+        return new DagLongestPath.Result(dist, parent);
+    }
+}
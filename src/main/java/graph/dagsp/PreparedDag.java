@@ -0,0 +1,167 @@
+package graph.dagsp;
+
+import graph.common.CsrGraph;
+import graph.common.Metrics;
+import graph.common.WorkspacePool;
+import graph.topo.TopoKahn;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+ // A DAG prepared once for many path queries.
+ // The topological order is computed a single time and shared by the shortest, longest and
+ // multi-source variants, so each query is only the DP. Per-source results are kept in
+ // bounded LRU caches, which makes repeated queries cache hits.
+ // Cached results are shared between callers and must be treated as read-only.
+ // Point-to-point shortestPath runs on LocalDagPaths instances from a bounded pool, so it is
+ // safe from any thread and costs only what the source reaches before the target.
+
+public class PreparedDag {
+    private final CsrGraph g;
+    private final double[] nodeWeight;
+    private final int[] order;
+    private final DagShortestPath sp;
+    private final DagLongestPath lp;
+    private final Lru<DagShortestPath.Result> spCache;
+    private final Lru<DagLongestPath.Result> lpCache;
+    private final WorkspacePool<LocalDagPaths> locals;
+
+    public PreparedDag(CsrGraph g, double[] nodeWeight, int cacheSize) {
+        this(g, new TopoKahn(g).order(), nodeWeight, cacheSize);
+    }
+
+    // Uses an order the caller already has, e.g. the one Main prints
+    public PreparedDag(CsrGraph g, int[] order, double[] nodeWeight, int cacheSize) {
+        if (order.length != g.size()) {
+            throw new IllegalArgumentException("order has " + order.length + " vertices, graph has " + g.size());
+        }
+        this.g = g;
+        this.nodeWeight = nodeWeight;
+        this.order = order;
+        this.sp = new DagShortestPath(g, order);
+        this.lp = new DagLongestPath(g, nodeWeight, order);
+        this.spCache = new Lru<>(cacheSize);
+        this.lpCache = new Lru<>(cacheSize);
+        this.locals = new WorkspacePool<>(this::local);
+    }
+
+    public CsrGraph graph() {
+        return g;
+    }
+
+    public double[] nodeWeight() {
+        return nodeWeight;
+    }
+
+    // The cached topological order (read-only)
+    public int[] order() {
+        return order;
+    }
+
+    // Wrapper without metrics
+    public DagShortestPath.Result shortestPaths(int src) {
+        return shortestPaths(src, new Metrics());
+    }
+
+    // Shortest paths from src, served from the cache when possible
+    public DagShortestPath.Result shortestPaths(int src, Metrics m) {
+        DagShortestPath.Result res = spCache.get(src);
+        if (res == null) {
+            res = sp.shortestPaths(src, m);
+            spCache.put(src, res);
+        }
+        return res;
+    }
+
+    // Shortest path src -> target on a pooled LocalDagPaths; never cached, m times only the query
+    public LocalDagPaths.Result shortestPath(int src, int target, Metrics m) {
+        LocalDagPaths local = locals.borrow();
+        try {
+            return local.shortestPath(src, target, m);
+        } finally {
+            locals.giveBack(local);
+        }
+    }
+
+    // Wrapper without metrics
+    public DagLongestPath.Result longestPaths(int src) {
+        return longestPaths(src, new Metrics());
+    }
+
+    // Longest (node-weighted) paths from src, served from the cache when possible.
+    // m is only started and stopped when the DP actually runs.
+    public DagLongestPath.Result longestPaths(int src, Metrics m) {
+        DagLongestPath.Result res = lpCache.get(src);
+        if (res == null) {
+            res = lp.longestPaths(src, m);
+            lpCache.put(src, res);
+        }
+        return res;
+    }
+
+    // Longest paths from src if they are cached (counted as a hit), otherwise null without
+    // counting a miss, so callers can time only the computations
+    public DagLongestPath.Result cachedLongestPaths(int src) {
+        return lpCache.peek(src);
+    }
+
+    // Batched variant sharing the same order
+    public MultiSourceDagPaths multiSource() {
+        return new MultiSourceDagPaths(g, order, nodeWeight);
+    }
+
+    // Source-restricted and point-to-point queries sharing the same order; one per thread
+    public LocalDagPaths local() {
+        return new LocalDagPaths(g, order, nodeWeight);
+    }
+
+    public long cacheHits() {
+        return spCache.hits() + lpCache.hits();
+    }
+
+    public long cacheMisses() {
+        return spCache.misses() + lpCache.misses();
+    }
+
+    // Access-ordered LinkedHashMap that drops the least recently used entry; thread-safe.
+    // Two threads missing on the same source may both compute it; the results are equal.
+    private static class Lru<R> {
+        private final Map<Integer, R> map;
+        private long hits = 0;
+        private long misses = 0;
+
+        Lru(int capacity) {
+            this.map = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, R> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        synchronized R get(int key) {
+            R r = map.get(key);
+            if (r == null) misses++;
+            else hits++;
+            return r;
+        }
+
+        synchronized R peek(int key) {
+            R r = map.get(key);
+            if (r != null) hits++;
+            return r;
+        }
+
+        synchronized void put(int key, R value) {
+            map.put(key, value);
+        }
+
+        synchronized long hits() {
+            return hits;
+        }
+
+        synchronized long misses() {
+            return misses;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package graph.dagsp;
+
+import graph.common.CsrGraph;
+import graph.common.Metrics;
+import graph.common.WorkspacePool;
+import graph.topo.TopoKahn;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+ // Reachability queries "does a reach b?" on a DAG, typically the condensation DAG.
+ // GRAIL-style labels: each of k randomized DFS traversals numbers the vertices in post-order and
+ // labels v with [low, post], low being the smallest post number among v's descendants. If b is
+ // reachable from a, b's interval lies inside a's in every traversal, so one non-nested label
+ // proves "no". Two more O(1) checks come first: b positioned before a in the topological order
+ // means "no", and b inside a's subtree of one of the traversals' DFS forests means "yes".
+ // Only queries that pass all filters run a DFS from a, pruned by the same filters.
+ // Memory is 3k + 1 ints per vertex; the k traversals are independent and built in parallel.
+ // Queries are thread-safe. DFS workspaces come from a bounded pool, not per thread, so servers
+ // that run each request on a fresh (virtual) thread reuse them instead of allocating O(V) each.
+
+public class ReachabilityIndex {
+    public static final int DEFAULT_TRAVERSALS = 3;
+
+    private final CsrGraph g;
+    private final int k;
+    private final int[] position; // position[v] = index of v in the topological order
+    // labels[v * 3k + 3t ...] = low, tree low, post of v in traversal t; the tree low is the
+    // smallest post number in v's subtree of that traversal's DFS forest
+    private final int[] labels;
+    private final WorkspacePool<Workspace> workspaces;
+
+    public ReachabilityIndex(CsrGraph dag) {
+        this(dag, new TopoKahn(dag).order(), DEFAULT_TRAVERSALS, 1L, ForkJoinPool.commonPool());
+    }
+
+    // Reuses the order of a prepared DAG
+    public ReachabilityIndex(PreparedDag dag) {
+        this(dag.graph(), dag.order(), DEFAULT_TRAVERSALS, 1L, ForkJoinPool.commonPool());
+    }
+
+    public ReachabilityIndex(CsrGraph dag, int[] order, int k, long seed, ForkJoinPool pool) {
+        if (k < 1) throw new IllegalArgumentException("k = " + k + ", need at least one traversal");
+        int n = dag.size();
+        this.g = dag;
+        this.k = k;
+        this.position = new int[n];
+        for (int p = 0; p < n; p++) {
+            position[order[p]] = p;
+        }
+        this.labels = new int[3 * k * n];
+        int[] inDegree = new int[n];
+        for (int i = 0; i < dag.edgeCount(); i++) {
+            inDegree[dag.targets[i]]++;
+        }
+        this.workspaces = new WorkspacePool<>(() -> new Workspace(n));
+        int[] roots = IntStream.range(0, n).filter(v -> inDegree[v] == 0).toArray();
+        // each traversal writes only its own label slots
+        pool.submit(() -> IntStream.range(0, k).parallel().forEach(t -> traverse(t, roots, seed))).join();
+    }
+
+    // One randomized iterative DFS from the shuffled roots; children are scanned starting at a
+    // random offset in the adjacency list
+    private void traverse(int t, int[] rootsInOrder, long seed) {
+        int n = g.size();
+        int[] offsets = g.offsets;
+        int[] targets = g.targets;
+        Random rnd = new Random(seed * 31 + t);
+        int[] roots = rootsInOrder.clone();
+        for (int i = roots.length - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int tmp = roots[i];
+            roots[i] = roots[j];
+            roots[j] = tmp;
+        }
+        int stride = 3 * k;
+        int lowSlot = 3 * t;
+        boolean[] visited = new boolean[n];
+        int[] stack = new int[n];
+        int[] start = new int[n]; // first scanned adjacency index of the vertex
+        int[] done = new int[n]; // adjacency entries scanned so far
+        int post = 0;
+        for (int r : roots) {
+            if (visited[r]) continue;
+            int sp = 0;
+            stack[sp] = r;
+            visited[r] = true;
+            int deg = offsets[r + 1] - offsets[r];
+            start[sp] = deg > 0 ? rnd.nextInt(deg) : 0;
+            done[sp] = 0;
+            labels[r * stride + lowSlot] = Integer.MAX_VALUE;
+            labels[r * stride + lowSlot + 1] = post;
+            sp++;
+            while (sp > 0) {
+                int u = stack[sp - 1];
+                int base = offsets[u];
+                int d = offsets[u + 1] - base;
+                if (done[sp - 1] < d) {
+                    int v = targets[base + (start[sp - 1] + done[sp - 1]++) % d];
+                    if (!visited[v]) {
+                        visited[v] = true;
+                        int dv = offsets[v + 1] - offsets[v];
+                        stack[sp] = v;
+                        start[sp] = dv > 0 ? rnd.nextInt(dv) : 0;
+                        done[sp] = 0;
+                        labels[v * stride + lowSlot] = Integer.MAX_VALUE;
+                        labels[v * stride + lowSlot + 1] = post;
+                        sp++;
+                    }
+                    continue;
+                }
+                // finished: every child is finished too, since a DAG has no edge back into the stack
+                sp--;
+                int low = post;
+                for (int i = base; i < base + d; i++) {
+                    low = Math.min(low, labels[targets[i] * stride + lowSlot]);
+                }
+                labels[u * stride + lowSlot] = low;
+                labels[u * stride + lowSlot + 2] = post++;
+            }
+        }
+    }
+
+    public int traversals() {
+        return k;
+    }
+
+    // Wrapper without metrics
+    public boolean reaches(int a, int b) {
+        return reaches(a, b, new Metrics());
+    }
+
+    // Whether there is a path a -> b (every vertex reaches itself)
+    public boolean reaches(int a, int b, Metrics m) {
+        m.start();
+        boolean r = a == b || position[a] < position[b] && (inTree(a, b) || contains(a, b) && search(a, b, m));
+        m.stop();
+        return r;
+    }
+
+    // Pruned DFS over the vertices that may still lead to b
+    private boolean search(int a, int b, Metrics m) {
+        Workspace w = workspaces.borrow();
+        try {
+            return search(w, a, b, m);
+        } finally {
+            workspaces.giveBack(w);
+        }
+    }
+
+    private boolean search(Workspace w, int a, int b, Metrics m) {
+        w.nextGeneration();
+        int pb = position[b];
+        int sp = 0;
+        w.stack[sp++] = a;
+        w.stamp[a] = w.generation;
+        boolean found = false;
+        search:
+        while (sp > 0) {
+            int u = w.stack[--sp];
+            if (Metrics.COUNTERS) m.dfsVisits++;
+            for (int i = g.offsets[u]; i < g.offsets[u + 1]; i++) {
+                int v = g.targets[i];
+                if (Metrics.COUNTERS) m.edgesSeen++;
+                if (v == b || inTree(v, b)) {
+                    found = true;
+                    break search;
+                }
+                if (w.stamp[v] == w.generation || position[v] > pb || !contains(v, b)) continue;
+                w.stamp[v] = w.generation;
+                w.stack[sp++] = v;
+            }
+        }
+        return found;
+    }
+
+    // Workspaces allocated so far; stays near the peak number of concurrent DFS fallbacks
+    public int workspacesCreated() {
+        return workspaces.created();
+    }
+
+    // b lies in a's subtree of some DFS forest: a certain "yes"
+    private boolean inTree(int a, int b) {
+        int ia = a * 3 * k;
+        int ib = b * 3 * k;
+        for (int j = 0; j < 3 * k; j += 3) {
+            int postB = labels[ib + j + 2];
+            if (labels[ia + j + 1] <= postB && postB <= labels[ia + j + 2]) return true;
+        }
+        return false;
+    }
+
+    // b's label is nested in a's in every traversal: "maybe"; otherwise a certain "no"
+    private boolean contains(int a, int b) {
+        int ia = a * 3 * k;
+        int ib = b * 3 * k;
+        for (int j = 0; j < 3 * k; j += 3) {
+            if (labels[ib + j] < labels[ia + j] || labels[ib + j + 2] > labels[ia + j + 2]) return false;
+        }
+        return true;
+    }
+
+    // Visited stamps and DFS stack of one running query
+    private static final class Workspace {
+        final int[] stamp;
+        final int[] stack;
+        int generation = 0;
+
+        Workspace(int n) {
+            stamp = new int[n];
+            stack = new int[n];
+        }
+
+        void nextGeneration() {
+            if (++generation == 0) {
+                Arrays.fill(stamp, 0);
+                generation = 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package graph.io;
+
+import graph.common.CsrGraph;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+ // Compact little-endian binary graph format, laid out in CSR order so it can be memory-mapped:
+ //
+ //   offset 0   int    magic "DGB1"
+ //          4   int    version (1)
+ //          8   int    flags: bit 0 = directed, bit 1 = node weight model
+ //         12   int    n
+ //         16   long   m (number of arcs)
+ //         24   int    source
+ //         28   int    reserved (0)
+ //         32   long   offsets[n + 1]
+ //              int    targets[m], then zero padding to a multiple of 8 bytes
+ //              double weights[m]
+ //
+ // Every section starts 8-byte aligned, so no element ever straddles a mapped chunk.
+
+public class BinaryGraphFormat {
+    public static final int MAGIC = 0x31424744; // "DGB1" read as a little-endian int
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 32;
+    public static final String EXTENSION = ".bin";
+
+    static final int FLAG_DIRECTED = 1;
+    static final int FLAG_NODE_WEIGHTS = 2;
+
+    private BinaryGraphFormat() {
+    }
+
+    // Byte position of each section for a graph with n vertices and m arcs
+    static long offsetsPos() {
+        return HEADER_BYTES;
+    }
+
+    static long targetsPos(int n) {
+        return HEADER_BYTES + 8L * (n + 1);
+    }
+
+    static long weightsPos(int n, long m) {
+        return align8(targetsPos(n) + 4L * m);
+    }
+
+    static long fileBytes(int n, long m) {
+        return weightsPos(n, m) + 8L * m;
+    }
+
+    private static long align8(long pos) {
+        return (pos + 7) & ~7L;
+    }
+
+    // True if the file starts with the binary magic number
+    public static boolean isBinary(File f) {
+        if (!f.isFile() || f.length() < HEADER_BYTES) return false;
+        try (DataInputStream in = new DataInputStream(new FileInputStream(f))) {
+            return Integer.reverseBytes(in.readInt()) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // Writes a whole in-memory dataset
+    public static void write(GraphDataset data, Path file) throws IOException {
+        CsrGraph g = data.graph;
+        int n = g.size();
+        try (Writer w = new Writer(file, n, g.edgeCount(), g.isDirected(), data.source, data.weightModel)) {
+            for (int u = 0; u <= n; u++) {
+                w.offset(g.offsets[u]);
+            }
+            for (int t : g.targets) {
+                w.target(t);
+            }
+            for (double x : g.weights) {
+                w.weight(x);
+            }
+        }
+    }
+
+    // Opens a file by mapping it; only the header is read eagerly
+    public static MappedGraph open(Path file) throws IOException {
+        return MappedGraph.open(file);
+    }
+
+    // Sequential writer: n + 1 offsets, then m targets, then m weights, in exactly that order.
+    // Needs only a fixed-size buffer, so graphs can be written while they are being generated.
+    public static class Writer implements AutoCloseable {
+        private final FileChannel ch;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        private final int n;
+        private final long m;
+        private long offsetsLeft;
+        private long targetsLeft;
+        private long weightsLeft;
+        private long lastOffset = 0;
+
+        public Writer(Path file, int n, long m, boolean directed, int source, String weightModel) throws IOException {
+            if (n < 0 || m < 0) throw new IllegalArgumentException("negative size: n = " + n + ", m = " + m);
+            this.ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.n = n;
+            this.m = m;
+            this.offsetsLeft = n + 1L;
+            this.targetsLeft = m;
+            this.weightsLeft = m;
+
+            int flags = (directed ? FLAG_DIRECTED : 0) | ("node".equals(weightModel) ? FLAG_NODE_WEIGHTS : 0);
+            buf.putInt(MAGIC).putInt(VERSION).putInt(flags).putInt(n).putLong(m).putInt(source).putInt(0);
+        }
+
+        public void offset(long off) throws IOException {
+            if (offsetsLeft == 0) throw new IllegalStateException("all " + (n + 1) + " offsets already written");
+            if (off < lastOffset || off > m) throw new IllegalStateException("offset " + off + " out of order");
+            if (offsetsLeft == n + 1L && off != 0) throw new IllegalStateException("offsets must start at 0");
+            if (offsetsLeft == 1 && off != m) throw new IllegalStateException("last offset must be m = " + m);
+            ensure(8);
+            buf.putLong(off);
+            lastOffset = off;
+            offsetsLeft--;
+        }
+
+        public void target(int v) throws IOException {
+            if (offsetsLeft != 0) throw new IllegalStateException("targets written before all offsets");
+            if (targetsLeft == 0) throw new IllegalStateException("all " + m + " targets already written");
+            if (v < 0 || v >= n) throw new IndexOutOfBoundsException("target " + v + " outside [0, " + n + ")");
+            ensure(4);
+            buf.putInt(v);
+            if (--targetsLeft == 0 && (m & 1) == 1) {
+                buf.putInt(0); // pad so the weights start 8-byte aligned
+            }
+        }
+
+        public void weight(double w) throws IOException {
+            if (targetsLeft != 0) throw new IllegalStateException("weights written before all targets");
+            if (weightsLeft == 0) throw new IllegalStateException("all " + m + " weights already written");
+            ensure(8);
+            buf.putDouble(w);
+            weightsLeft--;
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buf.remaining() < bytes + 4) flush();
+        }
+
+        private void flush() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) {
+                ch.write(buf);
+            }
+            buf.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+                if (offsetsLeft != 0 || targetsLeft != 0 || weightsLeft != 0) {
+                    throw new IllegalStateException("incomplete graph file: " + offsetsLeft + " offsets, "
+                            + targetsLeft + " targets, " + weightsLeft + " weights missing");
+                }
+            } finally {
+                ch.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package graph.io;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+ // Writes arcs that arrive in any order as a BinaryGraphFormat file, for graphs whose arcs do not
+ // fit in heap. Arcs go through an ExternalSorter keyed by (source, arrival index), so every
+ // vertex keeps its arcs in arrival order, exactly like CsrGraph.Builder; the sorted stream is
+ // then read three times to write offsets, targets and weights. Heap use is bounded by the
+ // sorter memory plus 8 bytes per vertex for the out-degrees.
+
+public class ExternalCsrWriter implements AutoCloseable {
+    private final int n;
+    private final boolean directed;
+    private final int source;
+    private final String weightModel;
+    private final ExternalSorter sorter;
+    private long arrivals = 0;
+
+    public ExternalCsrWriter(int n, boolean directed, int source, String weightModel, Path tmpDir, long sortMemory) {
+        if (n < 0) throw new IllegalArgumentException("negative vertex count: " + n);
+        this.n = n;
+        this.directed = directed;
+        this.source = source;
+        this.weightModel = weightModel;
+        this.sorter = new ExternalSorter(tmpDir, sortMemory);
+    }
+
+    // Adds u -> v, and v -> u as well for an undirected graph
+    public void addEdge(int u, int v, double w) throws IOException {
+        if (u < 0 || u >= n || v < 0 || v >= n) {
+            throw new IndexOutOfBoundsException("edge " + u + "->" + v + " outside [0, " + n + ")");
+        }
+        sorter.add(u, arrivals++, v, Double.doubleToRawLongBits(w));
+        if (!directed) sorter.add(v, arrivals++, u, Double.doubleToRawLongBits(w));
+    }
+
+    // Arcs added so far, both directions of an undirected edge included
+    public long arcs() {
+        return arrivals;
+    }
+
+    // Sorts the collected arcs and writes the graph file
+    public void finish(Path file) throws IOException {
+        finish(file, source, weightModel);
+    }
+
+    // Same, with header fields that were only known after the arcs (e.g. later keys of a JSON file)
+    public void finish(Path file, int source, String weightModel) throws IOException {
+        long[] degree;
+        try (ExternalSorter.Cursor c = sorter.sorted()) {
+            degree = new long[n]; // only now: sorted() has spilled and released the run buffer
+            while (c.next()) {
+                degree[(int) c.key]++;
+            }
+        }
+        try (BinaryGraphFormat.Writer out = new BinaryGraphFormat.Writer(file, n, sorter.size(), directed, source, weightModel)) {
+            long off = 0;
+            out.offset(0);
+            for (int u = 0; u < n; u++) {
+                off += degree[u];
+                out.offset(off);
+            }
+            try (ExternalSorter.Cursor c = sorter.sorted()) {
+                while (c.next()) {
+                    out.target((int) c.a);
+                }
+            }
+            try (ExternalSorter.Cursor c = sorter.sorted()) {
+                while (c.next()) {
+                    out.weight(Double.longBitsToDouble(c.b));
+                }
+            }
+        }
+    }
+
+    // Deletes the sort runs
+    @Override
+    public void close() throws IOException {
+        sorter.close();
+    }
+}
@@ -0,0 +1,215 @@
+package graph.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+ // External merge sort of fixed-size records (key, seq, a, b), four longs each, ordered by
+ // (key, seq). Records are collected in one in-heap run buffer; a full buffer is sorted and
+ // written to a run file. sorted() merges the runs, in several passes if there are more runs
+ // than read buffers fit in the memory limit, and can be called again to re-read the result.
+ // Heap use stays below the memory limit given at construction.
+
+public class ExternalSorter implements AutoCloseable {
+    public static final int RECORD_BYTES = 32;
+    public static final long MIN_MEMORY = 1 << 18; // 256 KiB
+    private static final int READ_BUFFER = 1 << 16; // per run during merges
+
+    private final Path dir;
+    private final long memoryBytes;
+    private final int runRecords;
+    private long[] buffer; // 4 longs per record, allocated on first add
+    private int buffered = 0;
+    private long size = 0;
+    private final List<Path> runs = new ArrayList<>();
+
+    // Sorts in dir with at most memoryBytes of heap for buffers
+    public ExternalSorter(Path dir, long memoryBytes) {
+        if (memoryBytes < MIN_MEMORY) {
+            throw new IllegalArgumentException("sort memory " + memoryBytes + " below minimum " + MIN_MEMORY);
+        }
+        this.dir = dir;
+        this.memoryBytes = memoryBytes;
+        // the run buffer shares the limit with the output buffer used to spill it
+        this.runRecords = (int) Math.min((memoryBytes - READ_BUFFER) / RECORD_BYTES, (Integer.MAX_VALUE - 8) / 4);
+    }
+
+    // Number of records added
+    public long size() {
+        return size;
+    }
+
+    public void add(long key, long seq, long a, long b) throws IOException {
+        if (buffer == null) buffer = new long[4 * runRecords];
+        if (buffered == runRecords) spill();
+        int i = 4 * buffered++;
+        buffer[i] = key;
+        buffer[i + 1] = seq;
+        buffer[i + 2] = a;
+        buffer[i + 3] = b;
+        size++;
+    }
+
+    // Sorts the buffered records and writes them as one run
+    private void spill() throws IOException {
+        heapSort(buffer, buffered);
+        Path run = newRun();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), READ_BUFFER))) {
+            for (int i = 0; i < 4 * buffered; i++) {
+                out.writeLong(buffer[i]);
+            }
+        }
+        runs.add(run);
+        buffered = 0;
+    }
+
+    // A fresh file per run, so sorters sharing dir (ExternalSCC keeps two alive) never collide
+    private Path newRun() throws IOException {
+        return Files.createTempFile(dir, "sort-", ".run");
+    }
+
+    // Cursor over all records in (key, seq) order. Later calls re-read the merged runs;
+    // no records may be added once this was called.
+    public Cursor sorted() throws IOException {
+        if (buffered > 0) spill();
+        buffer = null; // the merge reuses this memory for read buffers
+        // one read buffer per merged run plus one output buffer for intermediate passes
+        int fanIn = (int) Math.max(2, Math.min(1024, memoryBytes / READ_BUFFER - 1));
+        while (runs.size() > fanIn) {
+            List<Path> group = new ArrayList<>(runs.subList(0, fanIn));
+            runs.subList(0, fanIn).clear();
+            Path merged = newRun();
+            try (Cursor c = new Cursor(group);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(merged), READ_BUFFER))) {
+                while (c.next()) {
+                    out.writeLong(c.key);
+                    out.writeLong(c.seq);
+                    out.writeLong(c.a);
+                    out.writeLong(c.b);
+                }
+            }
+            for (Path p : group) {
+                Files.deleteIfExists(p);
+            }
+            runs.add(merged);
+        }
+        return new Cursor(runs);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Path p : runs) {
+            Files.deleteIfExists(p);
+        }
+        runs.clear();
+        buffer = null;
+    }
+
+    // In-place heapsort of n four-long records by (key, seq); needs no extra memory
+    static void heapSort(long[] a, int n) {
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(a, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(a, 0, end);
+            siftDown(a, 0, end);
+        }
+    }
+
+    private static void siftDown(long[] a, int i, int n) {
+        while (true) {
+            int c = 2 * i + 1;
+            if (c >= n) return;
+            if (c + 1 < n && less(a, c, c + 1)) c++;
+            if (!less(a, i, c)) return;
+            swap(a, i, c);
+            i = c;
+        }
+    }
+
+    private static boolean less(long[] a, int i, int j) {
+        long ki = a[4 * i];
+        long kj = a[4 * j];
+        return ki < kj || ki == kj && a[4 * i + 1] < a[4 * j + 1];
+    }
+
+    private static void swap(long[] a, int i, int j) {
+        for (int k = 0; k < 4; k++) {
+            long t = a[4 * i + k];
+            a[4 * i + k] = a[4 * j + k];
+            a[4 * j + k] = t;
+        }
+    }
+
+    // k-way merge over run files; the current record is in key, seq, a, b after next() returned true
+    public static class Cursor implements AutoCloseable {
+        public long key;
+        public long seq;
+        public long a;
+        public long b;
+        private final PriorityQueue<Run> heap;
+        private final List<Run> open = new ArrayList<>();
+
+        private Cursor(List<Path> files) throws IOException {
+            heap = new PriorityQueue<>(Math.max(1, files.size()), (x, y) ->
+                    x.key != y.key ? Long.compare(x.key, y.key) : Long.compare(x.seq, y.seq));
+            try {
+                for (Path f : files) {
+                    Run r = new Run(f);
+                    open.add(r);
+                    if (r.advance()) heap.add(r);
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        public boolean next() throws IOException {
+            Run r = heap.poll();
+            if (r == null) return false;
+            key = r.key;
+            seq = r.seq;
+            a = r.a;
+            b = r.b;
+            if (r.advance()) heap.add(r);
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (Run r : open) {
+                r.in.close();
+            }
+        }
+    }
+
+    private static final class Run {
+        final DataInputStream in;
+        long key, seq, a, b;
+
+        Run(Path file) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), READ_BUFFER));
+        }
+
+        boolean advance() throws IOException {
+            try {
+                key = in.readLong();
+            } catch (EOFException e) {
+                return false;
+            }
+            seq = in.readLong();
+            a = in.readLong();
+            b = in.readLong();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package graph.io;
+
+import graph.common.CsrGraph;
+
+ // A loaded input file: the graph plus the run parameters stored next to it
+
+public class GraphDataset {
+    public final CsrGraph graph;
+    public final int source; // start vertex for shortest/longest paths
+    public final String weightModel; // "edge" or "node"
+
+    public GraphDataset(CsrGraph graph, int source, String weightModel) {
+        this.graph = graph;
+        this.source = source;
+        this.weightModel = weightModel;
+    }
+}
@@ -0,0 +1,196 @@
+package graph.io;
+
+import com.google.gson.stream.JsonWriter;
+import graph.common.CsrGraph;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+ // Seeded synthetic graph generator for large inputs.
+ // The out-edges of vertex u depend only on (model, n, degree, seed, u): each vertex gets its own
+ // random stream. Writers therefore regenerate edges vertex by vertex in CSR order instead of
+ // keeping the graph in memory, and JSON, binary and in-memory output describe the same graph.
+
+public class GraphGenerator {
+
+    // Receives the out-edges of one vertex
+    public interface EdgeSink {
+        void edge(int v, double w) throws IOException;
+    }
+
+    public enum Model {
+        RANDOM,   // uniform targets, out-degree = degree
+        POWERLAW, // Pareto out-degrees with mean ~degree, targets skewed towards low ids
+        GRID,     // square street grid: mostly two-way streets, some one-way ones
+        LAYERED,  // sqrt(n) layers, edges only into the next two layers (a DAG)
+        GIANT     // four giant SCCs (rings plus chords) linked forward only
+    }
+
+    private static final int GIANT_SCCS = 4;
+
+    private final Model model;
+    private final int n;
+    private final int degree;
+    private final long seed;
+    private final int side; // GRID: grid width
+    private final int layerWidth; // LAYERED: vertices per layer
+
+    public GraphGenerator(Model model, int n, int degree, long seed) {
+        if (n <= 0) throw new IllegalArgumentException("n must be positive: " + n);
+        if (degree <= 0) throw new IllegalArgumentException("degree must be positive: " + degree);
+        this.model = model;
+        this.n = n;
+        this.degree = degree;
+        this.seed = seed;
+        this.side = (int) Math.ceil(Math.sqrt(n));
+        this.layerWidth = Math.max(1, (int) Math.sqrt(n));
+    }
+
+    public int size() {
+        return n;
+    }
+
+    // Emits the out-edges of u, always the same ones for the same parameters
+    public void edges(int u, EdgeSink sink) throws IOException {
+        SplittableRandom rnd = new SplittableRandom(mix(seed ^ mix(u + 1L)));
+        switch (model) {
+            case RANDOM:
+                for (int k = 0; k < degree; k++) {
+                    int v = rnd.nextInt(n);
+                    if (v != u) sink.edge(v, weight(rnd));
+                }
+                break;
+            case POWERLAW: {
+                // P(deg > x) = (xmin / x)^1.5 has mean 3 * xmin
+                double xmin = Math.max(1.0 / 3, degree / 3.0);
+                long d = Math.min(Math.min(n - 1L, 100_000L), (long) (xmin / Math.pow(1 - rnd.nextDouble(), 1 / 1.5)));
+                for (long k = 0; k < d; k++) {
+                    double r = rnd.nextDouble();
+                    int v = (int) (n * r * r * r); // heavy-tailed in-degree on low ids
+                    if (v != u) sink.edge(v, weight(rnd));
+                }
+                break;
+            }
+            case GRID: {
+                int r = u / side;
+                int c = u % side;
+                if (c + 1 < side) street(u, u + 1, sink);
+                if (c > 0) street(u, u - 1, sink);
+                if (r > 0) street(u, u - side, sink);
+                street(u, u + side, sink);
+                break;
+            }
+            case LAYERED: {
+                int first = (u / layerWidth + 1) * layerWidth; // first vertex of the next layer
+                if (first >= n) break;
+                int span = (int) Math.min(n - first, 2L * layerWidth);
+                for (int k = 0; k < degree; k++) {
+                    sink.edge(first + rnd.nextInt(span), weight(rnd));
+                }
+                break;
+            }
+            case GIANT: {
+                int groupSize = Math.max(1, n / GIANT_SCCS);
+                int group = Math.min(u / groupSize, GIANT_SCCS - 1);
+                int start = group * groupSize;
+                int end = group == GIANT_SCCS - 1 ? n : start + groupSize;
+                sink.edge(u + 1 < end ? u + 1 : start, weight(rnd)); // ring keeps the group strongly connected
+                for (int k = 1; k < degree; k++) {
+                    if (end < n && rnd.nextInt(10) == 0) {
+                        sink.edge(end + rnd.nextInt(n - end), weight(rnd)); // forward to a later group
+                    } else {
+                        int v = start + rnd.nextInt(end - start);
+                        if (v != u) sink.edge(v, weight(rnd));
+                    }
+                }
+                break;
+            }
+            default:
+                throw new IllegalStateException("unknown model " + model);
+        }
+    }
+
+    // GRID street between u and w: both endpoints derive the same orientation from the pair
+    private void street(int u, int w, EdgeSink sink) throws IOException {
+        if (w >= n) return;
+        int lo = Math.min(u, w);
+        int hi = Math.max(u, w);
+        long h = mix(seed ^ mix(((long) lo << 32) | hi));
+        int kind = (int) Long.remainderUnsigned(h, 20); // 0..13 two-way, 14..16 lo -> hi, 17..19 hi -> lo
+        boolean allowed = kind < 14 || (kind < 17 ? u == lo : u == hi);
+        if (allowed) {
+            sink.edge(w, 1 + Long.remainderUnsigned(h >>> 20 ^ (u == lo ? 0 : 0x5bd1e995L), 10));
+        }
+    }
+
+    private static double weight(SplittableRandom rnd) {
+        return 1 + rnd.nextInt(10);
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    // Counts all arcs with one generation pass
+    public long countEdges() throws IOException {
+        long[] m = {0};
+        for (int u = 0; u < n; u++) {
+            edges(u, (v, w) -> m[0]++);
+        }
+        return m[0];
+    }
+
+    // Builds the graph in memory (for tests and benchmarks)
+    public CsrGraph toCsr() throws IOException {
+        CsrGraph.Builder b = new CsrGraph.Builder(n, true);
+        for (int u = 0; u < n; u++) {
+            int from = u;
+            edges(u, (v, w) -> b.addEdge(from, v, w));
+        }
+        return b.build();
+    }
+
+    // Streams the graph as dataset JSON; memory use does not depend on the graph size
+    public void writeJson(Path file, int source) throws IOException {
+        try (JsonWriter out = new JsonWriter(new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(file.toFile()), StandardCharsets.UTF_8), 1 << 16))) {
+            out.beginObject();
+            out.name("directed").value(true);
+            out.name("n").value(n);
+            out.name("source").value(source);
+            out.name("weight_model").value("edge");
+            out.name("edges").beginArray();
+            for (int u = 0; u < n; u++) {
+                int from = u;
+                edges(u, (v, w) -> out.beginObject().name("u").value(from).name("v").value(v).name("w").value(w).endObject());
+            }
+            out.endArray();
+            out.endObject();
+        }
+    }
+
+    // Streams the graph in BinaryGraphFormat: one pass counts arcs, then offsets, targets and
+    // weights are each regenerated in CSR order
+    public void writeBinary(Path file, int source) throws IOException {
+        long m = countEdges();
+        try (BinaryGraphFormat.Writer out = new BinaryGraphFormat.Writer(file, n, m, true, source, "edge")) {
+            long[] off = {0};
+            out.offset(0);
+            for (int u = 0; u < n; u++) {
+                edges(u, (v, w) -> off[0]++);
+                out.offset(off[0]);
+            }
+            for (int u = 0; u < n; u++) {
+                edges(u, (v, w) -> out.target(v));
+            }
+            for (int u = 0; u < n; u++) {
+                edges(u, (v, w) -> out.weight(w));
+            }
+        }
+    }
+}
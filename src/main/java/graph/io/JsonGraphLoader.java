@@ -0,0 +1,240 @@
+package graph.io;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import graph.common.CsrGraph;
+import graph.common.Metrics;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+ // Streaming loader for the JSON dataset format:
+ // {"directed": true, "n": 8, "source": 4, "weight_model": "edge", "edges": [{"u": 0, "v": 1, "w": 3}, ...]}
+ // Reads Gson tokens one at a time and pushes each edge straight into a CsrGraph.Builder,
+ // so no JSON tree is ever built. Keys may appear in any order and unknown keys are skipped.
+ // convert() streams the edges into an ExternalCsrWriter instead, for files whose graph does not
+ // fit in heap: the edges go to sorted runs on disk as they are read. If "edges" comes before "n"
+ // or "directed", the edges are skipped on the first read and the file is read a second time.
+
+public class JsonGraphLoader {
+
+    // Wrapper without metrics
+    public static GraphDataset load(File f) throws IOException {
+        return load(f, new Metrics());
+    }
+
+    // Loads one file; the elapsed time and the number of edges read go to m
+    public static GraphDataset load(File f, Metrics m) throws IOException {
+        try (Reader r = open(f)) {
+            return load(r, m);
+        } catch (IllegalStateException | NumberFormatException | IndexOutOfBoundsException e) {
+            throw new IOException(f.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    public static GraphDataset load(Reader r, Metrics m) throws IOException {
+        m.start();
+        JsonReader in = new JsonReader(r);
+        Header h = new Header();
+        CsrGraph.Builder builder = null;
+        EdgeBuffer pending = null; // only used if "edges" comes before "n"/"directed"
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String key = in.nextName();
+            if (h.read(key, in)) continue;
+            if (key.equals("edges")) {
+                if (h.known()) {
+                    if (builder == null) builder = new CsrGraph.Builder(h.n, h.directed);
+                    readEdges(in, builder::addEdge, m);
+                } else {
+                    if (pending == null) pending = new EdgeBuffer();
+                    readEdges(in, pending::add, m);
+                }
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+
+        h.check();
+        if (builder == null) builder = new CsrGraph.Builder(h.n, h.directed, pending == null ? 0 : pending.size);
+        if (pending != null) pending.replay(builder);
+
+        CsrGraph g = builder.build();
+        m.stop();
+        return new GraphDataset(g, h.source, h.weightModel);
+    }
+
+    // Streams a JSON dataset into a BinaryGraphFormat file without holding its edges in heap:
+    // heap use stays near sortMemory plus 8 bytes per vertex. Sort runs go to tmpDir and are
+    // deleted afterwards. Returns the number of arcs written.
+    public static long convert(File f, Path out, Path tmpDir, long sortMemory, Metrics m) throws IOException {
+        m.start();
+        Header h = new Header();
+        long seen = m.edgesSeen;
+        try {
+            long arcs;
+            try (Reader r = open(f)) {
+                arcs = streamEdges(r, h, out, tmpDir, sortMemory, m);
+            }
+            if (arcs < 0) {
+                // the edges came before the header; now that it is known, read them again
+                m.edgesSeen = seen;
+                try (Reader r = open(f)) {
+                    arcs = streamEdges(r, h, out, tmpDir, sortMemory, m);
+                }
+            }
+            m.stop();
+            return arcs;
+        } catch (IllegalStateException | NumberFormatException | IndexOutOfBoundsException e) {
+            throw new IOException(f.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    // One read of the file: fills h and, once n and directed are known, sends the edges to an
+    // ExternalCsrWriter. Returns the arcs written, or -1 if the edges had to be skipped.
+    private static long streamEdges(Reader r, Header h, Path out, Path tmpDir, long sortMemory, Metrics m)
+            throws IOException {
+        JsonReader in = new JsonReader(r);
+        boolean skipped = false;
+        ExternalCsrWriter writer = null;
+        try {
+            in.beginObject();
+            while (in.hasNext()) {
+                String key = in.nextName();
+                if (h.read(key, in)) continue;
+                if (key.equals("edges") && h.known()) {
+                    if (writer == null) writer = new ExternalCsrWriter(h.n, h.directed, 0, h.weightModel, tmpDir, sortMemory);
+                    readEdges(in, writer::addEdge, m);
+                } else {
+                    skipped |= key.equals("edges");
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+
+            h.check();
+            if (writer == null) {
+                if (skipped) return -1;
+                writer = new ExternalCsrWriter(h.n, h.directed, 0, h.weightModel, tmpDir, sortMemory);
+            }
+            writer.finish(out, h.source, h.weightModel);
+            return writer.arcs();
+        } finally {
+            if (writer != null) writer.close();
+        }
+    }
+
+    private static Reader open(File f) throws IOException {
+        return new BufferedReader(new InputStreamReader(new FileInputStream(f), StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    // Header fields of a dataset
+    private static final class Header {
+        Boolean directed;
+        int n = -1;
+        int source = 0;
+        String weightModel = "edge";
+
+        // Reads the value of key if it is a header field
+        boolean read(String key, JsonReader in) throws IOException {
+            switch (key) {
+                case "directed":
+                    directed = in.nextBoolean();
+                    return true;
+                case "n":
+                    n = in.nextInt();
+                    return true;
+                case "source":
+                    source = in.nextInt();
+                    return true;
+                case "weight_model":
+                    weightModel = in.nextString();
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        // Whether edges can be placed as they are read
+        boolean known() {
+            return n >= 0 && directed != null;
+        }
+
+        // Called at the end of the object
+        void check() {
+            if (n < 0) throw new IllegalStateException("missing field \"n\"");
+            if (directed == null) directed = true; // datasets without the flag are task graphs
+            if (source < 0 || (n > 0 && source >= n)) {
+                throw new IllegalStateException("source " + source + " outside [0, " + n + ")");
+            }
+        }
+    }
+
+    // Receiver of the parsed edges
+    private interface EdgeSink {
+        void add(int u, int v, double w) throws IOException;
+    }
+
+    // Reads the "edges" array into sink
+    private static void readEdges(JsonReader in, EdgeSink sink, Metrics m) throws IOException {
+        in.beginArray();
+        while (in.peek() != JsonToken.END_ARRAY) {
+            int u = -1;
+            int v = -1;
+            double w = Double.NaN;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "u":
+                        u = in.nextInt();
+                        break;
+                    case "v":
+                        v = in.nextInt();
+                        break;
+                    case "w":
+                        w = in.nextDouble();
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            if (u < 0 || v < 0 || Double.isNaN(w)) {
+                throw new IllegalStateException("edge #" + m.edgesSeen + " needs \"u\", \"v\" and \"w\"");
+            }
+            sink.add(u, v, w);
+            m.edgesSeen++;
+        }
+        in.endArray();
+    }
+
+    // Primitive edge list for files that put the edges before the header fields
+    private static class EdgeBuffer {
+        int[] u = new int[64];
+        int[] v = new int[64];
+        double[] w = new double[64];
+        int size = 0;
+
+        void add(int a, int b, double weight) {
+            if (size == u.length) {
+                u = Arrays.copyOf(u, size * 2);
+                v = Arrays.copyOf(v, size * 2);
+                w = Arrays.copyOf(w, size * 2);
+            }
+            u[size] = a;
+            v[size] = b;
+            w[size] = weight;
+            size++;
+        }
+
+        void replay(CsrGraph.Builder builder) {
+            for (int i = 0; i < size; i++) {
+                builder.addEdge(u[i], v[i], w[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package graph.io;
+
+import graph.common.CsrGraph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+ // Read-only view of a BinaryGraphFormat file through FileChannel.map.
+ // Opening maps the file in 1 GiB chunks and reads only the 32-byte header;
+ // the OS pages offsets, targets and weights in lazily as they are accessed by offset(), target()
+ // and weight(). toCsr() gives that up: it copies every array onto the heap (a fast bulk load,
+ // but O(V + E) time and memory), which is what the in-heap algorithms need.
+ // open() checks only the header. toCsr() checks the copied arrays; callers of the element
+ // accessors call validate() first, so a corrupt file fails on opening instead of deep inside
+ // an algorithm.
+
+public class MappedGraph {
+    private static final int CHUNK_BITS = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+
+    private final MappedByteBuffer[] chunks;
+    private final int n;
+    private final long m;
+    private final boolean directed;
+    private final int source;
+    private final String weightModel;
+    private final long targetsPos;
+    private final long weightsPos;
+
+    private MappedGraph(MappedByteBuffer[] chunks, int n, long m, int flags, int source) {
+        this.chunks = chunks;
+        this.n = n;
+        this.m = m;
+        this.directed = (flags & BinaryGraphFormat.FLAG_DIRECTED) != 0;
+        this.source = source;
+        this.weightModel = (flags & BinaryGraphFormat.FLAG_NODE_WEIGHTS) != 0 ? "node" : "edge";
+        this.targetsPos = BinaryGraphFormat.targetsPos(n);
+        this.weightsPos = BinaryGraphFormat.weightsPos(n, m);
+    }
+
+    public static MappedGraph open(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < BinaryGraphFormat.HEADER_BYTES) {
+                throw new IOException(file + ": too short for a graph header");
+            }
+            int count = (int) ((size + CHUNK_MASK) >>> CHUNK_BITS);
+            MappedByteBuffer[] chunks = new MappedByteBuffer[count];
+            for (int c = 0; c < count; c++) {
+                long pos = (long) c << CHUNK_BITS;
+                chunks[c] = ch.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(1L << CHUNK_BITS, size - pos));
+                chunks[c].order(ByteOrder.LITTLE_ENDIAN);
+            }
+
+            ByteBuffer h = chunks[0];
+            if (h.getInt(0) != BinaryGraphFormat.MAGIC) throw new IOException(file + ": not a binary graph file");
+            if (h.getInt(4) != BinaryGraphFormat.VERSION) throw new IOException(file + ": unsupported version " + h.getInt(4));
+            int flags = h.getInt(8);
+            int n = h.getInt(12);
+            long m = h.getLong(16);
+            int source = h.getInt(24);
+            if (n < 0 || m < 0 || size < BinaryGraphFormat.fileBytes(n, m)) {
+                throw new IOException(file + ": truncated, expected " + BinaryGraphFormat.fileBytes(n, m) + " bytes");
+            }
+            return new MappedGraph(chunks, n, m, flags, source);
+        }
+    }
+
+    // Returns the number of vertices
+    public int size() {
+        return n;
+    }
+
+    // Returns the number of stored arcs
+    public long edgeCount() {
+        return m;
+    }
+
+    public boolean isDirected() {
+        return directed;
+    }
+
+    public int source() {
+        return source;
+    }
+
+    public String weightModel() {
+        return weightModel;
+    }
+
+    // Position of the first out-edge of u; edges of u end at offset(u + 1)
+    public long offset(int u) {
+        long pos = BinaryGraphFormat.offsetsPos() + 8L * u;
+        return chunks[(int) (pos >>> CHUNK_BITS)].getLong((int) (pos & CHUNK_MASK));
+    }
+
+    public int target(long i) {
+        long pos = targetsPos + 4L * i;
+        return chunks[(int) (pos >>> CHUNK_BITS)].getInt((int) (pos & CHUNK_MASK));
+    }
+
+    public double weight(long i) {
+        long pos = weightsPos + 8L * i;
+        return chunks[(int) (pos >>> CHUNK_BITS)].getDouble((int) (pos & CHUNK_MASK));
+    }
+
+    // One sequential pass over offsets and targets: offsets start at 0, never decrease and end at
+    // m, and every target lies in [0, n)
+    public void validate() throws IOException {
+        long prev = 0;
+        if (offset(0) != 0) throw new IOException("corrupt graph file: offsets[0] = " + offset(0));
+        for (int u = 1; u <= n; u++) {
+            long off = offset(u);
+            if (off < prev || off > m) {
+                throw new IOException("corrupt graph file: offsets[" + u + "] = " + off + " after " + prev + ", m = " + m);
+            }
+            prev = off;
+        }
+        if (prev != m) throw new IOException("corrupt graph file: offsets end at " + prev + ", m = " + m);
+        for (long i = 0; i < m; i++) {
+            int v = target(i);
+            if (v < 0 || v >= n) throw new IOException("corrupt graph file: target #" + i + " = " + v + " outside [0, " + n + ")");
+        }
+    }
+
+    // Copies the mapped arrays onto the heap with bulk transfers and checks them like validate()
+    public CsrGraph toCsr() throws IOException {
+        if (m > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("graph with " + m + " arcs does not fit in an in-heap CsrGraph");
+        }
+        int[] offsets = new int[n + 1];
+        long[] wide = new long[Math.min(n + 1, 1 << 16)];
+        for (int u = 0; u <= n; u += wide.length) {
+            int len = Math.min(wide.length, n + 1 - u);
+            copy(BinaryGraphFormat.offsetsPos() + 8L * u, 8, len, (bb, at, cnt) -> bb.asLongBuffer().get(wide, at, cnt));
+            for (int i = 0; i < len; i++) {
+                long off = wide[i];
+                long prev = u + i == 0 ? 0 : offsets[u + i - 1];
+                if (off < prev || off > m || u + i == 0 && off != 0) {
+                    throw new IOException("corrupt graph file: offsets[" + (u + i) + "] = " + off + " after " + prev + ", m = " + m);
+                }
+                offsets[u + i] = (int) off;
+            }
+        }
+        if (offsets[n] != m) throw new IOException("corrupt graph file: offsets end at " + offsets[n] + ", m = " + m);
+        int[] targets = new int[(int) m];
+        double[] weights = new double[(int) m];
+        copy(targetsPos, 4, (int) m, (bb, at, cnt) -> bb.asIntBuffer().get(targets, at, cnt));
+        copy(weightsPos, 8, (int) m, (bb, at, cnt) -> bb.asDoubleBuffer().get(weights, at, cnt));
+        for (int i = 0; i < targets.length; i++) {
+            if (targets[i] < 0 || targets[i] >= n) {
+                throw new IOException("corrupt graph file: target #" + i + " = " + targets[i] + " outside [0, " + n + ")");
+            }
+        }
+        return new CsrGraph(n, directed, offsets, targets, weights);
+    }
+
+    // Loads the whole file as an in-heap dataset
+    public GraphDataset toDataset() throws IOException {
+        return new GraphDataset(toCsr(), source, weightModel);
+    }
+
+    private interface BulkGet {
+        void get(ByteBuffer slice, int at, int count);
+    }
+
+    // Splits [pos, pos + count * width) at chunk boundaries and hands each piece to get
+    private void copy(long pos, int width, int count, BulkGet get) {
+        int done = 0;
+        while (done < count) {
+            long p = pos + (long) done * width;
+            MappedByteBuffer chunk = chunks[(int) (p >>> CHUNK_BITS)];
+            int start = (int) (p & CHUNK_MASK);
+            int fit = (chunk.capacity() - start) / width;
+            int len = Math.min(fit, count - done);
+            ByteBuffer slice = chunk.slice(start, len * width).order(ByteOrder.LITTLE_ENDIAN);
+            get.get(slice, done, len);
+            done += len;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package graph.reorder;
+
+import graph.common.CsrGraph;
+import graph.topo.TopoKahn;
+
+import java.util.Arrays;
+
+ // A permutation of vertex ids chosen for memory locality, and the relabeled graph.
+ // Input ids are arbitrary, so the neighbours of a vertex are scattered over the per-vertex arrays
+ // of every algorithm. Renumbering the vertices in traversal order puts neighbours next to each
+ // other, so DFS, Kahn and the DAG DPs touch far fewer cache lines.
+ //   BFS          breadth-first order over arcs in both directions, components by smallest id
+ //   RCM          reverse Cuthill-McKee: BFS from a minimum-degree vertex, neighbours by degree
+ //   DEGREE       by total degree, highest first, so the hubs share cache lines
+ //   TOPOLOGICAL  Kahn order; DAGs only, then every arc goes from a lower to a higher id
+ // newId[old] and oldId[new] convert in both directions; the map methods convert results.
+
+public final class Relabeling {
+    public enum Strategy {
+        BFS, RCM, DEGREE, TOPOLOGICAL
+    }
+
+    public final int[] newId; // newId[original id] = id in the relabeled graph
+    public final int[] oldId; // oldId[relabeled id] = original id
+
+    private Relabeling(int[] oldId) {
+        this.oldId = oldId;
+        this.newId = new int[oldId.length];
+        for (int i = 0; i < oldId.length; i++) {
+            newId[oldId[i]] = i;
+        }
+    }
+
+    // Relabeling that lists the original ids in the given order
+    public static Relabeling fromOrder(int[] order) {
+        return new Relabeling(order.clone());
+    }
+
+    public static Relabeling of(CsrGraph g, Strategy strategy) {
+        switch (strategy) {
+            case BFS: return new Relabeling(bfs(g, false));
+            case RCM: return new Relabeling(bfs(g, true));
+            case DEGREE: return new Relabeling(byDegree(g));
+            case TOPOLOGICAL: return new Relabeling(new TopoKahn(g).order());
+            default: throw new IllegalArgumentException("unknown strategy: " + strategy);
+        }
+    }
+
+    public int size() {
+        return oldId.length;
+    }
+
+    // The same graph under the new ids. Vertex newId[u] gets the arcs of u in their original
+    // order, so per-vertex adjacency order (and with it every tie-break) is preserved.
+    public CsrGraph apply(CsrGraph g) {
+        int n = g.size();
+        int[] offsets = new int[n + 1];
+        for (int x = 0; x < n; x++) {
+            offsets[x + 1] = offsets[x] + g.outDegree(oldId[x]);
+        }
+        int[] targets = new int[g.edgeCount()];
+        double[] weights = new double[g.edgeCount()];
+        for (int x = 0; x < n; x++) {
+            int u = oldId[x];
+            int pos = offsets[x];
+            for (int i = g.offsets[u]; i < g.offsets[u + 1]; i++, pos++) {
+                targets[pos] = newId[g.targets[i]];
+                weights[pos] = g.weights[i];
+            }
+        }
+        return new CsrGraph(n, g.isDirected(), offsets, targets, weights);
+    }
+
+    // Per-vertex values indexed by original id, for running on the relabeled graph
+    public double[] toNew(double[] byOld) {
+        if (byOld == null) return null;
+        double[] out = new double[byOld.length];
+        for (int x = 0; x < out.length; x++) {
+            out[x] = byOld[oldId[x]];
+        }
+        return out;
+    }
+
+    public int[] toNew(int[] byOld) {
+        int[] out = new int[byOld.length];
+        for (int x = 0; x < out.length; x++) {
+            out[x] = byOld[oldId[x]];
+        }
+        return out;
+    }
+
+    // Per-vertex values computed on the relabeled graph, indexed by original id again
+    public double[] toOld(double[] byNew) {
+        double[] out = new double[byNew.length];
+        for (int x = 0; x < byNew.length; x++) {
+            out[oldId[x]] = byNew[x];
+        }
+        return out;
+    }
+
+    public int[] toOld(int[] byNew) {
+        int[] out = new int[byNew.length];
+        for (int x = 0; x < byNew.length; x++) {
+            out[oldId[x]] = byNew[x];
+        }
+        return out;
+    }
+
+    // Relabeled vertex ids (a path, an order, parent links) converted to original ids; -1 stays -1
+    public int[] idsToOld(int[] ids) {
+        int[] out = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            out[i] = ids[i] < 0 ? ids[i] : oldId[ids[i]];
+        }
+        return out;
+    }
+
+    // Original vertex ids converted to relabeled ones; -1 stays -1
+    public int[] idsToNew(int[] ids) {
+        int[] out = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            out[i] = ids[i] < 0 ? ids[i] : newId[ids[i]];
+        }
+        return out;
+    }
+
+    // BFS over out- and in-arcs; with cuthillMcKee, components start at a minimum-degree vertex,
+    // neighbours are visited by increasing degree and the final order is reversed
+    private static int[] bfs(CsrGraph g, boolean cuthillMcKee) {
+        int n = g.size();
+        CsrGraph rev = g.transpose();
+        int[] degree = new int[n];
+        for (int v = 0; v < n; v++) {
+            degree[v] = g.outDegree(v) + rev.outDegree(v);
+        }
+        int[] starts = cuthillMcKee ? sortedByDegree(degree, true) : null;
+        boolean[] seen = new boolean[n];
+        int[] order = new int[n];
+        int head = 0;
+        int tail = 0;
+        for (int s = 0; s < n; s++) {
+            int root = cuthillMcKee ? starts[s] : s;
+            if (seen[root]) continue;
+            seen[root] = true;
+            order[tail++] = root;
+            while (head < tail) {
+                int u = order[head++];
+                int first = tail;
+                tail = visit(g, u, seen, order, tail);
+                tail = visit(rev, u, seen, order, tail);
+                if (cuthillMcKee && tail - first > 1) {
+                    // the newly queued neighbours by (degree, id)
+                    int k = tail - first;
+                    long[] keys = new long[k];
+                    for (int i = 0; i < k; i++) {
+                        int v = order[first + i];
+                        keys[i] = ((long) degree[v] << 32) | v;
+                    }
+                    Arrays.sort(keys);
+                    for (int i = 0; i < k; i++) {
+                        order[first + i] = (int) keys[i];
+                    }
+                }
+            }
+        }
+        if (cuthillMcKee) {
+            for (int i = 0, j = n - 1; i < j; i++, j--) {
+                int t = order[i];
+                order[i] = order[j];
+                order[j] = t;
+            }
+        }
+        return order;
+    }
+
+    private static int visit(CsrGraph adj, int u, boolean[] seen, int[] order, int tail) {
+        for (int i = adj.offsets[u]; i < adj.offsets[u + 1]; i++) {
+            int v = adj.targets[i];
+            if (!seen[v]) {
+                seen[v] = true;
+                order[tail++] = v;
+            }
+        }
+        return tail;
+    }
+
+    private static int[] byDegree(CsrGraph g) {
+        int n = g.size();
+        int[] degree = new int[n];
+        for (int v = 0; v < n; v++) {
+            degree[v] += g.outDegree(v);
+        }
+        for (int i = 0; i < g.edgeCount(); i++) {
+            degree[g.targets[i]]++;
+        }
+        return sortedByDegree(degree, false);
+    }
+
+    // Vertices by degree (ascending or descending), ties by id, with a counting sort
+    private static int[] sortedByDegree(int[] degree, boolean ascending) {
+        int n = degree.length;
+        int max = 0;
+        for (int d : degree) {
+            max = Math.max(max, d);
+        }
+        int[] start = new int[max + 2];
+        for (int d : degree) {
+            start[(ascending ? d : max - d) + 1]++;
+        }
+        for (int d = 0; d <= max; d++) {
+            start[d + 1] += start[d];
+        }
+        int[] out = new int[n];
+        for (int v = 0; v < n; v++) {
+            out[start[ascending ? degree[v] : max - degree[v]]++] = v;
+        }
+        return out;
+    }
+}
@@ -0,0 +1,98 @@
+package graph.reorder;
+
+import graph.common.CsrGraph;
+import graph.common.Metrics;
+import graph.dagsp.DagLongestPath;
+import graph.dagsp.DagShortestPath;
+import graph.scc.CondensationBuilder;
+import graph.scc.TarjanSCC;
+import graph.topo.TopoKahn;
+
+ // Runs the pipeline on a relabeled copy of a graph and answers in original vertex ids.
+ // Callers pass and receive original ids only; the relabeling is paid once at construction.
+ //   scc             the same components as TarjanSCC on the original graph; component ids follow
+ //                   the relabeled DFS, so they may be numbered differently
+ //   condensation    built from the original graph with the component ids of scc(), so parallel
+ //                   arcs are met in their original order: FIRST and SUM give exactly the weights
+ //                   of CondensationBuilder on the original graph, whatever the strategy
+ //   topoOrder, shortestPaths, longestPaths   for DAG inputs, converted back vertex by vertex.
+ //                   Distances are identical to the original graph; on ties a different but
+ //                   equally long parent may be chosen.
+
+public class ReorderedGraph {
+    private final Relabeling relabeling;
+    private final CsrGraph original;
+    private final CsrGraph graph; // relabeled
+    private final double[] nodeWeight; // relabeled, or null
+
+    public ReorderedGraph(CsrGraph original, Relabeling.Strategy strategy) {
+        this(original, null, Relabeling.of(original, strategy));
+    }
+
+    public ReorderedGraph(CsrGraph original, double[] nodeWeight, Relabeling relabeling) {
+        this.relabeling = relabeling;
+        this.original = original;
+        this.graph = relabeling.apply(original);
+        this.nodeWeight = relabeling.toNew(nodeWeight);
+    }
+
+    public Relabeling relabeling() {
+        return relabeling;
+    }
+
+    // The relabeled graph itself
+    public CsrGraph graph() {
+        return graph;
+    }
+
+    // Wrapper without metrics
+    public TarjanSCC.Result scc() {
+        return scc(new Metrics());
+    }
+
+    // Tarjan on the relabeled graph; compId and the component vertex lists use original ids
+    public TarjanSCC.Result scc(Metrics m) {
+        TarjanSCC.Result res = new TarjanSCC(graph).run(m);
+        return new TarjanSCC.Result(relabeling.toOld(res.compId), res.compStart, relabeling.idsToOld(res.compVertices));
+    }
+
+    public CondensationBuilder.CondensationResult condensation(TarjanSCC.Result scc) {
+        return condensation(scc, CondensationBuilder.EdgePolicy.FIRST);
+    }
+
+    // Condensation for a result of scc(); one O(V + E) pass over the original arcs either way,
+    // and only the original order makes the DAG independent of the relabeling
+    public CondensationBuilder.CondensationResult condensation(TarjanSCC.Result scc, CondensationBuilder.EdgePolicy policy) {
+        return CondensationBuilder.build(original, scc, policy);
+    }
+
+    // Wrapper without metrics
+    public int[] topoOrder() {
+        return topoOrder(new Metrics());
+    }
+
+    // Topological order of a DAG input, in original ids
+    public int[] topoOrder(Metrics m) {
+        return relabeling.idsToOld(new TopoKahn(graph).order(m));
+    }
+
+    // Wrapper without metrics
+    public DagShortestPath.Result shortestPaths(int src) {
+        return shortestPaths(src, new Metrics());
+    }
+
+    public DagShortestPath.Result shortestPaths(int src, Metrics m) {
+        DagShortestPath.Result res = new DagShortestPath(graph).shortestPaths(relabeling.newId[src], m);
+        return new DagShortestPath.Result(relabeling.toOld(res.distances), relabeling.toOld(relabeling.idsToOld(res.parents)));
+    }
+
+    // Wrapper without metrics
+    public DagLongestPath.Result longestPaths(int src) {
+        return longestPaths(src, new Metrics());
+    }
+
+    public DagLongestPath.Result longestPaths(int src, Metrics m) {
+        DagLongestPath.Result res = new DagLongestPath(graph, nodeWeight).longestPaths(relabeling.newId[src], m);
+        return new DagLongestPath.Result(relabeling.toOld(res.distances), relabeling.toOld(relabeling.idsToOld(res.parents)));
+    }
+}
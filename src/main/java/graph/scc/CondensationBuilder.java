@@ -1,65 +1,97 @@
 package graph.scc;
 
+import graph.common.CsrGraph;
 import graph.common.Graph;
-import java.util.*;
+import graph.common.LongIntHashMap;
+import java.util.Arrays;
 
- // Simple builder for the condensation graph (a DAG of SCCs).
+ // Builder for the condensation graph (a DAG of SCCs).
  // Each node in the new graph = one SCC from the original graph.
  // Also calculates internal weights for each SCC.
 
 public class CondensationBuilder {
     // Just a small helper class to return the result
     public static class CondensationResult {
-        public Graph dag; // DAG after compression
+        public CsrGraph dag; // DAG after compression
         public double[] nodeWeight; // sum of edge weights inside each SCC
 
-        public CondensationResult(Graph dag, double[] nodeWeight) {
+        public CondensationResult(CsrGraph dag, double[] nodeWeight) {
             this.dag = dag;
             this.nodeWeight = nodeWeight;
         }
     }
 
+    // How the weight of a DAG edge is chosen when several original edges join the same two SCCs
+    public enum EdgePolicy {
+        FIRST, // weight of the first edge met in adjacency order (the historical behaviour)
+        MIN,   // lightest parallel edge
+        MAX,   // heaviest parallel edge
+        SUM    // total weight of all parallel edges
+    }
+
      // Builds a DAG of components using Tarjan's SCC result.
      // It also computes the total internal weight (sum of edges) for each SCC
 
     public static CondensationResult build(Graph g, TarjanSCC.Result sccRes) {
-        List<List<Integer>> comps = sccRes.components;
-        int compCount = comps.size();
-        Graph dag = new Graph(compCount, true);
+        return build(CsrGraph.from(g), sccRes);
+    }
+
+    public static CondensationResult build(CsrGraph g, TarjanSCC.Result sccRes) {
+        return build(g, sccRes, EdgePolicy.FIRST);
+    }
+
+     // Single pass over all arcs: inner arcs add to their SCC weight, cross arcs are
+     // deduplicated through a primitive hash map keyed by the packed (cu, cv) pair,
+     // which points at the slot of that DAG edge in flat arc arrays.
+
+    public static CondensationResult build(CsrGraph g, TarjanSCC.Result sccRes, EdgePolicy policy) {
+        int compCount = sccRes.count();
+        int[] compId = sccRes.compId;
+        int[] offsets = g.offsets;
+        int[] targets = g.targets;
+        double[] weights = g.weights;
         double[] nodeWeight = new double[compCount];
 
-        // Step 1: sum internal weights inside each SCC
+        int cap = Math.max(16, compCount);
+        int[] from = new int[cap];
+        int[] to = new int[cap];
+        double[] w = new double[cap];
+        int m = 0;
+        LongIntHashMap index = new LongIntHashMap(cap);
+
         for (int u = 0; u < g.size(); u++) {
-            int cu = sccRes.compId[u];
-            for (Graph.Edge e : g.adj.get(u)) {
-                int cv = sccRes.compId[e.to];
+            int cu = compId[u];
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int cv = compId[targets[i]];
+                double x = weights[i];
                 if (cu == cv) {
-                    nodeWeight[cu] += e.w; // all inner edges in same SCC
+                    nodeWeight[cu] += x; // all inner edges in same SCC
+                    continue;
                 }
-            }
-        }
-
-        // Step 2: add edges between different SCCs (avoid duplicates)
-        Set<String> seen = new HashSet<>();
-        for (int u = 0; u < g.size(); u++) {
-            int cu = sccRes.compId[u];
-            for (Graph.Edge e : g.adj.get(u)) {
-                int cv = sccRes.compId[e.to];
-                if (cu != cv) {
-                    String key = cu + "->" + cv; // simple string key instead of bit trick
-                    if (!seen.contains(key)) {
-                        dag.addEdge(cu, cv, e.w);
-                        seen.add(key);
+                int slot = index.putIfAbsent(LongIntHashMap.key(cu, cv), m);
+                if (slot < 0) {
+                    if (m == from.length) {
+                        int grown = from.length + (from.length >> 1);
+                        from = Arrays.copyOf(from, grown);
+                        to = Arrays.copyOf(to, grown);
+                        w = Arrays.copyOf(w, grown);
+                    }
+                    from[m] = cu;
+                    to[m] = cv;
+                    w[m] = x;
+                    m++;
+                } else {
+                    switch (policy) {
+                        case MIN: w[slot] = Math.min(w[slot], x); break;
+                        case MAX: w[slot] = Math.max(w[slot], x); break;
+                        case SUM: w[slot] += x; break;
+                        default: break; // FIRST keeps the weight already stored
                     }
                 }
             }
         }
 
-        // Debug print (to make sure everything looks right)
-        System.out.println("Condensation graph built: " + compCount + " components");
-        for (int i = 0; i < compCount; i++) {
-            System.out.println("Component " + i + " weight = " + nodeWeight[i]);
-        }
+        CsrGraph dag = CsrGraph.fromArcs(compCount, true, from, to, w, m);
         return new CondensationResult(dag, nodeWeight);
     }
 }
@@ -0,0 +1,311 @@
+package graph.scc;
+
+import graph.common.Metrics;
+import graph.io.BinaryGraphFormat;
+import graph.io.ExternalSorter;
+import graph.io.MappedGraph;
+import graph.scc.CondensationBuilder.EdgePolicy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+ // Semi-external SCC decomposition and condensation for graphs whose arcs do not fit in heap.
+ // The graph is a memory-mapped BinaryGraphFormat file; only per-vertex arrays live in heap.
+ //   1. Iterative Tarjan over the mapped CSR: 24 bytes per vertex (disc, low, SCC stack, call
+ //      stack vertex and its long edge cursor). Same DFS order as TarjanSCC, so component ids
+ //      are identical.
+ //   2. One pass over the arcs: inner arcs add to the node weight, cross arcs go to an external
+ //      sort keyed by (component pair, arc index), which deduplicates them under the edge policy.
+ //   3. A second external sort by (source component, first arc index) restores the adjacency
+ //      order CondensationBuilder produces, and the DAG is written as a BinaryGraphFormat file.
+ // Outputs in the output directory: comp-id.bin (n little-endian ints), node-weight.bin
+ // (one little-endian double per component) and condensation.bin.
+ // Every heap allocation is checked against the memory budget first; a budget too small for the
+ // per-vertex arrays fails up front instead of running out of heap half-way.
+
+public class ExternalSCC {
+    public static final String COMP_ID_FILE = "comp-id.bin";
+    public static final String NODE_WEIGHT_FILE = "node-weight.bin";
+    public static final String DAG_FILE = "condensation.bin";
+    private static final int IO_BUFFER = 1 << 16;
+
+    private final long budget;
+    private long used = 0;
+    private long peak = 0;
+
+    public ExternalSCC(long memoryBudgetBytes) {
+        if (memoryBudgetBytes <= 0) throw new IllegalArgumentException("memory budget must be positive: " + memoryBudgetBytes);
+        this.budget = memoryBudgetBytes;
+    }
+
+    // Files and sizes of one run
+    public static class Result {
+        public final int vertices;
+        public final int components;
+        public final long dagArcs;
+        public final Path compIdFile;
+        public final Path nodeWeightFile;
+        public final Path dagFile;
+        public final long peakBytes; // largest amount of budgeted heap in use at once
+
+        Result(int vertices, int components, long dagArcs, Path dir, long peakBytes) {
+            this.vertices = vertices;
+            this.components = components;
+            this.dagArcs = dagArcs;
+            this.compIdFile = dir.resolve(COMP_ID_FILE);
+            this.nodeWeightFile = dir.resolve(NODE_WEIGHT_FILE);
+            this.dagFile = dir.resolve(DAG_FILE);
+            this.peakBytes = peakBytes;
+        }
+
+        // Loads the component ids (only for graphs that fit)
+        public int[] readCompIds() throws IOException {
+            ByteBuffer b = ByteBuffer.wrap(Files.readAllBytes(compIdFile)).order(ByteOrder.LITTLE_ENDIAN);
+            int[] out = new int[vertices];
+            b.asIntBuffer().get(out);
+            return out;
+        }
+
+        // Loads the node weights
+        public double[] readNodeWeights() throws IOException {
+            ByteBuffer b = ByteBuffer.wrap(Files.readAllBytes(nodeWeightFile)).order(ByteOrder.LITTLE_ENDIAN);
+            double[] out = new double[components];
+            b.asDoubleBuffer().get(out);
+            return out;
+        }
+    }
+
+    // Heap bytes the SCC phase needs for n vertices
+    public static long sccBytes(int n) {
+        return 24L * n;
+    }
+
+    // Wrapper without metrics
+    public Result run(Path graphFile, Path outDir) throws IOException {
+        return run(graphFile, outDir, EdgePolicy.FIRST, new Metrics());
+    }
+
+    public Result run(Path graphFile, Path outDir, EdgePolicy policy, Metrics m) throws IOException {
+        m.start();
+        used = 0;
+        peak = 0;
+        MappedGraph g = BinaryGraphFormat.open(graphFile);
+        g.validate();
+        int n = g.size();
+        Files.createDirectories(outDir);
+
+        int[] compId = tarjan(g, m);
+        int comps = compId.length == 0 ? 0 : count(compId);
+        writeInts(outDir.resolve(COMP_ID_FILE), compId);
+
+        // node weights and DAG out-degrees, then two sorts that are alive at the same time
+        reserve(16L * comps, "node weights and DAG out-degrees for " + comps + " components");
+        long sortMemory = (budget - used) / 2;
+        if (sortMemory < ExternalSorter.MIN_MEMORY) {
+            throw new IllegalStateException("memory budget of " + budget + " bytes leaves " + sortMemory
+                    + " bytes per sort, need at least " + ExternalSorter.MIN_MEMORY);
+        }
+        reserve(2 * sortMemory, "external sorts");
+        double[] nodeWeight = new double[comps];
+        long dagArcs;
+        try (ExternalSorter pairs = new ExternalSorter(outDir, sortMemory)) {
+            // cross arcs by (component pair, arc index); inner arcs in arc order, like CondensationBuilder
+            for (int u = 0; u < n; u++) {
+                int cu = compId[u];
+                long end = g.offset(u + 1);
+                for (long i = g.offset(u); i < end; i++) {
+                    int cv = compId[g.target(i)];
+                    double x = g.weight(i);
+                    if (Metrics.COUNTERS) m.edgesSeen++;
+                    if (cu == cv) {
+                        nodeWeight[cu] += x;
+                    } else {
+                        pairs.add(((long) cu << 32) | cv, i, Double.doubleToRawLongBits(x), 0);
+                    }
+                }
+            }
+            writeDoubles(outDir.resolve(NODE_WEIGHT_FILE), nodeWeight);
+            dagArcs = writeDag(g, compId, comps, pairs, policy, outDir, sortMemory);
+        }
+        m.stop();
+        return new Result(n, comps, dagArcs, outDir, peak);
+    }
+
+    // Iterative Tarjan on the mapped graph; returns compId, which reuses the disc array
+    private int[] tarjan(MappedGraph g, Metrics m) {
+        int n = g.size();
+        reserve(sccBytes(n), "Tarjan arrays for " + n + " vertices");
+        int[] disc = new int[n]; // discovery time + 1; the component id once the vertex is done
+        int[] low = new int[n]; // low link + 1, 0 = not visited, DONE once the vertex is done
+        int[] stack = new int[n];
+        int[] callVertex = new int[n];
+        long[] callEdge = new long[n];
+        final int DONE = Integer.MAX_VALUE;
+        int sp = 0;
+        int comps = 0;
+        int time = 1;
+
+        for (int root = 0; root < n; root++) {
+            if (low[root] != 0) continue;
+            int depth = 0;
+            callVertex[0] = root;
+            callEdge[0] = g.offset(root);
+            disc[root] = low[root] = time++;
+            stack[sp++] = root;
+            if (Metrics.COUNTERS) m.dfsVisits++;
+
+            while (depth >= 0) {
+                int u = callVertex[depth];
+                long i = callEdge[depth];
+                if (i < g.offset(u + 1)) {
+                    callEdge[depth] = i + 1;
+                    if (Metrics.COUNTERS) m.edgesSeen++;
+                    int v = g.target(i);
+                    if (low[v] == 0) {
+                        depth++;
+                        callVertex[depth] = v;
+                        callEdge[depth] = g.offset(v);
+                        disc[v] = low[v] = time++;
+                        stack[sp++] = v;
+                        if (Metrics.COUNTERS) m.dfsVisits++;
+                    } else if (low[v] != DONE) { // still on the SCC stack
+                        low[u] = Math.min(low[u], disc[v]);
+                    }
+                    continue;
+                }
+
+                depth--;
+                int lu = low[u];
+                if (lu == disc[u]) {
+                    int x;
+                    do {
+                        x = stack[--sp];
+                        disc[x] = comps;
+                        low[x] = DONE;
+                    } while (x != u);
+                    comps++;
+                }
+                if (depth >= 0) {
+                    int p = callVertex[depth];
+                    low[p] = Math.min(low[p], lu);
+                }
+            }
+        }
+        // only disc survives, as the component ids
+        release(sccBytes(n) - 4L * n);
+        return disc;
+    }
+
+    private static int count(int[] compId) {
+        int max = -1;
+        for (int c : compId) {
+            max = Math.max(max, c);
+        }
+        return max + 1;
+    }
+
+    // Deduplicates the sorted component pairs, re-sorts them into CondensationBuilder's adjacency
+    // order and writes the DAG; returns its arc count
+    private static long writeDag(MappedGraph g, int[] compId, int comps, ExternalSorter pairs, EdgePolicy policy,
+                                 Path outDir, long sortMemory) throws IOException {
+        try (ExternalSorter arcs = new ExternalSorter(outDir, sortMemory)) {
+            try (ExternalSorter.Cursor c = pairs.sorted()) {
+                boolean any = c.next();
+                while (any) {
+                    long key = c.key;
+                    long first = c.seq;
+                    double w = Double.longBitsToDouble(c.a);
+                    while ((any = c.next()) && c.key == key) {
+                        double x = Double.longBitsToDouble(c.a);
+                        switch (policy) {
+                            case MIN: w = Math.min(w, x); break;
+                            case MAX: w = Math.max(w, x); break;
+                            case SUM: w += x; break;
+                            default: break; // FIRST keeps the weight of the first arc
+                        }
+                    }
+                    arcs.add(key >>> 32, first, key & 0xffffffffL, Double.doubleToRawLongBits(w));
+                }
+            }
+            pairs.close(); // frees the disk space of the first sort
+
+            long[] degree = new long[comps];
+            try (ExternalSorter.Cursor c = arcs.sorted()) {
+                while (c.next()) {
+                    degree[(int) c.key]++;
+                }
+            }
+            int source = g.size() == 0 ? 0 : compId[g.source()];
+            try (BinaryGraphFormat.Writer out = new BinaryGraphFormat.Writer(outDir.resolve(DAG_FILE), comps,
+                    arcs.size(), true, source, "edge")) {
+                long off = 0;
+                out.offset(0);
+                for (int c = 0; c < comps; c++) {
+                    off += degree[c];
+                    out.offset(off);
+                }
+                try (ExternalSorter.Cursor c = arcs.sorted()) {
+                    while (c.next()) {
+                        out.target((int) c.a);
+                    }
+                }
+                try (ExternalSorter.Cursor c = arcs.sorted()) {
+                    while (c.next()) {
+                        out.weight(Double.longBitsToDouble(c.b));
+                    }
+                }
+            }
+            return arcs.size();
+        }
+    }
+
+    private void reserve(long bytes, String what) {
+        if (used + bytes > budget) {
+            throw new IllegalStateException("memory budget of " + budget + " bytes exceeded: " + what
+                    + " needs " + bytes + " bytes, " + (budget - used) + " left");
+        }
+        used += bytes;
+        peak = Math.max(peak, used);
+    }
+
+    private void release(long bytes) {
+        used -= bytes;
+    }
+
+    private static void writeInts(Path file, int[] values) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer b = ByteBuffer.allocateDirect(IO_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+            for (int v : values) {
+                if (!b.hasRemaining()) drain(ch, b);
+                b.putInt(v);
+            }
+            drain(ch, b);
+        }
+    }
+
+    private static void writeDoubles(Path file, double[] values) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer b = ByteBuffer.allocateDirect(IO_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+            for (double x : values) {
+                if (!b.hasRemaining()) drain(ch, b);
+                b.putDouble(x);
+            }
+            drain(ch, b);
+        }
+    }
+
+    private static void drain(FileChannel ch, ByteBuffer b) throws IOException {
+        b.flip();
+        while (b.hasRemaining()) {
+            ch.write(b);
+        }
+        b.clear();
+    }
+}
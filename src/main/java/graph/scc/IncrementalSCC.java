@@ -0,0 +1,424 @@
+package graph.scc;
+
+import graph.common.CsrGraph;
+import graph.common.Graph;
+import graph.common.LongIntHashMap;
+import graph.common.Metrics;
+
+import java.util.Arrays;
+
+ // Strongly connected components and their condensation, maintained under edge insertions.
+ // Starts from one TarjanSCC run, then keeps a Pearce-Kelly topological order over the live
+ // components. An edge u -> v that goes backwards in that order is checked inside the window
+ // between the two components only: components reachable from v that also reach u lie on the
+ // new cycle and are merged in place. Their inner DAG edges are folded into the node weight and
+ // their outer DAG edges are re-keyed to the surviving component.
+ // Every DAG edge keeps the total weight of its original edges, so node weights stay exact,
+ // and its EdgePolicy weight, so condensation() equals CondensationBuilder on the updated graph.
+
+public class IncrementalSCC {
+    private final int n;
+    private final CondensationBuilder.EdgePolicy policy;
+    private final int[] vertexComp; // initial component of every vertex, resolved through rep
+    private final int[] outCount; // arcs per vertex, so new arcs get the next adjacency index
+
+    // components: union-find over the initial ids, plus the dynamic order
+    private final int[] rep;
+    private final double[] nodeWeight;
+    private final int[] ord; // position of a live component
+    private final int[] compAt; // component at a position, -1 for positions freed by merges
+    private int live;
+
+    // DAG edges as slots; per component growable slot lists in both directions
+    private final LongIntHashMap index; // (cu, cv) -> slot; keys with a merged-away end are stale
+    private int[] from, to;
+    private double[] weight, sum;
+    private long[] rank; // (u, adjacency index) of the first original arc, for EdgePolicy.FIRST
+    private boolean[] dead;
+    private int slots = 0;
+    private final int[][] out, in;
+    private final int[] outLen, inLen;
+
+    // search state, reused between updates
+    private final int[] fMark, bMark;
+    private int stamp = 0;
+    private int[] stack = new int[16];
+    private int[] forward = new int[16];
+    private int[] backward = new int[16];
+
+    public IncrementalSCC(Graph g) {
+        this(CsrGraph.from(g), CondensationBuilder.EdgePolicy.FIRST);
+    }
+
+    public IncrementalSCC(CsrGraph g) {
+        this(g, CondensationBuilder.EdgePolicy.FIRST);
+    }
+
+    public IncrementalSCC(CsrGraph g, CondensationBuilder.EdgePolicy policy) {
+        this.n = g.size();
+        this.policy = policy;
+        TarjanSCC.Result scc = new TarjanSCC(g).run();
+        int c = scc.count();
+        this.vertexComp = scc.compId.clone();
+        this.outCount = new int[n];
+        this.rep = new int[c];
+        this.nodeWeight = new double[c];
+        this.ord = new int[c];
+        this.compAt = new int[c];
+        this.live = c;
+        for (int k = 0; k < c; k++) {
+            rep[k] = k;
+            ord[k] = c - 1 - k; // Tarjan emits components in reverse topological order
+            compAt[c - 1 - k] = k;
+        }
+
+        int cap = Math.max(16, c);
+        this.index = new LongIntHashMap(cap);
+        this.from = new int[cap];
+        this.to = new int[cap];
+        this.weight = new double[cap];
+        this.sum = new double[cap];
+        this.rank = new long[cap];
+        this.dead = new boolean[cap];
+        this.out = new int[c][];
+        this.in = new int[c][];
+        this.outLen = new int[c];
+        this.inLen = new int[c];
+        for (int k = 0; k < c; k++) {
+            out[k] = new int[2];
+            in[k] = new int[2];
+        }
+        this.fMark = new int[c];
+        this.bMark = new int[c];
+
+        for (int u = 0; u < n; u++) {
+            for (int i = g.offsets[u]; i < g.offsets[u + 1]; i++) {
+                arc(u, g.targets[i], g.weights[i]);
+            }
+        }
+    }
+
+    // Number of vertices of the underlying graph
+    public int size() {
+        return n;
+    }
+
+    // Number of components right now
+    public int componentCount() {
+        return live;
+    }
+
+    // Current component of v. Ids come from the initial TarjanSCC numbering; a merged
+    // component keeps the id of one of its members.
+    public int componentOf(int v) {
+        return find(vertexComp[v]);
+    }
+
+    // Total inner edge weight of the component of v
+    public double nodeWeightOf(int v) {
+        return nodeWeight[componentOf(v)];
+    }
+
+    // Weight of the DAG edge between the components of u and v, NaN if there is none
+    public double edgeWeight(int u, int v) {
+        int slot = index.get(LongIntHashMap.key(componentOf(u), componentOf(v)));
+        return slot < 0 ? Double.NaN : weight[slot];
+    }
+
+    // Wrapper without metrics
+    public boolean addEdge(int u, int v, double w) {
+        return addEdge(u, v, w, new Metrics());
+    }
+
+    // Inserts u -> v. Returns true if the edge closed a cycle and components were merged.
+    public boolean addEdge(int u, int v, double w, Metrics m) {
+        if (u < 0 || u >= n || v < 0 || v >= n) {
+            throw new IndexOutOfBoundsException("edge " + u + "->" + v + " outside [0, " + n + ")");
+        }
+        int cu = componentOf(u);
+        int cv = componentOf(v);
+        boolean isNew = arc(u, v, w);
+        if (!isNew || ord[cu] < ord[cv]) return false;
+
+        // affected window: components between cv and cu in the current order
+        nextStamp();
+        int nf = search(cv, ord[cu], true, m);
+        boolean cycle = fMark[cu] == stamp;
+        int nb = search(cu, ord[cv], false, m);
+        reorder(nf, nb, cycle);
+        return cycle;
+    }
+
+    // Records one original arc; returns true if it created a new DAG edge
+    private boolean arc(int u, int v, double w) {
+        long r = ((long) u << 32) | outCount[u]++;
+        int cu = componentOf(u);
+        int cv = componentOf(v);
+        if (cu == cv) {
+            nodeWeight[cu] += w;
+            return false;
+        }
+        int slot = index.putIfAbsent(LongIntHashMap.key(cu, cv), slots);
+        if (slot >= 0) {
+            combine(slot, w, w, r);
+            return false;
+        }
+        if (slots == from.length) {
+            int grown = slots + (slots >> 1);
+            from = Arrays.copyOf(from, grown);
+            to = Arrays.copyOf(to, grown);
+            weight = Arrays.copyOf(weight, grown);
+            sum = Arrays.copyOf(sum, grown);
+            rank = Arrays.copyOf(rank, grown);
+            dead = Arrays.copyOf(dead, grown);
+        }
+        slot = slots++;
+        from[slot] = cu;
+        to[slot] = cv;
+        weight[slot] = w;
+        sum[slot] = w;
+        rank[slot] = r;
+        push(out, outLen, cu, slot);
+        push(in, inLen, cv, slot);
+        return true;
+    }
+
+    // Folds arcs with policy weight w, total s and first rank r into a DAG edge
+    private void combine(int slot, double w, double s, long r) {
+        switch (policy) {
+            case MIN: weight[slot] = Math.min(weight[slot], w); break;
+            case MAX: weight[slot] = Math.max(weight[slot], w); break;
+            case SUM: weight[slot] += w; break;
+            default: if (r < rank[slot]) weight[slot] = w; break;
+        }
+        sum[slot] += s;
+        rank[slot] = Math.min(rank[slot], r);
+    }
+
+    private static void push(int[][] lists, int[] len, int c, int slot) {
+        if (len[c] == lists[c].length) lists[c] = Arrays.copyOf(lists[c], len[c] * 2);
+        lists[c][len[c]++] = slot;
+    }
+
+    private int find(int c) {
+        while (rep[c] != c) {
+            rep[c] = rep[rep[c]]; // path halving
+            c = rep[c];
+        }
+        return c;
+    }
+
+    private void nextStamp() {
+        if (++stamp == 0) { // wrapped around: clear old marks
+            Arrays.fill(fMark, 0);
+            Arrays.fill(bMark, 0);
+            stamp = 1;
+        }
+    }
+
+    // Iterative DFS over live DAG edges, staying at positions <= bound (forward) or
+    // >= bound (backward). Visited components are marked and collected.
+    private int search(int start, int bound, boolean isForward, Metrics m) {
+        int[] mark = isForward ? fMark : bMark;
+        int[][] lists = isForward ? out : in;
+        int[] len = isForward ? outLen : inLen;
+        int[] found = isForward ? forward : backward;
+        int count = 0;
+        int sp = 0;
+        stack[sp++] = start;
+        mark[start] = stamp;
+        while (sp > 0) {
+            int x = stack[--sp];
+            if (Metrics.COUNTERS) m.dfsVisits++;
+            if (count == found.length) found = Arrays.copyOf(found, count * 2);
+            found[count++] = x;
+            for (int i = 0; i < len[x]; i++) {
+                int slot = lists[x][i];
+                if (dead[slot]) continue;
+                int y = isForward ? to[slot] : from[slot];
+                if (Metrics.COUNTERS) m.edgesSeen++;
+                if (mark[y] == stamp) continue;
+                if (isForward ? ord[y] > bound : ord[y] < bound) continue;
+                mark[y] = stamp;
+                if (sp == stack.length) stack = Arrays.copyOf(stack, sp * 2);
+                stack[sp++] = y;
+            }
+        }
+        if (isForward) forward = found;
+        else backward = found;
+        return count;
+    }
+
+    private boolean onCycle(int c) {
+        return fMark[c] == stamp && bMark[c] == stamp;
+    }
+
+    // Pearce-Kelly reordering: the backward set takes the lowest freed positions, then the
+    // merged cycle (if any) as one component, and the forward set the highest ones. Positions
+    // left over by the merge become holes between them.
+    private void reorder(int nf, int nb, boolean cycle) {
+        int[] pool = new int[nf + nb];
+        int p = 0;
+        for (int i = 0; i < nb; i++) {
+            pool[p++] = ord[backward[i]];
+        }
+        int forwardOnly = 0;
+        for (int i = 0; i < nf; i++) {
+            if (!onCycle(forward[i])) {
+                pool[p++] = ord[forward[i]];
+                forwardOnly++;
+            }
+        }
+        Arrays.sort(pool, 0, p);
+        for (int i = 0; i < p; i++) {
+            compAt[pool[i]] = -1;
+        }
+
+        int merged = cycle ? merge(nb) : -1;
+        int next = 0;
+        sortByPosition(backward, nb);
+        for (int i = 0; i < nb; i++) {
+            if (!onCycle(backward[i])) place(backward[i], pool[next++]);
+        }
+        if (cycle) place(merged, pool[next++]);
+        next = p - forwardOnly; // forward components only move right, so they take the top slots
+        sortByPosition(forward, nf);
+        for (int i = 0; i < nf; i++) {
+            if (!onCycle(forward[i])) place(forward[i], pool[next++]);
+        }
+    }
+
+    private void place(int c, int position) {
+        ord[c] = position;
+        compAt[position] = c;
+    }
+
+    // Sorts the first len components of a by their current position
+    private void sortByPosition(int[] a, int len) {
+        long[] keys = new long[len];
+        for (int i = 0; i < len; i++) {
+            keys[i] = ((long) ord[a[i]] << 32) | a[i];
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < len; i++) {
+            a[i] = (int) keys[i];
+        }
+    }
+
+    // Merges the components on the cycle (marked in both searches, all in the backward set)
+    // into the one with the most DAG edges; returns the survivor
+    private int merge(int nb) {
+        int r = -1;
+        int k = 0;
+        int[] members = new int[nb];
+        for (int i = 0; i < nb; i++) {
+            int c = backward[i];
+            if (!onCycle(c)) continue;
+            members[k++] = c;
+            if (r < 0 || outLen[c] + inLen[c] > outLen[r] + inLen[r]) r = c;
+        }
+        int[] outSlots = new int[0];
+        int[] inSlots = new int[0];
+        int outN = 0, inN = 0;
+        for (int i = 0; i < k; i++) {
+            int c = members[i];
+            if (c != r) {
+                rep[c] = r;
+                nodeWeight[r] += nodeWeight[c];
+                live--;
+            }
+            // edges inside the cycle become node weight
+            for (int j = 0; j < outLen[c]; j++) {
+                int slot = out[c][j];
+                if (dead[slot]) continue;
+                if (onCycle(to[slot])) {
+                    nodeWeight[r] += sum[slot];
+                    dead[slot] = true;
+                    continue;
+                }
+                if (c != r) slot = rekey(slot, r, to[slot]);
+                if (slot >= 0) {
+                    if (outN == outSlots.length) outSlots = Arrays.copyOf(outSlots, Math.max(4, outN * 2));
+                    outSlots[outN++] = slot;
+                }
+            }
+            for (int j = 0; j < inLen[c]; j++) {
+                int slot = in[c][j];
+                if (dead[slot] || onCycle(from[slot])) continue; // inner edges: handled with the out-edges
+                if (c != r) slot = rekey(slot, from[slot], r);
+                if (slot >= 0) {
+                    if (inN == inSlots.length) inSlots = Arrays.copyOf(inSlots, Math.max(4, inN * 2));
+                    inSlots[inN++] = slot;
+                }
+            }
+            if (c != r) {
+                out[c] = new int[0];
+                in[c] = new int[0];
+                outLen[c] = 0;
+                inLen[c] = 0;
+            }
+        }
+        out[r] = outSlots.length == 0 ? new int[2] : outSlots;
+        outLen[r] = outN;
+        in[r] = inSlots.length == 0 ? new int[2] : inSlots;
+        inLen[r] = inN;
+        return r;
+    }
+
+    // Moves a DAG edge to (cu, cv). If that edge already exists the two are combined and -1 is
+    // returned, because the surviving slot is already listed.
+    private int rekey(int slot, int cu, int cv) {
+        int existing = index.putIfAbsent(LongIntHashMap.key(cu, cv), slot);
+        if (existing >= 0 && existing != slot) {
+            combine(existing, weight[slot], sum[slot], rank[slot]);
+            dead[slot] = true;
+            return -1;
+        }
+        from[slot] = cu;
+        to[slot] = cv;
+        return slot;
+    }
+
+    // Snapshot of the component of every vertex, numbered 0..componentCount()-1
+    // in topological order
+    public int[] compId() {
+        int[] dense = denseIds();
+        int[] ids = new int[n];
+        for (int v = 0; v < n; v++) {
+            ids[v] = dense[componentOf(v)];
+        }
+        return ids;
+    }
+
+    // Snapshot of the condensation, numbered like compId()
+    public CondensationBuilder.CondensationResult condensation() {
+        int[] dense = denseIds();
+        int m = 0;
+        int[] cf = new int[Math.max(16, slots)];
+        int[] ct = new int[cf.length];
+        double[] cw = new double[cf.length];
+        double[] nw = new double[live];
+        for (int c = 0; c < rep.length; c++) {
+            if (rep[c] != c) continue;
+            nw[dense[c]] = nodeWeight[c];
+            for (int j = 0; j < outLen[c]; j++) {
+                int slot = out[c][j];
+                if (dead[slot]) continue;
+                cf[m] = dense[c];
+                ct[m] = dense[to[slot]];
+                cw[m] = weight[slot];
+                m++;
+            }
+        }
+        return new CondensationBuilder.CondensationResult(CsrGraph.fromArcs(live, true, cf, ct, cw, m), nw);
+    }
+
+    private int[] denseIds() {
+        int[] dense = new int[rep.length];
+        int next = 0;
+        for (int c : compAt) {
+            if (c >= 0) dense[c] = next++;
+        }
+        return dense;
+    }
+}
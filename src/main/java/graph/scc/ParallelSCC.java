@@ -0,0 +1,427 @@
+package graph.scc;
+
+import graph.common.CsrGraph;
+import graph.common.Graph;
+import graph.common.Metrics;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+ // Parallel SCC decomposition on the ForkJoinPool (forward-backward with trimming).
+ // Every vertex carries the label of the subproblem it belongs to. A subproblem is
+ //   1) trimmed: vertices without an in- or out-neighbour inside it are singleton SCCs,
+ //   2) split around a pivot: forward set F, backward set B, SCC = F ∩ B,
+ //   3) forked into F \ B, B \ F and the rest, which share no SCC and run in parallel.
+ // The largest of the three pieces is not forked but handled in a loop of the same task, so the
+ // task stack stays flat however lopsided the splits are. A split that peels off less than
+ // 1/16 of the subproblem (e.g. one 2-cycle from a long chain of them) makes no real progress,
+ // and repeating it would cost O(size) per tiny component: such a piece goes to Tarjan at once.
+ // Reachability sweeps are level-synchronous and claim vertices with CAS, so a single
+ // giant SCC is also searched by all workers. Small subproblems fall back to Tarjan.
+ // Components are numbered by their smallest vertex, so the result is deterministic.
+
+public class ParallelSCC {
+    private static final VarHandle INT_ARRAY = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final int DONE = -1; // label of vertices already assigned to a component
+    private static final int NONE = Integer.MIN_VALUE; // matches no label
+
+    private final CsrGraph g;
+    private final CsrGraph rev;
+    private final ForkJoinPool pool;
+    private final int sequentialBelow; // subproblems smaller than this run Tarjan in one task
+    private final int parallelFrontier; // BFS levels at least this wide are split across workers
+
+    // per-run state; every vertex is owned by exactly one subproblem at a time
+    private int[] label;
+    private int[] compId;
+    private int[] inDeg;
+    private int[] outDeg;
+    private int[] local;
+    private final AtomicInteger nextLabel = new AtomicInteger();
+    private final AtomicInteger nextComp = new AtomicInteger();
+
+    public ParallelSCC(Graph g) {
+        this(CsrGraph.from(g));
+    }
+
+    public ParallelSCC(CsrGraph g) {
+        this(g, ForkJoinPool.commonPool());
+    }
+
+    public ParallelSCC(CsrGraph g, ForkJoinPool pool) {
+        this(g, pool, 4096, 2048);
+    }
+
+    ParallelSCC(CsrGraph g, ForkJoinPool pool, int sequentialBelow, int parallelFrontier) {
+        this.g = g;
+        this.rev = g.transpose();
+        this.pool = pool;
+        this.sequentialBelow = sequentialBelow;
+        this.parallelFrontier = parallelFrontier;
+    }
+
+    // Runs the decomposition; same Result shape as TarjanSCC
+    public TarjanSCC.Result run(Metrics m) {
+        int n = g.size();
+        m.start();
+        label = new int[n];
+        compId = new int[n];
+        inDeg = new int[n];
+        outDeg = new int[n];
+        local = new int[n];
+        nextLabel.set(1);
+        nextComp.set(0);
+
+        int[] all = new int[n];
+        Arrays.setAll(all, i -> i);
+        Counters total = new Counters();
+        pool.invoke(new Subproblem(all, 0, total));
+
+        TarjanSCC.Result res = renumber(n, nextComp.get());
+        m.stop();
+        if (Metrics.COUNTERS) {
+            m.dfsVisits += total.visits.get();
+            m.edgesSeen += total.edges.get();
+        }
+        label = inDeg = outDeg = local = null;
+        return res;
+    }
+
+    // Quick helper if we want to run without metrics
+    public TarjanSCC.Result run() {
+        return run(new Metrics());
+    }
+
+    // Renumbers components by smallest vertex and builds the flat component arrays
+    private TarjanSCC.Result renumber(int n, int comps) {
+        int[] rename = new int[comps];
+        Arrays.fill(rename, -1);
+        int[] compStart = new int[comps + 1];
+        int next = 0;
+        for (int v = 0; v < n; v++) {
+            int c = compId[v];
+            if (rename[c] == -1) rename[c] = next++;
+            compId[v] = rename[c];
+            compStart[compId[v] + 1]++;
+        }
+        for (int c = 0; c < comps; c++) {
+            compStart[c + 1] += compStart[c];
+        }
+        int[] fill = Arrays.copyOf(compStart, comps);
+        int[] compVertices = new int[n];
+        for (int v = 0; v < n; v++) {
+            compVertices[fill[compId[v]]++] = v;
+        }
+        return new TarjanSCC.Result(compId, compStart, compVertices);
+    }
+
+    // Vertices of a subproblem and the label they carry
+    private static final class Piece {
+        final int[] verts;
+        final int id;
+
+        Piece(int[] verts, int id) {
+            this.verts = verts;
+            this.id = id;
+        }
+    }
+
+    private static class Counters {
+        final AtomicLong visits = new AtomicLong();
+        final AtomicLong edges = new AtomicLong();
+    }
+
+    private final class Subproblem extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] verts;
+        private final int id;
+        private final Counters counters;
+        private long visits = 0;
+        private long edges = 0;
+
+        Subproblem(int[] verts, int id, Counters counters) {
+            this.verts = verts;
+            this.id = id;
+            this.counters = counters;
+        }
+
+        @Override
+        protected void compute() {
+            List<Subproblem> forked = new ArrayList<>();
+            int[] vs = verts;
+            int label = id;
+            while (vs.length >= sequentialBelow) {
+                Piece[] pieces = split(vs, label);
+                if (pieces == null) {
+                    vs = new int[0];
+                    break;
+                }
+                int largest = 0;
+                for (int i = 1; i < pieces.length; i++) {
+                    if (pieces[i].verts.length > pieces[largest].verts.length) largest = i;
+                }
+                for (int i = 0; i < pieces.length; i++) {
+                    if (i == largest || pieces[i].verts.length == 0) continue;
+                    Subproblem task = new Subproblem(pieces[i].verts, pieces[i].id, counters);
+                    task.fork();
+                    forked.add(task);
+                }
+                boolean progress = pieces[largest].verts.length <= vs.length - vs.length / 16;
+                vs = pieces[largest].verts;
+                label = pieces[largest].id;
+                if (!progress) break;
+            }
+            if (vs.length > 0) tarjan(vs, label);
+            counters.visits.addAndGet(visits);
+            counters.edges.addAndGet(edges);
+            for (Subproblem task : forked) {
+                task.join();
+            }
+        }
+
+        // Trims the subproblem and splits it around a pivot; returns F \ B, B \ F and the rest,
+        // or null if trimming removed everything
+        private Piece[] split(int[] verts, int id) {
+            trim(verts, id);
+            int pivot = -1;
+            long best = -1;
+            for (int v : verts) {
+                if (label[v] != id) continue;
+                long score = (long) inDeg[v] * outDeg[v]; // high in*out degree tends to sit in a giant SCC
+                if (score > best) {
+                    best = score;
+                    pivot = v;
+                }
+            }
+            if (pivot == -1) return null;
+
+            int fw = nextLabel.getAndIncrement();
+            int bw = nextLabel.getAndIncrement();
+            int comp = nextComp.getAndIncrement();
+            // forward from the pivot: id -> F
+            label[pivot] = fw;
+            sweep(new Level(g, new int[]{pivot}, id, fw, NONE, NONE, -1));
+            // backward from the pivot: F -> component (F ∩ B), id -> B
+            compId[pivot] = comp;
+            label[pivot] = DONE;
+            sweep(new Level(rev, new int[]{pivot}, fw, DONE, id, bw, comp));
+
+            int cf = 0, cb = 0, cr = 0;
+            for (int v : verts) {
+                int l = label[v];
+                if (l == fw) cf++;
+                else if (l == bw) cb++;
+                else if (l == id) cr++;
+            }
+            int[] f = new int[cf], b = new int[cb], r = new int[cr];
+            cf = cb = cr = 0;
+            for (int v : verts) {
+                int l = label[v];
+                if (l == fw) f[cf++] = v;
+                else if (l == bw) b[cb++] = v;
+                else if (l == id) r[cr++] = v;
+            }
+            return new Piece[]{new Piece(f, fw), new Piece(b, bw), new Piece(r, id)};
+        }
+
+        // Repeatedly removes vertices with no in- or out-neighbour inside the subproblem.
+        // A vertex is queued only when its first counter reaches zero, so the queue never overflows.
+        private void trim(int[] verts, int id) {
+            int[] queue = new int[verts.length];
+            int head = 0, tail = 0;
+            for (int v : verts) {
+                int out = 0, in = 0;
+                for (int i = g.offsets[v]; i < g.offsets[v + 1]; i++) {
+                    if (label[g.targets[i]] == id) out++;
+                }
+                for (int i = rev.offsets[v]; i < rev.offsets[v + 1]; i++) {
+                    if (label[rev.targets[i]] == id) in++;
+                }
+                if (Metrics.COUNTERS) edges += g.outDegree(v) + rev.outDegree(v);
+                outDeg[v] = out;
+                inDeg[v] = in;
+                if (out == 0 || in == 0) queue[tail++] = v;
+            }
+            while (head < tail) {
+                int v = queue[head++];
+                if (label[v] != id) continue;
+                label[v] = DONE;
+                compId[v] = nextComp.getAndIncrement();
+                if (Metrics.COUNTERS) visits++;
+                for (int i = g.offsets[v]; i < g.offsets[v + 1]; i++) {
+                    int w = g.targets[i];
+                    if (label[w] == id && --inDeg[w] == 0 && outDeg[w] != 0) queue[tail++] = w;
+                }
+                for (int i = rev.offsets[v]; i < rev.offsets[v + 1]; i++) {
+                    int w = rev.targets[i];
+                    if (label[w] == id && --outDeg[w] == 0 && inDeg[w] != 0) queue[tail++] = w;
+                }
+            }
+        }
+
+        // Level-synchronous search: expands one BFS level at a time until nothing new is claimed
+        private void sweep(Level level) {
+            while (level.frontier.length > 0) {
+                if (Metrics.COUNTERS) visits += level.frontier.length;
+                level.invoke();
+                if (Metrics.COUNTERS) edges += level.edges;
+                level = level.next(level.found);
+            }
+        }
+
+        // Sequential iterative Tarjan restricted to the vertices labelled id
+        private void tarjan(int[] verts, int id) {
+            int size = verts.length;
+            for (int i = 0; i < size; i++) {
+                local[verts[i]] = i;
+            }
+            int[] disc = new int[size];
+            int[] low = new int[size];
+            boolean[] onStack = new boolean[size];
+            Arrays.fill(disc, -1);
+            int[] stack = new int[size];
+            int[] callVertex = new int[size];
+            int[] callEdge = new int[size];
+            int sp = 0, time = 0;
+
+            for (int root : verts) {
+                if (label[root] != id || disc[local[root]] != -1) continue;
+                int depth = 0;
+                callVertex[0] = root;
+                callEdge[0] = g.offsets[root];
+                disc[local[root]] = low[local[root]] = time++;
+                stack[sp++] = root;
+                onStack[local[root]] = true;
+                if (Metrics.COUNTERS) visits++;
+
+                while (depth >= 0) {
+                    int u = callVertex[depth];
+                    int lu = local[u];
+                    int i = callEdge[depth];
+                    if (i < g.offsets[u + 1]) {
+                        callEdge[depth] = i + 1;
+                        if (Metrics.COUNTERS) edges++;
+                        int v = g.targets[i];
+                        if (label[v] != id) continue; // outside this subproblem
+                        int lv = local[v];
+                        if (disc[lv] == -1) {
+                            depth++;
+                            callVertex[depth] = v;
+                            callEdge[depth] = g.offsets[v];
+                            disc[lv] = low[lv] = time++;
+                            stack[sp++] = v;
+                            onStack[lv] = true;
+                            if (Metrics.COUNTERS) visits++;
+                        } else if (onStack[lv]) {
+                            low[lu] = Math.min(low[lu], disc[lv]);
+                        }
+                        continue;
+                    }
+                    if (low[lu] == disc[lu]) {
+                        int comp = nextComp.getAndIncrement();
+                        int x;
+                        do {
+                            x = stack[--sp];
+                            onStack[local[x]] = false;
+                            compId[x] = comp;
+                        } while (x != u);
+                    }
+                    depth--;
+                    if (depth >= 0) {
+                        int lp = local[callVertex[depth]];
+                        low[lp] = Math.min(low[lp], low[lu]);
+                    }
+                }
+            }
+            // labels are cleared only now, so the "label == id" test above stays valid during the DFS
+            for (int v : verts) {
+                if (label[v] == id) label[v] = DONE;
+            }
+        }
+    }
+
+    // Expands frontier[from, to) by one BFS level; wide slices are split in half and run in parallel.
+    // A neighbour labelled a is claimed as aTo (and joins component comp if comp >= 0),
+    // a neighbour labelled b is claimed as bTo. Claims are CAS, so each vertex is found once.
+    private final class Level extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final CsrGraph h;
+        final int[] frontier;
+        private final int from, to;
+        private final int a, aTo, b, bTo, comp;
+        int[] found;
+        long edges = 0;
+
+        Level(CsrGraph h, int[] frontier, int a, int aTo, int b, int bTo, int comp) {
+            this(h, frontier, 0, frontier.length, a, aTo, b, bTo, comp);
+        }
+
+        private Level(CsrGraph h, int[] frontier, int from, int to, int a, int aTo, int b, int bTo, int comp) {
+            this.h = h;
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+            this.a = a;
+            this.aTo = aTo;
+            this.b = b;
+            this.bTo = bTo;
+            this.comp = comp;
+        }
+
+        // Same rules, next frontier
+        Level next(int[] nextFrontier) {
+            return new Level(h, nextFrontier, a, aTo, b, bTo, comp);
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from < parallelFrontier) {
+                expand();
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            Level left = new Level(h, frontier, from, mid, a, aTo, b, bTo, comp);
+            Level right = new Level(h, frontier, mid, to, a, aTo, b, bTo, comp);
+            invokeAll(left, right);
+            found = Arrays.copyOf(left.found, left.found.length + right.found.length);
+            System.arraycopy(right.found, 0, found, left.found.length, right.found.length);
+            if (Metrics.COUNTERS) edges = left.edges + right.edges;
+        }
+
+        private void expand() {
+            int[] out = new int[16];
+            int size = 0;
+            int[] offsets = h.offsets;
+            int[] targets = h.targets;
+            for (int k = from; k < to; k++) {
+                int u = frontier[k];
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    if (Metrics.COUNTERS) edges++;
+                    int w = targets[i];
+                    int l = label[w];
+                    boolean claimed = false;
+                    if (l == a) {
+                        claimed = INT_ARRAY.compareAndSet(label, w, a, aTo);
+                        if (claimed && comp >= 0) compId[w] = comp;
+                    } else if (l == b) {
+                        claimed = INT_ARRAY.compareAndSet(label, w, b, bTo);
+                    }
+                    if (claimed) {
+                        if (size == out.length) out = Arrays.copyOf(out, size * 2);
+                        out[size++] = w;
+                    }
+                }
+            }
+            found = Arrays.copyOf(out, size);
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package graph.scc;
+
+import graph.common.CsrGraph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+ // The SCC decomposition, condensation and topological order of one input file, saved next to
+ // it as x.json.scc (or x.bin.scc) so later runs can skip loading and recomputing the graph.
+ // The sidecar is keyed by the SHA-256 of the input bytes: read() returns null as soon as the
+ // input size, the hash, the magic or the version differ, the file is cut short, or the payload
+ // holds an out-of-range index or a non-monotone offset table.
+ // Little-endian layout, every section 8-byte aligned:
+ //
+ //   offset 0   int    magic "SCC1"
+ //          4   int    version (1)
+ //          8   int    n (vertices of the input)
+ //         12   int    components
+ //         16   long   arcs of the input
+ //         24   long   arcs of the condensation
+ //         32   long   input size in bytes
+ //         40   int    source vertex
+ //         44   int    flags: bit 0 = condensation is directed
+ //         48   byte   sha256[32] of the input
+ //         80   int    compId[n], compStart[components + 1], compVertices[n], order[components],
+ //                     dag offsets[components + 1], dag targets[dag arcs], zero padding to 8 bytes
+ //              double nodeWeight[components], dag weights[dag arcs]
+
+public class SccSidecar {
+    public static final int MAGIC = 0x31434353; // "SCC1" read as a little-endian int
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 80;
+    public static final String EXTENSION = ".scc";
+    private static final int FLAG_DIRECTED = 1;
+    private static final int IO_BUFFER = 1 << 20;
+
+    public final int vertices;
+    public final long arcs;
+    public final int source;
+    public final TarjanSCC.Result scc;
+    public final CondensationBuilder.CondensationResult condensation;
+    public final int[] order; // topological order of the components
+    private final long inputBytes;
+    private final byte[] inputHash;
+
+    public SccSidecar(long inputBytes, byte[] inputHash, int vertices, long arcs, int source, TarjanSCC.Result scc,
+                      CondensationBuilder.CondensationResult condensation, int[] order) {
+        if (inputHash.length != 32) throw new IllegalArgumentException("SHA-256 hash must have 32 bytes: " + inputHash.length);
+        if (scc.compId.length != vertices) {
+            throw new IllegalArgumentException("compId has " + scc.compId.length + " entries for " + vertices + " vertices");
+        }
+        if (condensation.dag.size() != scc.count() || order.length != scc.count()) {
+            throw new IllegalArgumentException("condensation or order does not match " + scc.count() + " components");
+        }
+        this.inputBytes = inputBytes;
+        this.inputHash = inputHash.clone();
+        this.vertices = vertices;
+        this.arcs = arcs;
+        this.source = source;
+        this.scc = scc;
+        this.condensation = condensation;
+        this.order = order;
+    }
+
+    // Where the sidecar of an input file lives
+    public static Path pathFor(Path input) {
+        return input.resolveSibling(input.getFileName() + EXTENSION);
+    }
+
+    // SHA-256 of the file contents
+    public static byte[] hash(Path file) throws IOException {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer b = ByteBuffer.allocateDirect(IO_BUFFER);
+            while (ch.read(b) >= 0) {
+                b.flip();
+                md.update(b);
+                b.clear();
+            }
+        }
+        return md.digest();
+    }
+
+    // The sidecar of an input with the given size and hash, or null if there is none or it is stale
+    public static SccSidecar read(Path sidecar, long inputBytes, byte[] inputHash) throws IOException {
+        FileChannel ch;
+        try {
+            ch = FileChannel.open(sidecar, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        try (ch) {
+            long fileBytes = ch.size();
+            if (fileBytes < HEADER_BYTES) return null;
+            ByteBuffer b = ByteBuffer.allocateDirect(IO_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+            b.limit(HEADER_BYTES);
+            fill(ch, b);
+            b.flip();
+            if (b.getInt() != MAGIC || b.getInt() != VERSION) return null;
+            int n = b.getInt();
+            int comps = b.getInt();
+            long arcs = b.getLong();
+            long dagArcs = b.getLong();
+            long size = b.getLong();
+            int source = b.getInt();
+            int flags = b.getInt();
+            byte[] hash = new byte[32];
+            b.get(hash);
+            if (size != inputBytes || !Arrays.equals(hash, inputHash)) return null;
+            if (n < 0 || comps < 0 || comps > n || dagArcs < 0 || dagArcs > Integer.MAX_VALUE - 8
+                    || fileBytes != fileBytes(n, comps, dagArcs)) {
+                return null;
+            }
+
+            b.clear().flip();
+            int[] compId = readInts(ch, b, n);
+            int[] compStart = readInts(ch, b, comps + 1);
+            int[] compVertices = readInts(ch, b, n);
+            int[] order = readInts(ch, b, comps);
+            int[] offsets = readInts(ch, b, comps + 1);
+            int[] targets = readInts(ch, b, (int) dagArcs);
+            if (((2L * n + 3L * comps + 2 + dagArcs) & 1) == 1) readInts(ch, b, 1); // padding
+            double[] nodeWeight = readDoubles(ch, b, comps);
+            double[] weights = readDoubles(ch, b, (int) dagArcs);
+            if (!consistent(n, source, compId, compStart, compVertices, order, offsets, targets)) return null;
+            CsrGraph dag = new CsrGraph(comps, (flags & FLAG_DIRECTED) != 0, offsets, targets, weights);
+            return new SccSidecar(inputBytes, hash, n, arcs, source, new TarjanSCC.Result(compId, compStart, compVertices),
+                    new CondensationBuilder.CondensationResult(dag, nodeWeight), order);
+        }
+    }
+
+    // Checks every index the payload hands to Main, so that a damaged sidecar whose header and
+    // hash still match is treated as a miss instead of failing deep inside a later stage:
+    // compStart and offsets run monotonically from 0 to their totals, every component lists
+    // exactly the vertices whose compId names it, order is a permutation of the components and
+    // every arc of the condensation stays inside it
+    private static boolean consistent(int n, int source, int[] compId, int[] compStart, int[] compVertices,
+                                      int[] order, int[] offsets, int[] targets) {
+        int comps = order.length;
+        if (n > 0 && (source < 0 || source >= n)) return false;
+        if (compStart[0] != 0 || compStart[comps] != n || offsets[0] != 0 || offsets[comps] != targets.length) {
+            return false;
+        }
+        for (int v = 0; v < n; v++) {
+            if (compId[v] < 0 || compId[v] >= comps) return false;
+        }
+        for (int c = 0; c < comps; c++) {
+            if (compStart[c] > compStart[c + 1] || offsets[c] > offsets[c + 1]) return false;
+            for (int i = compStart[c]; i < compStart[c + 1]; i++) {
+                int v = compVertices[i];
+                if (v < 0 || v >= n || compId[v] != c) return false;
+            }
+        }
+        boolean[] seen = new boolean[comps];
+        for (int c : order) {
+            if (c < 0 || c >= comps || seen[c]) return false;
+            seen[c] = true;
+        }
+        for (int t : targets) {
+            if (t < 0 || t >= comps) return false;
+        }
+        return true;
+    }
+
+    private static long fileBytes(int n, int comps, long dagArcs) {
+        long ints = 2L * n + 3L * comps + 2 + dagArcs;
+        return HEADER_BYTES + 4 * ((ints + 1) & ~1L) + 8L * comps + 8 * dagArcs;
+    }
+
+    // Writes to a temporary file first and moves it into place, so a reader running at the same
+    // time, or after a crash, never sees a half-written sidecar
+    public void write(Path sidecar) throws IOException {
+        // a fresh name per writer: two processes saving the same sidecar never share a temporary file
+        Path tmp = Files.createTempFile(sidecar.toAbsolutePath().getParent(), sidecar.getFileName() + ".", ".tmp");
+        CsrGraph dag = condensation.dag;
+        int comps = scc.count();
+        try {
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer b = ByteBuffer.allocateDirect(IO_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+                b.putInt(MAGIC).putInt(VERSION).putInt(vertices).putInt(comps).putLong(arcs).putLong(dag.edgeCount())
+                        .putLong(inputBytes).putInt(source).putInt(dag.isDirected() ? FLAG_DIRECTED : 0).put(inputHash);
+                writeInts(ch, b, scc.compId);
+                writeInts(ch, b, scc.compStart);
+                writeInts(ch, b, scc.compVertices);
+                writeInts(ch, b, order);
+                writeInts(ch, b, dag.offsets);
+                writeInts(ch, b, dag.targets);
+                if (((2L * vertices + 3L * comps + 2 + dag.edgeCount()) & 1) == 1) writeInts(ch, b, new int[1]);
+                writeDoubles(ch, b, condensation.nodeWeight);
+                writeDoubles(ch, b, dag.weights);
+                drain(ch, b);
+            }
+            Files.move(tmp, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            // also when the move fails, e.g. on a filesystem without atomic rename
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+    }
+
+    private static void writeInts(FileChannel ch, ByteBuffer b, int[] values) throws IOException {
+        for (int i = 0; i < values.length; ) {
+            if (b.remaining() < 4) drain(ch, b);
+            int k = Math.min(values.length - i, b.remaining() / 4);
+            b.asIntBuffer().put(values, i, k);
+            b.position(b.position() + 4 * k);
+            i += k;
+        }
+    }
+
+    private static void writeDoubles(FileChannel ch, ByteBuffer b, double[] values) throws IOException {
+        for (int i = 0; i < values.length; ) {
+            if (b.remaining() < 8) drain(ch, b);
+            int k = Math.min(values.length - i, b.remaining() / 8);
+            b.asDoubleBuffer().put(values, i, k);
+            b.position(b.position() + 8 * k);
+            i += k;
+        }
+    }
+
+    private static void drain(FileChannel ch, ByteBuffer b) throws IOException {
+        b.flip();
+        while (b.hasRemaining()) {
+            ch.write(b);
+        }
+        b.clear();
+    }
+
+    // The read buffer is kept in flipped state: the bytes between position and limit are unread
+    private static int[] readInts(FileChannel ch, ByteBuffer b, int count) throws IOException {
+        int[] out = new int[count];
+        for (int i = 0; i < count; ) {
+            if (b.remaining() < 4) refill(ch, b, 4);
+            int k = Math.min(count - i, b.remaining() / 4);
+            b.asIntBuffer().get(out, i, k);
+            b.position(b.position() + 4 * k);
+            i += k;
+        }
+        return out;
+    }
+
+    private static double[] readDoubles(FileChannel ch, ByteBuffer b, int count) throws IOException {
+        double[] out = new double[count];
+        for (int i = 0; i < count; ) {
+            if (b.remaining() < 8) refill(ch, b, 8);
+            int k = Math.min(count - i, b.remaining() / 8);
+            b.asDoubleBuffer().get(out, i, k);
+            b.position(b.position() + 8 * k);
+            i += k;
+        }
+        return out;
+    }
+
+    private static void refill(FileChannel ch, ByteBuffer b, int need) throws IOException {
+        b.compact();
+        while (b.position() < need) {
+            if (ch.read(b) < 0) throw new IOException("unexpected end of sidecar");
+        }
+        b.flip();
+    }
+
+    private static void fill(FileChannel ch, ByteBuffer b) throws IOException {
+        while (b.hasRemaining()) {
+            if (ch.read(b) < 0) throw new IOException("unexpected end of sidecar");
+        }
+    }
+}
@@ -1,93 +1,164 @@
 package graph.scc;
 
+import graph.common.CsrGraph;
 import graph.common.Graph;
 import graph.common.Metrics;
 import java.util.*;
 
- // Simple implementation of Tarjan's algorithm.
+ // Iterative implementation of Tarjan's algorithm.
  // It finds strongly connected components in a directed graph.
+ // The DFS uses explicit int stacks, so path length is limited by heap, not by the thread stack.
 
 public class TarjanSCC {
 
-    // To return all found components and their ids
+    // To return all found components and their ids.
+    // Components are stored flat: the vertices of component c are
+    // compVertices[compStart[c]] .. compVertices[compStart[c + 1] - 1]
     public static class Result {
-        public List<List<Integer>> components;
-        public int[] compId;
+        public final List<List<Integer>> components; // read-only view over the flat arrays
+        public final int[] compId;
+        public final int[] compStart;
+        public final int[] compVertices;
+
+        public Result(int[] compId, int[] compStart, int[] compVertices) {
+            this.compId = compId;
+            this.compStart = compStart;
+            this.compVertices = compVertices;
+            this.components = new ComponentsView();
+        }
 
-        public Result(List<List<Integer>> comps, int[] ids) {
-            this.components = comps;
-            this.compId = ids;
+        // Number of strongly connected components
+        public int count() {
+            return compStart.length - 1;
         }
-    }
 
-    private Graph g;
-    private int n;
-    private int time = 0;
+        // Number of vertices in component c
+        public int size(int c) {
+            return compStart[c + 1] - compStart[c];
+        }
+
+        // Copy of the vertices of component c
+        public int[] component(int c) {
+            return Arrays.copyOfRange(compVertices, compStart[c], compStart[c + 1]);
+        }
 
-    // discovery and low-link arrays
-    private int[] disc;
-    private int[] low;
-    private boolean[] onStack;
-    private Deque<Integer> stack = new ArrayDeque<>();
+        // Boxed list-of-lists view, kept for callers of the old List<List<Integer>> API
+        private class ComponentsView extends AbstractList<List<Integer>> {
+            @Override
+            public List<Integer> get(int c) {
+                Objects.checkIndex(c, count());
+                int from = compStart[c];
+                int len = compStart[c + 1] - from;
+                return new AbstractList<>() {
+                    @Override
+                    public Integer get(int i) {
+                        return compVertices[from + Objects.checkIndex(i, len)];
+                    }
+
+                    @Override
+                    public int size() {
+                        return len;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return count();
+            }
+        }
+    }
 
-    private List<List<Integer>> comps = new ArrayList<>();
-    private int[] compId;
+    private final CsrGraph g;
+    private final int n;
 
     public TarjanSCC(Graph g) {
+        this(CsrGraph.from(g));
+    }
+
+    public TarjanSCC(CsrGraph g) {
         this.g = g;
         this.n = g.size();
-        this.disc = new int[n];
-        this.low = new int[n];
-        this.onStack = new boolean[n];
-        this.compId = new int[n];
-        Arrays.fill(disc, -1); // -1 means not visited
     }
 
     // Just runs Tarjan with metrics tracking
     public Result run(Metrics m) {
         m.start();
-        for (int v = 0; v < n; v++) {
-            if (disc[v] == -1) {
-                dfs(v, m);
+        int[] offsets = g.offsets;
+        int[] targets = g.targets;
+
+        // discovery and low-link arrays, -1 means not visited
+        int[] disc = new int[n];
+        int[] low = new int[n];
+        Arrays.fill(disc, -1);
+
+        // compId == -1 on a visited vertex means it is still on the SCC stack
+        int[] compId = new int[n];
+        Arrays.fill(compId, -1);
+        int[] stack = new int[n];
+        int sp = 0;
+
+        // explicit DFS call stack: vertex and the next edge to scan
+        int[] callVertex = new int[n];
+        int[] callEdge = new int[n];
+
+        int[] compVertices = new int[n];
+        int[] compStart = new int[n + 1];
+        int comps = 0;
+        int emitted = 0;
+        int time = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (disc[root] != -1) continue;
+
+            int depth = 0;
+            callVertex[0] = root;
+            callEdge[0] = offsets[root];
+            disc[root] = low[root] = time++;
+            stack[sp++] = root;
+            if (Metrics.COUNTERS) m.dfsVisits++;
+
+            while (depth >= 0) {
+                int u = callVertex[depth];
+                int i = callEdge[depth];
+                if (i < offsets[u + 1]) {
+                    callEdge[depth] = i + 1;
+                    if (Metrics.COUNTERS) m.edgesSeen++;
+                    int v = targets[i];
+                    if (disc[v] == -1) { // if not visited yet, descend
+                        depth++;
+                        callVertex[depth] = v;
+                        callEdge[depth] = offsets[v];
+                        disc[v] = low[v] = time++;
+                        stack[sp++] = v;
+                        if (Metrics.COUNTERS) m.dfsVisits++;
+                    } else if (compId[v] == -1) { // back edge to something in current SCC
+                        low[u] = Math.min(low[u], disc[v]);
+                    }
+                    continue;
+                }
+
+                // all edges of u are done: if u is the start of an SCC, pop it
+                if (low[u] == disc[u]) {
+                    compStart[comps] = emitted;
+                    int x;
+                    do {
+                        x = stack[--sp];
+                        compId[x] = comps;
+                        compVertices[emitted++] = x;
+                    } while (x != u);
+                    comps++;
+                }
+                depth--;
+                if (depth >= 0) {
+                    int p = callVertex[depth];
+                    low[p] = Math.min(low[p], low[u]);
+                }
             }
         }
+        compStart[comps] = emitted;
         m.stop();
-        return new Result(comps, compId);
-    }
-
-    private void dfs(int u, Metrics m) {
-        disc[u] = low[u] = ++time;
-        stack.push(u);
-        onStack[u] = true;
-        m.dfsVisits++;
-
-        for (Graph.Edge e : g.adj.get(u)) {
-            m.edgesSeen++;
-            int v = e.to;
-
-            if (disc[v] == -1) { // if not visited yet
-                dfs(v, m);
-                low[u] = Math.min(low[u], low[v]);
-            } else if (onStack[v]) { // back edge to something in current SCC
-                low[u] = Math.min(low[u], disc[v]);
-            }
-        }
-
-        // if u is the start of an SCC
-        if (low[u] == disc[u]) {
-            List<Integer> comp = new ArrayList<>();
-            int x;
-            do {
-                x = stack.pop();
-                onStack[x] = false;
-                compId[x] = comps.size();
-                comp.add(x);
-            } while (x != u);
-            comps.add(comp);
-
-            // Small debug print — left for clarity
-            System.out.println("SCC found: " + comp);
-        }
+        return new Result(compId, Arrays.copyOf(compStart, comps + 1), compVertices);
     }
 
     // Quick helper if we want to run without metrics
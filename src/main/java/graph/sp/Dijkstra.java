@@ -0,0 +1,204 @@
+package graph.sp;
+
+import graph.common.CsrGraph;
+import graph.common.Graph;
+import graph.common.IndexedDaryHeap;
+import graph.common.Metrics;
+import graph.common.WorkspacePool;
+import graph.dagsp.DagShortestPath;
+
+import java.util.Arrays;
+
+ // Dijkstra's algorithm on the original graph, cycles included, for finite non-negative arc weights.
+ // Unlike DagShortestPath on the condensation, it answers vertex-to-vertex distances inside SCCs.
+ // The frontier is an IndexedDaryHeap, so every vertex is in the heap at most once and
+ // decrease-key replaces the duplicate entries a boxed PriorityQueue would need.
+ // Distances live in a workspace borrowed from a bounded pool; its entries are valid only when their
+ // stamp equals the current query generation, so a point-to-point query that stops at its target
+ // costs O(touched log touched), not O(V). One instance can be shared by any number of threads.
+
+public class Dijkstra {
+    private final CsrGraph g;
+    private final WorkspacePool<Workspace> workspaces;
+
+    public Dijkstra(Graph g) {
+        this(CsrGraph.from(g));
+    }
+
+    public Dijkstra(CsrGraph g) {
+        this(g, IndexedDaryHeap.DEFAULT_ARITY);
+    }
+
+    public Dijkstra(CsrGraph g, int arity) {
+        for (int i = 0; i < g.edgeCount(); i++) {
+            // NaN fails both tests; +Infinity would give "reachable" routes of infinite length
+            if (!(g.weights[i] >= 0 && g.weights[i] < Double.POSITIVE_INFINITY)) {
+                throw new IllegalArgumentException("Dijkstra needs finite non-negative weights, arc #" + i + " has " + g.weights[i]);
+            }
+        }
+        this.g = g;
+        int n = g.size();
+        this.workspaces = new WorkspacePool<>(() -> new Workspace(n, arity));
+    }
+
+    // One point-to-point answer: the distance and the vertices of a shortest path
+    public static class Route {
+        public final int source;
+        public final int target;
+        public final double distance; // +Infinity if the target is unreachable
+        public final int[] path; // source .. target, empty if unreachable
+        public final int settled; // vertices settled before the search stopped
+
+        Route(int source, int target, double distance, int[] path, int settled) {
+            this.source = source;
+            this.target = target;
+            this.distance = distance;
+            this.path = path;
+            this.settled = settled;
+        }
+
+        public boolean reachable() {
+            return path.length > 0;
+        }
+    }
+
+    // Wrapper without metrics
+    public DagShortestPath.Result shortestPaths(int src) {
+        return shortestPaths(src, new Metrics());
+    }
+
+    // Shortest distances and parents from src to every vertex, in the same form as
+    // DagShortestPath; unreachable vertices keep +Infinity and parent -1
+    public DagShortestPath.Result shortestPaths(int src, Metrics m) {
+        m.start();
+        int n = g.size();
+        double[] dist = new double[n];
+        int[] parent = new int[n];
+        Workspace w = workspaces.borrow();
+        try {
+            search(w, src, -1, m);
+            for (int v = 0; v < n; v++) {
+                boolean seen = w.stamp[v] == w.generation;
+                dist[v] = seen ? w.dist[v] : Double.POSITIVE_INFINITY;
+                parent[v] = seen ? w.parent[v] : -1;
+            }
+        } finally {
+            workspaces.giveBack(w);
+        }
+        m.stop();
+        return new DagShortestPath.Result(dist, parent);
+    }
+
+    // Wrapper without metrics
+    public Route shortestPath(int src, int target) {
+        return shortestPath(src, target, new Metrics());
+    }
+
+    // Shortest path src -> target; the search stops as soon as the target is settled
+    public Route shortestPath(int src, int target, Metrics m) {
+        if (target < 0 || target >= g.size()) {
+            throw new IndexOutOfBoundsException("target " + target + " outside [0, " + g.size() + ")");
+        }
+        m.start();
+        Route r;
+        Workspace w = workspaces.borrow();
+        try {
+            int settled = search(w, src, target, m);
+            if (w.stamp[target] != w.generation) {
+                r = new Route(src, target, Double.POSITIVE_INFINITY, new int[0], settled);
+            } else {
+                int len = 0;
+                for (int v = target; v != -1; v = w.parent[v]) {
+                    len++;
+                }
+                int[] path = new int[len];
+                for (int v = target; v != -1; v = w.parent[v]) {
+                    path[--len] = v;
+                }
+                r = new Route(src, target, w.dist[target], path, settled);
+            }
+            w.heap.clear();
+        } finally {
+            workspaces.giveBack(w);
+        }
+        m.stop();
+        return r;
+    }
+
+    // Workspaces allocated so far; stays near the peak number of concurrent queries
+    public int workspacesCreated() {
+        return workspaces.created();
+    }
+
+    // Settles vertices from src in distance order until the heap runs dry or target (if >= 0)
+    // is settled; returns the number of settled vertices
+    private int search(Workspace w, int src, int target, Metrics m) {
+        if (src < 0 || src >= g.size()) {
+            throw new IndexOutOfBoundsException("source " + src + " outside [0, " + g.size() + ")");
+        }
+        int[] offsets = g.offsets;
+        int[] targets = g.targets;
+        double[] weights = g.weights;
+        double[] dist = w.dist;
+        int[] parent = w.parent;
+        int[] stamp = w.stamp;
+        IndexedDaryHeap heap = w.heap;
+        heap.clear();
+        w.nextGeneration();
+        int gen = w.generation;
+
+        stamp[src] = gen;
+        dist[src] = 0.0;
+        parent[src] = -1;
+        heap.push(src, 0.0);
+        if (Metrics.COUNTERS) m.queuePushes++;
+        int settled = 0;
+        while (!heap.isEmpty()) {
+            int u = heap.pollMin();
+            if (Metrics.COUNTERS) m.queuePops++;
+            settled++;
+            if (u == target) break;
+            double du = dist[u];
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int v = targets[i];
+                double nd = du + weights[i];
+                if (Metrics.COUNTERS) m.edgesSeen++;
+                if (stamp[v] != gen) {
+                    stamp[v] = gen;
+                } else if (nd >= dist[v]) {
+                    continue; // not shorter, or v is already settled
+                }
+                dist[v] = nd;
+                parent[v] = u;
+                heap.push(v, nd);
+                if (Metrics.COUNTERS) m.relaxations++;
+                if (Metrics.COUNTERS) m.queuePushes++;
+            }
+        }
+        return settled;
+    }
+
+    // Distances, parents, stamps and heap, reused by the queries that borrow them in turn
+    private static final class Workspace {
+        final double[] dist;
+        final int[] parent;
+        final int[] stamp;
+        final IndexedDaryHeap heap;
+        int generation = 0;
+
+        Workspace(int n, int arity) {
+            dist = new double[n];
+            parent = new int[n];
+            stamp = new int[n];
+            heap = new IndexedDaryHeap(n, arity);
+        }
+
+        void nextGeneration() {
+            if (++generation == 0) {
+                // wrapped around after 2^32 queries: old stamps could look current again
+                Arrays.fill(stamp, 0);
+                generation = 1;
+            }
+        }
+    }
+}
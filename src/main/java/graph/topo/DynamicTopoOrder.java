@@ -0,0 +1,191 @@
+package graph.topo;
+
+import graph.common.CsrGraph;
+import graph.common.Graph;
+import graph.common.Metrics;
+
+import java.util.Arrays;
+
+ // Topological order maintained under edge insertions (Pearce-Kelly).
+ // An edge u -> v that already agrees with the order is just stored. Otherwise only the
+ // affected region between position(v) and position(u) is searched: vertices reachable from v
+ // and vertices reaching u inside that window swap their positions among themselves.
+ // The cost of an update depends on the size of that region, not on V + E.
+
+public class DynamicTopoOrder {
+    private final int n;
+    private final int[] ord; // ord[v] = position of v
+    private final int[] vertexAt; // vertexAt[p] = vertex at position p
+    private final int[][] out; // growable adjacency in both directions
+    private final int[] outDeg;
+    private final int[][] in;
+    private final int[] inDeg;
+
+    // search state, reused between updates
+    private final int[] mark; // mark[v] == stamp: visited in the current update
+    private int stamp = 0;
+    private int[] stack = new int[16];
+    private int[] forward = new int[16];
+    private int[] backward = new int[16];
+
+    public DynamicTopoOrder(Graph g) {
+        this(CsrGraph.from(g));
+    }
+
+    // Seeds the order from TopoKahn; throws IllegalStateException if g has a cycle
+    public DynamicTopoOrder(CsrGraph g) {
+        this.n = g.size();
+        this.ord = new int[n];
+        this.vertexAt = new TopoKahn(g).order();
+        for (int p = 0; p < n; p++) {
+            ord[vertexAt[p]] = p;
+        }
+        this.out = new int[n][];
+        this.outDeg = new int[n];
+        this.in = new int[n][];
+        this.inDeg = new int[n];
+        for (int u = 0; u < n; u++) {
+            out[u] = Arrays.copyOfRange(g.targets, g.offsets[u], g.offsets[u + 1]);
+            outDeg[u] = out[u].length;
+        }
+        int[] indeg = new int[n];
+        for (int v : g.targets) {
+            indeg[v]++;
+        }
+        for (int v = 0; v < n; v++) {
+            in[v] = new int[indeg[v]];
+        }
+        for (int u = 0; u < n; u++) {
+            for (int i = 0; i < outDeg[u]; i++) {
+                int v = out[u][i];
+                in[v][inDeg[v]++] = u;
+            }
+        }
+        this.mark = new int[n];
+    }
+
+    // Returns the number of vertices
+    public int size() {
+        return n;
+    }
+
+    // Position of v in the current order
+    public int position(int v) {
+        return ord[v];
+    }
+
+    // Copy of the current topological order
+    public int[] order() {
+        return vertexAt.clone();
+    }
+
+    // Wrapper without metrics
+    public boolean addEdge(int u, int v) {
+        return addEdge(u, v, new Metrics());
+    }
+
+    // Inserts u -> v and repairs the order.
+    // Returns false, leaving the graph unchanged, if the edge would close a cycle.
+    public boolean addEdge(int u, int v, Metrics m) {
+        if (u < 0 || u >= n || v < 0 || v >= n) {
+            throw new IndexOutOfBoundsException("edge " + u + "->" + v + " outside [0, " + n + ")");
+        }
+        if (u == v) return false;
+
+        int lb = ord[v];
+        int ub = ord[u];
+        if (lb < ub) {
+            nextStamp();
+            // forward: everything reachable from v up to position ub; hitting u means a cycle
+            int nf = search(v, ub, true, m);
+            if (nf < 0) return false;
+            // backward: everything reaching u down to position lb
+            int nb = search(u, lb, false, m);
+            reorder(nf, nb);
+        }
+        link(u, v);
+        return true;
+    }
+
+    private void nextStamp() {
+        if (++stamp == 0) { // wrapped around: clear old marks
+            Arrays.fill(mark, 0);
+            stamp = 1;
+        }
+    }
+
+    // Iterative DFS from start inside the window, collecting visited vertices into
+    // forward (or backward). Returns their count, or -1 if the forward search reaches
+    // the vertex at position bound (the tail of the new edge).
+    private int search(int start, int bound, boolean isForward, Metrics m) {
+        int[] found = isForward ? forward : backward;
+        int count = 0;
+        int sp = 0;
+        stack[sp++] = start;
+        mark[start] = stamp;
+        while (sp > 0) {
+            int x = stack[--sp];
+            if (Metrics.COUNTERS) m.dfsVisits++;
+            if (count == found.length) found = Arrays.copyOf(found, count * 2);
+            found[count++] = x;
+            int[] adj = isForward ? out[x] : in[x];
+            int deg = isForward ? outDeg[x] : inDeg[x];
+            for (int i = 0; i < deg; i++) {
+                int y = adj[i];
+                if (Metrics.COUNTERS) m.edgesSeen++;
+                if (isForward) {
+                    if (ord[y] == bound) return -1;
+                    if (ord[y] > bound || mark[y] == stamp) continue;
+                } else {
+                    if (ord[y] < bound || mark[y] == stamp) continue;
+                }
+                mark[y] = stamp;
+                if (sp == stack.length) stack = Arrays.copyOf(stack, sp * 2);
+                stack[sp++] = y;
+            }
+        }
+        if (isForward) forward = found;
+        else backward = found;
+        return count;
+    }
+
+    // Gives the backward set the lowest of the freed positions and the forward set the rest,
+    // keeping the relative order inside each set
+    private void reorder(int nf, int nb) {
+        sortByPosition(backward, nb);
+        sortByPosition(forward, nf);
+        int total = nb + nf;
+        int[] slots = new int[total];
+        for (int i = 0; i < nb; i++) {
+            slots[i] = ord[backward[i]];
+        }
+        for (int i = 0; i < nf; i++) {
+            slots[nb + i] = ord[forward[i]];
+        }
+        Arrays.sort(slots);
+        for (int i = 0; i < total; i++) {
+            int x = i < nb ? backward[i] : forward[i - nb];
+            ord[x] = slots[i];
+            vertexAt[slots[i]] = x;
+        }
+    }
+
+    // Sorts the first len vertices of a by their current position
+    private void sortByPosition(int[] a, int len) {
+        long[] keys = new long[len];
+        for (int i = 0; i < len; i++) {
+            keys[i] = ((long) ord[a[i]] << 32) | a[i];
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < len; i++) {
+            a[i] = (int) keys[i];
+        }
+    }
+
+    private void link(int u, int v) {
+        if (outDeg[u] == out[u].length) out[u] = Arrays.copyOf(out[u], Math.max(4, outDeg[u] * 2));
+        out[u][outDeg[u]++] = v;
+        if (inDeg[v] == in[v].length) in[v] = Arrays.copyOf(in[v], Math.max(4, inDeg[v] * 2));
+        in[v][inDeg[v]++] = u;
+    }
+}
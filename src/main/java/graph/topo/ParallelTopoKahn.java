@@ -0,0 +1,153 @@
+package graph.topo;
+
+import graph.common.CsrGraph;
+import graph.common.Graph;
+import graph.common.Metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+ // Level-synchronous Kahn's algorithm on the ForkJoinPool.
+ // Level 0 holds the vertices without in-edges; level i + 1 holds the vertices whose last
+ // predecessor is in level i. All out-edges of one level are processed in parallel with atomic
+ // in-degree counters. Every frontier is then sorted by (position of its last predecessor,
+ // edge index), which is exactly the order the FIFO queue of TopoKahn produces, so
+ // levels.order equals TopoKahn.order() element for element.
+
+public class ParallelTopoKahn {
+    private static final int PARALLEL_LEVEL = 1024; // narrower levels run on the calling thread
+
+    private final CsrGraph g;
+    private final ForkJoinPool pool;
+
+    public ParallelTopoKahn(Graph g) {
+        this(CsrGraph.from(g));
+    }
+
+    public ParallelTopoKahn(CsrGraph g) {
+        this(g, ForkJoinPool.commonPool());
+    }
+
+    public ParallelTopoKahn(CsrGraph g, ForkJoinPool pool) {
+        this.g = g;
+        this.pool = pool;
+    }
+
+    // Topological order cut into levels:
+    // level i is order[levelStart[i]] .. order[levelStart[i + 1] - 1]
+    public static class Levels {
+        public final int[] order;
+        public final int[] levelStart;
+        public final int[] position; // position[v] = index of v in order
+
+        public Levels(int[] order, int[] levelStart, int[] position) {
+            this.order = order;
+            this.levelStart = levelStart;
+            this.position = position;
+        }
+
+        // Number of levels (length of the longest path in vertices)
+        public int count() {
+            return levelStart.length - 1;
+        }
+
+        // Copy of the vertices of level i
+        public int[] level(int i) {
+            return Arrays.copyOfRange(order, levelStart[i], levelStart[i + 1]);
+        }
+    }
+
+    // Wrapper without metrics
+    public Levels levels() {
+        return levels(new Metrics());
+    }
+
+    public Levels levels(Metrics m) {
+        m.start();
+        Levels res = pool.submit(() -> compute(m)).join();
+        m.stop();
+        return res;
+    }
+
+    private Levels compute(Metrics m) {
+        int n = g.size();
+        int[] offsets = g.offsets;
+        int[] targets = g.targets;
+
+        // Step 1: in-degrees, counted in parallel
+        AtomicIntegerArray indeg = new AtomicIntegerArray(n);
+        IntStream.range(0, n).parallel().forEach(u -> {
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                indeg.getAndIncrement(targets[i]);
+            }
+        });
+        if (Metrics.COUNTERS) m.edgesSeen += g.edgeCount();
+
+        // Step 2: level 0 in increasing vertex order, like the queue of TopoKahn
+        int[] order = IntStream.range(0, n).parallel().filter(v -> indeg.get(v) == 0).toArray();
+        int size = order.length;
+        order = Arrays.copyOf(order, n);
+        int[] position = new int[n];
+        for (int p = 0; p < size; p++) {
+            position[order[p]] = p;
+        }
+        if (Metrics.COUNTERS) m.queuePushes += size;
+
+        int[] levelStart = new int[16];
+        int levels = 0;
+        AtomicLongArray lastKey = new AtomicLongArray(n); // (position of last predecessor, edge index)
+        int[] next = new int[n];
+        AtomicInteger found = new AtomicInteger();
+        int from = 0;
+
+        // Step 3: expand one level at a time
+        while (from < size) {
+            if (levels + 1 >= levelStart.length) levelStart = Arrays.copyOf(levelStart, levelStart.length * 2);
+            levelStart[levels++] = from;
+            int to = size;
+            found.set(0);
+            int[] ord = order;
+            IntStream range = IntStream.range(from, to);
+            (to - from >= PARALLEL_LEVEL ? range.parallel() : range).forEach(p -> {
+                int u = ord[p];
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    int v = targets[i];
+                    long key = ((long) p << 32) | (i - offsets[u]);
+                    lastKey.accumulateAndGet(v, key, Math::max); // before the decrement, so it is visible at the barrier
+                    if (indeg.decrementAndGet(v) == 0) {
+                        next[found.getAndIncrement()] = v;
+                    }
+                }
+            });
+            if (Metrics.COUNTERS) m.queuePops += to - from;
+
+            // sort the new frontier into FIFO order and append it
+            int cnt = found.get();
+            long[] keys = new long[cnt];
+            for (int j = 0; j < cnt; j++) {
+                keys[j] = lastKey.get(next[j]);
+            }
+            if (cnt >= PARALLEL_LEVEL) Arrays.parallelSort(keys);
+            else Arrays.sort(keys);
+            for (long key : keys) {
+                int u = ord[(int) (key >>> 32)];
+                int v = targets[offsets[u] + (int) key];
+                position[v] = size;
+                order[size++] = v;
+            }
+            if (Metrics.COUNTERS) m.queuePushes += cnt;
+            from = to;
+        }
+        levelStart[levels] = size;
+
+        // Check for cycles - topological sort only valid for DAGs
+        if (size != n) {
+            throw new IllegalStateException("Graph is not a DAG, topo size = " + size + " < " + n);
+        }
+        return new Levels(order, Arrays.copyOf(levelStart, levels + 1), position);
+    }
+}
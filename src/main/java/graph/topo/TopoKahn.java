@@ -1,5 +1,6 @@
 package graph.topo;
 
+import graph.common.CsrGraph;
 import graph.common.Graph;
 import graph.common.Metrics;
 import java.util.*;
@@ -8,9 +9,13 @@ import java.util.*;
  // Runs in O(V + E) time.
 
 public class TopoKahn {
-    private final Graph g;
+    private final CsrGraph g;
 
     public TopoKahn(Graph g) {
+        this(CsrGraph.from(g));
+    }
+
+    public TopoKahn(CsrGraph g) {
         this.g = g;
     }
 
@@ -19,51 +24,89 @@ public class TopoKahn {
         return sort(new Metrics());
     }
 
-    // Main topological sorting method
+    // Topological order as a boxed list
     public List<Integer> sort(Metrics m) {
+        int[] order = order(m);
+        List<Integer> list = new ArrayList<>(order.length);
+        for (int u : order) {
+            list.add(u);
+        }
+        return list;
+    }
+
+    // Wrapper without metrics
+    public int[] order() {
+        return order(new Metrics());
+    }
+
+    // Main topological sorting method.
+    // Every vertex enters the queue exactly once, so the queue array itself becomes the order.
+    public int[] order(Metrics m) {
+        m.start(); // the in-degree pass is part of the algorithm's cost
         int n = g.size();
         int[] indeg = new int[n];
 
         // Step 1: compute in-degrees for all vertices
-        for (int u = 0; u < n; u++) {
-            for (Graph.Edge e : g.adj.get(u)) {
-                indeg[e.to]++;
-                m.edgesSeen++;
-            }
+        for (int i = 0; i < g.edgeCount(); i++) {
+            indeg[g.targets[i]]++;
+            if (Metrics.COUNTERS) m.edgesSeen++;
         }
 
         // Step 2: enqueue all vertices with indegree 0
-        Queue<Integer> q = new ArrayDeque<>();
+        int[] q = new int[n];
+        int head = 0;
+        int tail = 0;
         for (int i = 0; i < n; i++) {
             if (indeg[i] == 0) {
-                q.add(i);
-                m.queuePushes++;
+                q[tail++] = i;
+                if (Metrics.COUNTERS) m.queuePushes++;
             }
         }
 
         // Step 3: process queue (BFS-like traversal)
-        m.start();
-        List<Integer> order = new ArrayList<>();
-        while (!q.isEmpty()) {
-            int u = q.poll();
-            m.queuePops++;
-            order.add(u);
-
-            for (Graph.Edge e : g.adj.get(u)) {
-                indeg[e.to]--;
-                if (indeg[e.to] == 0) {
-                    q.add(e.to);
-                    m.queuePushes++;
+        while (head < tail) {
+            int u = q[head++];
+            if (Metrics.COUNTERS) m.queuePops++;
+
+            for (int i = g.offsets[u]; i < g.offsets[u + 1]; i++) {
+                int v = g.targets[i];
+                indeg[v]--;
+                if (indeg[v] == 0) {
+                    q[tail++] = v;
+                    if (Metrics.COUNTERS) m.queuePushes++;
                 }
             }
         }
         m.stop();
 
         // Check for cycles - topological sort only valid for DAGs
-        if (order.size() != n) {
-            throw new IllegalStateException("Graph is not a DAG, topo size = " + order.size() + " < " + n);
+        if (tail != n) {
+            throw new IllegalStateException("Graph is not a DAG, topo size = " + tail + " < " + n);
         }
 
-        return order;
+        return q;
+    }
+
+    // Expands an order of components into an order of the original vertices in O(V + C):
+    // components follow componentOrder, vertices inside one component are in increasing id order.
+    public static int[] expand(int[] componentOrder, int[] compId) {
+        int c = componentOrder.length;
+        int[] rank = new int[c];
+        for (int p = 0; p < c; p++) {
+            rank[componentOrder[p]] = p;
+        }
+        // counting sort of the vertices by the rank of their component
+        int[] start = new int[c + 1];
+        for (int id : compId) {
+            start[rank[id] + 1]++;
+        }
+        for (int p = 0; p < c; p++) {
+            start[p + 1] += start[p];
+        }
+        int[] out = new int[compId.length];
+        for (int v = 0; v < compId.length; v++) {
+            out[start[rank[compId[v]]]++] = v;
+        }
+        return out;
     }
 }
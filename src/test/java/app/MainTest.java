@@ -0,0 +1,42 @@
+package app;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+ // Tests for the dataset selection of the batch runner.
+
+public class MainTest {
+
+    @TempDir
+    Path dir;
+
+    private String[] listed() {
+        return Arrays.stream(Main.listDatasets(dir.toFile())).map(File::getName).sorted().toArray(String[]::new);
+    }
+
+    private void touch(String name, long millis) throws IOException {
+        Path p = dir.resolve(name);
+        if (!Files.exists(p)) Files.writeString(p, name);
+        Files.setLastModifiedTime(p, FileTime.fromMillis(millis));
+    }
+
+    @Test
+    public void testBinaryReplacesJsonOnlyWhenNewer() throws IOException {
+        touch("a.json", 1_000_000);
+        touch("a.bin", 2_000_000); // converted after the last edit
+        touch("b.json", 3_000_000);
+        touch("b.bin", 2_000_000); // b.json was edited after the conversion
+        touch("c.bin", 1_000_000); // no JSON source
+        touch("notes.txt", 1_000_000);
+        assertArrayEquals(new String[]{"a.bin", "b.json", "c.bin"}, listed());
+    }
+}
@@ -0,0 +1,181 @@
+package app;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import graph.common.CsrGraph;
+import graph.common.MetricsRegistry.Phase;
+import graph.io.GraphDataset;
+import graph.io.GraphGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+ // Tests for the resident path server against localhost.
+
+public class PathServerTest {
+    private PathServer server;
+    private PathServer.Prepared tiny;
+    private int port;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    // 0 <-> 1 form one component, then 1 -> 2 -> 3 and a shortcut 1 -> 3
+    @BeforeEach
+    public void start() throws Exception {
+        CsrGraph g = new CsrGraph.Builder(5, true)
+                .addEdge(0, 1, 2)
+                .addEdge(1, 0, 3)
+                .addEdge(1, 2, 1)
+                .addEdge(2, 3, 1)
+                .addEdge(1, 3, 5)
+                .build();
+        tiny = new PathServer.Prepared("tiny", new GraphDataset(g, 0, "edge"), 8);
+        server = new PathServer(List.of(tiny));
+        port = server.start(0);
+    }
+
+    @AfterEach
+    public void stop() {
+        server.stop();
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        HttpRequest req = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+        return client.send(req, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private JsonObject json(String path) throws Exception {
+        HttpResponse<String> res = get(path);
+        assertEquals(200, res.statusCode(), res.body());
+        return JsonParser.parseString(res.body()).getAsJsonObject();
+    }
+
+    @Test
+    public void testQueries() throws Exception {
+        JsonObject comp = json("/component?dataset=tiny&v=1");
+        assertEquals(2, comp.get("size").getAsInt());
+
+        JsonObject sp = json("/shortest?dataset=tiny&to=3");
+        assertEquals(2.0, sp.get("distance").getAsDouble());
+        assertEquals(3, sp.getAsJsonArray("path").size());
+
+        JsonObject unreachable = json("/shortest?dataset=tiny&to=4");
+        assertTrue(unreachable.get("distance").isJsonNull());
+        assertEquals(0, unreachable.getAsJsonArray("path").size());
+
+        // critical path: {0,1} (weight 5) -> 3 over the heavier direct edge
+        JsonObject lp = json("/critical?dataset=tiny&from=1");
+        assertEquals(10.0, lp.get("length").getAsDouble());
+
+        assertTrue(json("/reachable?dataset=tiny&from=0&to=3").get("reachable").getAsBoolean());
+        assertFalse(json("/reachable?dataset=tiny&from=3&to=0").get("reachable").getAsBoolean());
+    }
+
+    // Every shortest query is a computation; repeated critical queries are cache hits and stay
+    // out of the latency histogram
+    @Test
+    public void testQueryLatencyRecordsComputationsOnly() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(2.0, json("/shortest?dataset=tiny&to=3").get("distance").getAsDouble());
+            assertEquals(10.0, json("/critical?dataset=tiny&from=1").get("length").getAsDouble());
+        }
+        assertEquals(3, tiny.metrics.histogram(Phase.SP).count());
+        assertEquals(1, tiny.metrics.histogram(Phase.LP).count());
+        assertEquals(2, tiny.dag.cacheHits());
+    }
+
+    @Test
+    public void testErrors() throws Exception {
+        assertEquals(400, get("/shortest?dataset=tiny").statusCode());
+        assertEquals(400, get("/component?dataset=tiny&v=9").statusCode());
+        assertEquals(404, get("/component?dataset=none&v=0").statusCode());
+    }
+
+    // Many clients at once all see consistent answers
+    @Test
+    public void testConcurrentClients() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Double>> answers = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String q = "/shortest?dataset=tiny&from=" + (i % 2) + "&to=3";
+                answers.add(clients.submit(() -> json(q).get("distance").getAsDouble()));
+            }
+            for (Future<Double> a : answers) {
+                assertEquals(2.0, a.get());
+            }
+        } finally {
+            clients.shutdown();
+        }
+    }
+
+    // Reachability from many clients on a DAG big enough that queries get past the label filters;
+    // the DFS workspaces must be reused rather than allocated per request thread
+    @Test
+    public void testConcurrentReachability() throws Exception {
+        CsrGraph g = new GraphGenerator(GraphGenerator.Model.LAYERED, 3_000, 2, 5).toCsr();
+        PathServer.Prepared prepared = new PathServer.Prepared("layered", new GraphDataset(g, 0, "edge"), 8);
+        PathServer big = new PathServer(List.of(prepared));
+        int bigPort = big.start(0);
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        try {
+            Random rnd = new Random(2);
+            List<Future<Boolean>> answers = new ArrayList<>();
+            List<Boolean> expected = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                int from = rnd.nextInt(g.size() / 2);
+                int to = from + rnd.nextInt(g.size() - from);
+                expected.add(bfsReaches(g, from, to));
+                URI uri = URI.create("http://localhost:" + bigPort + "/reachable?dataset=layered&from=" + from + "&to=" + to);
+                answers.add(clients.submit(() -> {
+                    HttpResponse<String> res = client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString());
+                    assertEquals(200, res.statusCode(), res.body());
+                    return JsonParser.parseString(res.body()).getAsJsonObject().get("reachable").getAsBoolean();
+                }));
+            }
+            for (int i = 0; i < answers.size(); i++) {
+                assertEquals(expected.get(i), answers.get(i).get(), "query " + i);
+            }
+        } finally {
+            clients.shutdown();
+            big.stop();
+        }
+        int created = prepared.reach.workspacesCreated();
+        assertTrue(created > 0, "no query reached the DFS fallback");
+        assertTrue(created <= 8, created + " workspaces for 8 concurrent clients");
+    }
+
+    private static boolean bfsReaches(CsrGraph g, int a, int b) {
+        BitSet seen = new BitSet(g.size());
+        int[] queue = new int[g.size()];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = a;
+        seen.set(a);
+        while (head < tail) {
+            int u = queue[head++];
+            if (u == b) return true;
+            for (int i = g.offsets[u]; i < g.offsets[u + 1]; i++) {
+                int v = g.targets[i];
+                if (!seen.get(v)) {
+                    seen.set(v);
+                    queue[tail++] = v;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,106 @@
+package graph.common;
+
+import graph.dagsp.DagLongestPath;
+import graph.dagsp.DagShortestPath;
+import graph.scc.CondensationBuilder;
+import graph.scc.TarjanSCC;
+import graph.topo.TopoKahn;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+ // Unit tests for the CSR graph representation.
+ // Verifies the layout and that every algorithm accepts it directly.
+
+public class CsrGraphTest {
+
+    // Conversion from the adjacency list keeps the edge order of every vertex
+    @Test
+    public void testFromGraphKeepsAdjacencyOrder() {
+        Graph g = new Graph(3, true);
+        g.addEdge(0, 2, 4);
+        g.addEdge(0, 1, 1);
+        g.addEdge(2, 1, 7);
+
+        CsrGraph csr = CsrGraph.from(g);
+
+        assertEquals(3, csr.size());
+        assertEquals(3, csr.edgeCount());
+        assertArrayEquals(new int[]{0, 2, 2, 3}, csr.offsets);
+        assertArrayEquals(new int[]{2, 1, 1}, csr.targets);
+        assertArrayEquals(new double[]{4, 1, 7}, csr.weights);
+    }
+
+    // The builder accepts edges in any order and groups them by source
+    @Test
+    public void testBuilderGroupsBySource() {
+        CsrGraph.Builder b = new CsrGraph.Builder(3, true);
+        b.addEdge(2, 0, 1);
+        b.addEdge(0, 1, 2);
+        b.addEdge(2, 1, 3);
+        b.addEdge(0, 2, 4);
+
+        CsrGraph g = b.build();
+
+        assertArrayEquals(new int[]{0, 2, 2, 4}, g.offsets);
+        assertArrayEquals(new int[]{1, 2, 0, 1}, g.targets);
+        assertArrayEquals(new double[]{2, 4, 1, 3}, g.weights);
+        assertEquals(0, g.outDegree(1));
+    }
+
+    // Undirected edges are stored in both directions
+    @Test
+    public void testUndirectedBuilder() {
+        CsrGraph g = new CsrGraph.Builder(2, false).addEdge(0, 1, 5).build();
+
+        assertEquals(2, g.edgeCount());
+        assertEquals(1, g.targets[g.offsets[0]]);
+        assertEquals(0, g.targets[g.offsets[1]]);
+    }
+
+    // Transposing reverses every arc and keeps its weight
+    @Test
+    public void testTranspose() {
+        CsrGraph g = new CsrGraph.Builder(3, true)
+                .addEdge(0, 2, 1)
+                .addEdge(1, 2, 2)
+                .addEdge(2, 0, 3)
+                .build();
+
+        CsrGraph r = g.transpose();
+
+        assertArrayEquals(new int[]{0, 1, 1, 3}, r.offsets);
+        assertArrayEquals(new int[]{2, 0, 1}, r.targets);
+        assertArrayEquals(new double[]{3, 1, 2}, r.weights);
+    }
+
+    // The full pipeline runs on a CSR graph without any Graph instance
+    @Test
+    public void testPipelineOnCsr() {
+        CsrGraph g = new CsrGraph.Builder(4, true)
+                .addEdge(0, 1, 2)
+                .addEdge(1, 0, 3)
+                .addEdge(1, 2, 1)
+                .addEdge(2, 3, 4)
+                .build();
+
+        TarjanSCC.Result scc = new TarjanSCC(g).run();
+        assertEquals(3, scc.components.size());
+
+        CondensationBuilder.CondensationResult cr = CondensationBuilder.build(g, scc);
+        assertEquals(3, cr.dag.size());
+        assertEquals(2, cr.dag.edgeCount());
+        assertEquals(3, new TopoKahn(cr.dag).sort().size());
+
+        int src = scc.compId[0];
+        int dst = scc.compId[3];
+        assertEquals(5.0, new DagShortestPath(cr.dag).shortestPaths(src).dist.get(dst));
+        assertEquals(10.0, new DagLongestPath(cr.dag, cr.nodeWeight).longestPaths(src).dist.get(dst));
+    }
+
+    // Edges outside the vertex range are rejected
+    @Test
+    public void testBuilderRejectsBadVertex() {
+        CsrGraph.Builder b = new CsrGraph.Builder(2, true);
+        assertThrows(IndexOutOfBoundsException.class, () -> b.addEdge(0, 2, 1));
+    }
+}
@@ -0,0 +1,64 @@
+package graph.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+ // Unit tests for the indexed d-ary heap.
+ // Random pushes, decrease-keys and polls are checked against a brute-force minimum.
+
+public class IndexedDaryHeapTest {
+
+    @Test
+    public void testMatchesBruteForce() {
+        for (int arity : new int[]{2, 3, 4, 8}) {
+            int n = 500;
+            IndexedDaryHeap heap = new IndexedDaryHeap(n, arity);
+            double[] key = new double[n];
+            boolean[] in = new boolean[n];
+            Random rnd = new Random(arity);
+            for (int step = 0; step < 20_000; step++) {
+                if (rnd.nextInt(3) > 0) {
+                    int id = rnd.nextInt(n);
+                    double k = rnd.nextInt(1_000);
+                    boolean changed = heap.push(id, k);
+                    assertEquals(!in[id] || k < key[id], changed);
+                    if (changed) {
+                        key[id] = k;
+                        in[id] = true;
+                    }
+                } else if (!heap.isEmpty()) {
+                    double min = Double.POSITIVE_INFINITY;
+                    for (int id = 0; id < n; id++) {
+                        if (in[id]) min = Math.min(min, key[id]);
+                    }
+                    assertEquals(min, heap.minKey());
+                    int id = heap.pollMin();
+                    assertTrue(in[id]);
+                    assertEquals(min, key[id]);
+                    in[id] = false;
+                }
+                int size = 0;
+                for (boolean b : in) {
+                    if (b) size++;
+                }
+                assertEquals(size, heap.size());
+            }
+            heap.clear();
+            assertTrue(heap.isEmpty());
+            for (int id = 0; id < n; id++) {
+                assertFalse(heap.contains(id));
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyHeap() {
+        IndexedDaryHeap heap = new IndexedDaryHeap(4);
+        assertThrows(IllegalStateException.class, heap::pollMin);
+        assertThrows(IllegalArgumentException.class, () -> heap.key(0));
+        assertThrows(IllegalArgumentException.class, () -> new IndexedDaryHeap(4, 1));
+    }
+}
@@ -0,0 +1,55 @@
+package graph.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+ // Unit tests for the primitive long -> int hash map.
+ // Every answer must match java.util.HashMap while the table grows from its smallest size.
+
+public class LongIntHashMapTest {
+
+    // Starts at 4 slots, so the table doubles many times and probe chains collide and wrap
+    @Test
+    public void testGrowthAndCollisions() {
+        LongIntHashMap map = new LongIntHashMap(0);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random rnd = new Random(5);
+        for (int i = 0; i < 200_000; i++) {
+            // small hi and lo halves: many keys differ in one half only
+            long key = LongIntHashMap.key(rnd.nextInt(600), rnd.nextInt(600));
+            Integer old = expected.putIfAbsent(key, i);
+            assertEquals(old == null ? -1 : old, map.putIfAbsent(key, i));
+        }
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Long, Integer> e : expected.entrySet()) {
+            assertEquals(e.getValue(), map.get(e.getKey()));
+        }
+        assertEquals(-1, map.get(LongIntHashMap.key(600, 0)));
+        assertEquals(-1, map.get(LongIntHashMap.key(0, 600)));
+    }
+
+    // Keys 0 and Long.MAX_VALUE are ordinary keys; negative keys would clash with the empty marker
+    @Test
+    public void testKeyRange() {
+        LongIntHashMap map = new LongIntHashMap(2);
+        assertEquals(-1, map.putIfAbsent(0, 7));
+        assertEquals(-1, map.putIfAbsent(Long.MAX_VALUE, 8));
+        assertEquals(7, map.putIfAbsent(0, 9));
+        assertEquals(7, map.get(0));
+        assertEquals(8, map.get(Long.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> map.putIfAbsent(-5, 1));
+        assertEquals(LongIntHashMap.key(1, 2), (1L << 32) | 2);
+    }
+
+    // The load limit of the largest table must not overflow to a negative size
+    @Test
+    public void testThresholdAtMaximumCapacity() {
+        assertEquals(3, LongIntHashMap.threshold(4));
+        assertEquals(805_306_368, LongIntHashMap.threshold(LongIntHashMap.MAX_CAPACITY));
+    }
+}
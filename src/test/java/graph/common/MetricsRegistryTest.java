@@ -0,0 +1,103 @@
+package graph.common;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import graph.common.MetricsRegistry.Phase;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+ // Unit tests for the shared metrics registry and its latency histograms.
+
+public class MetricsRegistryTest {
+
+    // Percentiles stay within one bucket (12.5%) of the exact value
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int v = 1; v <= 1000; v++) {
+            h.record(v * 1000L);
+        }
+        assertEquals(1000, h.count());
+        assertEquals(1_000, h.minNanos());
+        assertEquals(1_000_000, h.maxNanos());
+        assertEquals(500_500.0, h.meanNanos());
+        long p50 = h.percentile(0.5);
+        long p99 = h.percentile(0.99);
+        assertTrue(p50 >= 500_000 && p50 <= 500_000 * 1.125, "p50 = " + p50);
+        assertTrue(p99 >= 990_000 && p99 <= 1_000_000, "p99 = " + p99);
+    }
+
+    // Many threads folding runs into one registry lose nothing
+    @Test
+    public void testConcurrentRecord() {
+        MetricsRegistry reg = new MetricsRegistry("shared");
+        IntStream.range(0, 10_000).parallel().forEach(i -> {
+            Metrics m = new Metrics();
+            m.start();
+            m.relaxations = 2;
+            m.stop();
+            reg.record(Phase.SP, m);
+        });
+        assertEquals(10_000, reg.histogram(Phase.SP).count());
+        assertEquals(20_000, reg.counter("sp.relaxations"));
+        assertEquals(0, reg.counter("sp.dfsVisits"));
+    }
+
+    @Test
+    public void testExport(@TempDir Path dir) throws Exception {
+        MetricsRegistry reg = new MetricsRegistry("small_1.json");
+        Metrics m = new Metrics();
+        m.start();
+        m.dfsVisits = 9;
+        m.stop();
+        reg.record(Phase.SCC, m);
+
+        Path json = dir.resolve("metrics.json");
+        MetricsRegistry.export(List.of(reg), json);
+        JsonArray arr = JsonParser.parseString(Files.readString(json)).getAsJsonArray();
+        JsonObject obj = arr.get(0).getAsJsonObject();
+        assertEquals("small_1.json", obj.get("registry").getAsString());
+        assertEquals(1, obj.getAsJsonObject("phases").getAsJsonObject("SCC").get("count").getAsLong());
+        assertEquals(9, obj.getAsJsonObject("counters").get("scc.dfsVisits").getAsLong());
+
+        Path csv = dir.resolve("metrics.csv");
+        MetricsRegistry.export(reg, csv);
+        List<String> lines = Files.readAllLines(csv);
+        assertEquals(MetricsRegistry.CSV_HEADER, lines.get(0));
+        assertTrue(lines.get(1).startsWith("small_1.json,SCC,1,"));
+    }
+
+    // Recorded phases show up as graph.Phase events in a flight recording
+    @Test
+    public void testJfrEvent(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("phases.jfr");
+        try (Recording rec = new Recording()) {
+            rec.enable(PhaseEvent.class);
+            rec.start();
+            Metrics m = new Metrics();
+            m.start();
+            m.edgesSeen = 5;
+            m.stop();
+            new MetricsRegistry("jfr").record(Phase.TOPO, m);
+            rec.stop();
+            rec.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        RecordedEvent e = events.stream()
+                .filter(ev -> ev.getEventType().getName().equals("graph.Phase"))
+                .findFirst().orElseThrow();
+        assertEquals("TOPO", e.getString("phase"));
+        assertEquals(5, e.getLong("edgesSeen"));
+    }
+}
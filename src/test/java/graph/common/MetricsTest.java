@@ -0,0 +1,98 @@
+package graph.common;
+
+import graph.dagsp.DagLongestPath;
+import graph.dagsp.DagShortestPath;
+import graph.dagsp.MultiSourceDagPaths;
+import graph.dagsp.ParallelDagPaths;
+import graph.io.GraphGenerator;
+import graph.scc.CondensationBuilder;
+import graph.scc.ParallelSCC;
+import graph.scc.TarjanSCC;
+import graph.topo.ParallelTopoKahn;
+import graph.topo.TopoKahn;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+ // Unit tests for the counter switch.
+ // Metrics.COUNTERS is fixed when the class loads, so the "off" case runs in a child JVM.
+
+public class MetricsTest {
+
+    // Sums of dfs, edges, push, pop and relax over the sequential and parallel algorithms
+    static long[] runAll() throws IOException {
+        CsrGraph g = new GraphGenerator(GraphGenerator.Model.GIANT, 20_000, 4, 1).toCsr();
+        CsrGraph layered = new GraphGenerator(GraphGenerator.Model.LAYERED, 20_000, 4, 2).toCsr();
+        long[] sum = new long[5];
+        Metrics m = new Metrics();
+        TarjanSCC.Result scc = new TarjanSCC(g).run(m);
+        add(sum, m);
+        add(sum, m = new Metrics());
+        new ParallelSCC(g).run(m);
+        add(sum, m);
+        CsrGraph dag = CondensationBuilder.build(g, scc).dag;
+        int[] order = new TopoKahn(layered).order(m = new Metrics());
+        add(sum, m);
+        new ParallelTopoKahn(layered).levels(m = new Metrics());
+        add(sum, m);
+        new DagShortestPath(layered, order).shortestPaths(0, m = new Metrics());
+        add(sum, m);
+        new DagLongestPath(layered, null, order).longestPaths(0, m = new Metrics());
+        add(sum, m);
+        new ParallelDagPaths(layered, null).shortestPaths(0, m = new Metrics());
+        add(sum, m);
+        MultiSourceDagPaths multi = new MultiSourceDagPaths(layered, order, null);
+        multi.shortestPaths(new int[]{0, 1, 2}, m = new Metrics());
+        add(sum, m);
+        multi.longestPaths(new int[]{0, 1, 2}, m = new Metrics());
+        add(sum, m);
+        new TopoKahn(dag).order(m = new Metrics());
+        add(sum, m);
+        return sum;
+    }
+
+    private static void add(long[] sum, Metrics m) {
+        sum[0] += m.dfsVisits;
+        sum[1] += m.edgesSeen;
+        sum[2] += m.queuePushes;
+        sum[3] += m.queuePops;
+        sum[4] += m.relaxations;
+    }
+
+    // Entry point of the child JVM
+    public static void main(String[] args) throws IOException {
+        System.out.println(Arrays.toString(runAll()));
+    }
+
+    @Test
+    public void testCountersCountWhenOn() throws IOException {
+        assumeTrue(Metrics.COUNTERS);
+        for (long c : runAll()) {
+            assertTrue(c > 0, "every counter is used by some algorithm");
+        }
+    }
+
+    @Test
+    public void testCountersStayZeroWhenOff() throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process p = new ProcessBuilder(java, "-Dgraph.metrics=off", "-cp", System.getProperty("java.class.path"),
+                MetricsTest.class.getName())
+                .redirectErrorStream(true)
+                .start();
+        String out;
+        try (InputStream in = p.getInputStream()) {
+            out = new String(in.readAllBytes(), StandardCharsets.UTF_8).trim();
+        }
+        assertTrue(p.waitFor(60, TimeUnit.SECONDS));
+        assertEquals(0, p.exitValue(), out);
+        assertEquals("[0, 0, 0, 0, 0]", out);
+    }
+}
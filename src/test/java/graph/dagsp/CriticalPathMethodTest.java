@@ -0,0 +1,77 @@
+package graph.dagsp;
+
+import graph.common.CsrGraph;
+import graph.io.GraphGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+ // Unit tests for the critical path method engine.
+ // Incremental updates must give the same schedule as a full recomputation.
+
+public class CriticalPathMethodTest {
+
+    // A -> B -> D and A -> C -> D, B is the long branch
+    @Test
+    public void testSchedule() {
+        CsrGraph g = new CsrGraph.Builder(4, true)
+                .addEdge(0, 1, 0)
+                .addEdge(0, 2, 0)
+                .addEdge(1, 3, 1)
+                .addEdge(2, 3, 0)
+                .build();
+        double[] d = {2, 5, 3, 1};
+
+        CriticalPathMethod cpm = new CriticalPathMethod(g, d);
+
+        assertEquals(9.0, cpm.projectLength());
+        assertEquals(2.0, cpm.earliestStart(1));
+        assertEquals(8.0, cpm.earliestStart(3));
+        assertEquals(5.0, cpm.latestStart(2));
+        assertEquals(3.0, cpm.slack(2));
+        assertArrayEquals(new int[]{0, 1, 3}, cpm.criticalComponents());
+
+        // C becomes the long branch
+        cpm.setDuration(2, 7);
+        assertEquals(10.0, cpm.projectLength());
+        assertArrayEquals(new int[]{0, 2, 3}, cpm.criticalComponents());
+        assertEquals(1.0, cpm.slack(1));
+
+        cpm.setDuration(2, 1);
+        assertEquals(9.0, cpm.projectLength());
+        assertEquals(7.0, cpm.latestFinish(1)); // lag 1 before D starts at 8
+    }
+
+    // Random duration changes on a large DAG match a fresh engine
+    @Test
+    public void testIncrementalMatchesRecompute() throws IOException {
+        CsrGraph g = new GraphGenerator(GraphGenerator.Model.LAYERED, 5_000, 3, 9).toCsr();
+        Random rnd = new Random(3);
+        double[] d = new double[g.size()];
+        for (int v = 0; v < d.length; v++) {
+            d[v] = rnd.nextInt(20);
+        }
+        CriticalPathMethod cpm = new CriticalPathMethod(g, d);
+        for (int k = 0; k < 200; k++) {
+            int c = rnd.nextInt(d.length);
+            d[c] = rnd.nextInt(40);
+            cpm.setDuration(c, d[c]);
+            // T must follow every update, decreases of the longest sink included
+            double t = 0.0;
+            for (int v = 0; v < d.length; v++) {
+                if (g.outDegree(v) == 0) t = Math.max(t, cpm.earliestFinish(v));
+            }
+            assertEquals(t, cpm.projectLength());
+        }
+        CriticalPathMethod fresh = new CriticalPathMethod(g, d);
+        assertEquals(fresh.projectLength(), cpm.projectLength());
+        for (int v = 0; v < d.length; v++) {
+            assertEquals(fresh.earliestStart(v), cpm.earliestStart(v));
+            assertEquals(fresh.latestStart(v), cpm.latestStart(v));
+        }
+        assertArrayEquals(fresh.criticalComponents(), cpm.criticalComponents());
+    }
+}
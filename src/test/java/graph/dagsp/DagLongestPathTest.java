@@ -49,4 +49,21 @@ public class DagLongestPathTest {
         // 0 -> 1 -> 2: 6 + 1 + 4 = 11
         assertEquals(11.0, res.dist.get(2));
     }
+
+    // Test the primitive arrays and int[] path behind the map views
+    @Test
+    public void testPrimitiveResult() {
+        Graph g = new Graph(4, true);
+        g.addEdge(0, 1, 4);
+        g.addEdge(0, 2, 1);
+        g.addEdge(2, 1, 1);
+
+        DagLongestPath.Result res = new DagLongestPath(g).longestPaths(0);
+
+        assertArrayEquals(new double[]{0, 4, 1, Double.NEGATIVE_INFINITY}, res.distances);
+        assertArrayEquals(new int[]{-1, 0, 0, -1}, res.parents);
+        assertArrayEquals(new int[]{0, 1}, res.path(1));
+        assertEquals(0, res.path(3).length);
+        assertNull(res.parent.get(3));
+    }
 }
@@ -43,4 +43,25 @@ public class DagShortestPathTest {
         assertEquals(Double.POSITIVE_INFINITY, res.dist.get(2));
         assertTrue(res.buildPath(2).isEmpty());
     }
+
+    // Test the primitive arrays and int[] path behind the map views
+    @Test
+    public void testPrimitiveResult() {
+        Graph g = new Graph(4, true);
+        g.addEdge(0, 1, 4);
+        g.addEdge(0, 2, 1);
+        g.addEdge(2, 1, 1);
+
+        DagShortestPath.Result res = new DagShortestPath(g).shortestPaths(0);
+
+        assertArrayEquals(new double[]{0, 2, 1, Double.POSITIVE_INFINITY}, res.distances);
+        assertArrayEquals(new int[]{-1, 2, 0, -1}, res.parents);
+        assertArrayEquals(new int[]{0, 2, 1}, res.path(1));
+        assertEquals(0, res.path(3).length);
+
+        // Map view: no parent is reported as null, as before
+        assertNull(res.parent.get(0));
+        assertEquals(2, res.parent.get(1));
+        assertEquals(4, res.dist.size());
+    }
 }
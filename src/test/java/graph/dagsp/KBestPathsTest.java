@@ -0,0 +1,128 @@
+package graph.dagsp;
+
+import graph.common.CsrGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+ // Unit tests for K-best path enumeration.
+ // Lengths must match a brute-force enumeration of every path.
+
+public class KBestPathsTest {
+
+    @Test
+    public void testSmallDag() {
+        CsrGraph g = new CsrGraph.Builder(4, true)
+                .addEdge(0, 1, 1)
+                .addEdge(0, 2, 2)
+                .addEdge(1, 3, 5)
+                .addEdge(2, 3, 1)
+                .addEdge(0, 3, 4)
+                .build();
+
+        List<KBestPaths.Path> sp = new KBestPaths(g, null).shortest(0, 3, 5);
+        assertEquals(3, sp.size());
+        assertArrayEquals(new int[]{0, 2, 3}, sp.get(0).vertices);
+        assertEquals(3.0, sp.get(0).length);
+        assertArrayEquals(new int[]{0, 3}, sp.get(1).vertices);
+        assertArrayEquals(new int[]{0, 1, 3}, sp.get(2).vertices);
+
+        double[] nw = {1, 10, 0, 0};
+        List<KBestPaths.Path> lp = new KBestPaths(g, nw).longest(0, 3, 2);
+        assertArrayEquals(new int[]{0, 1, 3}, lp.get(0).vertices);
+        assertEquals(17.0, lp.get(0).length);
+        assertEquals(5.0, lp.get(1).length);
+
+        assertTrue(new KBestPaths(g, null).shortest(3, 0, 5).isEmpty());
+    }
+
+    // Random DAGs against brute force, shortest and longest
+    @Test
+    public void testMatchesBruteForce() {
+        Random rnd = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            int n = 12;
+            CsrGraph.Builder b = new CsrGraph.Builder(n, true);
+            for (int u = 0; u < n; u++) {
+                for (int v = u + 1; v < n; v++) {
+                    if (rnd.nextInt(3) == 0) b.addEdge(u, v, rnd.nextInt(10));
+                }
+            }
+            CsrGraph g = b.build();
+            double[] nw = new double[n];
+            for (int v = 0; v < n; v++) {
+                nw[v] = rnd.nextInt(5);
+            }
+            List<Double> all = new ArrayList<>();
+            enumerate(g, nw, 0, n - 1, nw[0], all);
+            List<Double> asc = new ArrayList<>(all);
+            asc.sort(null);
+            List<Double> allPlain = new ArrayList<>();
+            enumerate(g, null, 0, n - 1, 0, allPlain);
+            allPlain.sort(null);
+
+            int k = 15;
+            List<KBestPaths.Path> sp = new KBestPaths(g, null).shortest(0, n - 1, k);
+            List<KBestPaths.Path> lp = new KBestPaths(g, nw).longest(0, n - 1, k);
+            assertEquals(Math.min(k, all.size()), sp.size());
+            assertEquals(Math.min(k, all.size()), lp.size());
+            for (int i = 0; i < sp.size(); i++) {
+                assertEquals(allPlain.get(i), sp.get(i).length, 1e-9);
+                assertEquals(asc.get(asc.size() - 1 - i), lp.get(i).length, 1e-9);
+            }
+            if (!sp.isEmpty()) {
+                assertEquals(new DagShortestPath(g).shortestPaths(0).distances[n - 1], sp.get(0).length);
+                assertEquals(new DagLongestPath(g, nw).longestPaths(0).distances[n - 1], lp.get(0).length);
+            }
+        }
+    }
+
+    // One instance answers many queries from reused workspaces; each must match a fresh instance,
+    // including high-degree vertices whose sidetracks need the merge sort and tied deltas
+    @Test
+    public void testReusedWorkspaceMatchesFreshInstance() {
+        Random rnd = new Random(7);
+        int n = 60;
+        CsrGraph.Builder b = new CsrGraph.Builder(n, true);
+        for (int u = 0; u < n; u++) {
+            for (int v = u + 1; v < n; v++) {
+                if (rnd.nextInt(4) == 0) b.addEdge(u, v, rnd.nextInt(3));
+            }
+        }
+        CsrGraph g = b.build();
+        double[] nw = new double[n];
+        for (int v = 0; v < n; v++) {
+            nw[v] = rnd.nextInt(3);
+        }
+        KBestPaths shared = new KBestPaths(g, nw);
+        for (int q = 0; q < 200; q++) {
+            int s = rnd.nextInt(n);
+            int t = rnd.nextInt(n);
+            int k = 1 + rnd.nextInt(30);
+            boolean longest = rnd.nextBoolean();
+            List<KBestPaths.Path> got = longest ? shared.longest(s, t, k) : shared.shortest(s, t, k);
+            KBestPaths fresh = new KBestPaths(g, nw);
+            List<KBestPaths.Path> want = longest ? fresh.longest(s, t, k) : fresh.shortest(s, t, k);
+            assertEquals(want.size(), got.size());
+            for (int i = 0; i < want.size(); i++) {
+                assertArrayEquals(want.get(i).vertices, got.get(i).vertices);
+                assertEquals(want.get(i).length, got.get(i).length);
+            }
+        }
+    }
+
+    private static void enumerate(CsrGraph g, double[] nw, int u, int target, double len, List<Double> out) {
+        if (u == target) {
+            out.add(len);
+            return;
+        }
+        for (int i = g.offsets[u]; i < g.offsets[u + 1]; i++) {
+            int v = g.targets[i];
+            enumerate(g, nw, v, target, len + g.weights[i] + (nw != null ? nw[v] : 0), out);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package graph.dagsp;
+
+import graph.common.CsrGraph;
+import graph.common.Metrics;
+import graph.io.GraphGenerator;
+import graph.topo.TopoKahn;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+ // Unit tests for source-restricted and point-to-point DAG paths.
+ // Distances and paths must equal the full DP; untouched vertices must cost nothing.
+
+public class LocalDagPathsTest {
+
+    // Every source of a random DAG, queried back to back on one workspace
+    @Test
+    public void testMatchesFullDp() throws IOException {
+        CsrGraph g = new GraphGenerator(GraphGenerator.Model.LAYERED, 2_000, 3, 5).toCsr();
+        int[] order = new TopoKahn(g).order();
+        Random rnd = new Random(5);
+        double[] nw = new double[g.size()];
+        for (int v = 0; v < nw.length; v++) {
+            nw[v] = rnd.nextInt(10);
+        }
+        DagShortestPath sp = new DagShortestPath(g, order);
+        DagLongestPath lp = new DagLongestPath(g, nw, order);
+        LocalDagPaths local = new LocalDagPaths(g, order, nw);
+
+        for (int k = 0; k < 50; k++) {
+            int src = rnd.nextInt(g.size());
+            int target = rnd.nextInt(g.size());
+            DagShortestPath.Result fs = sp.shortestPaths(src);
+            DagLongestPath.Result fl = lp.longestPaths(src);
+            LocalDagPaths.Result ls = local.shortestPaths(src);
+            LocalDagPaths.Result ll = local.longestPaths(src);
+            for (int v = 0; v < g.size(); v++) {
+                assertEquals(fs.distances[v], ls.distance(v));
+                assertEquals(fl.distances[v], ll.distance(v));
+            }
+            assertArrayEquals(fs.path(target), ls.path(target));
+            assertArrayEquals(fl.path(target), ll.path(target));
+
+            assertEquals(fs.distances[target], local.shortestPath(src, target).distance(target));
+            LocalDagPaths.Result bounded = local.longestPath(src, target);
+            assertEquals(fl.distances[target], bounded.distance(target));
+            assertArrayEquals(fl.path(target), bounded.path(target));
+        }
+    }
+
+    // A source near the end of the order touches only its few descendants,
+    // and a target right after the source bounds the search
+    @Test
+    public void testWorkIsLocal() {
+        int n = 100_000;
+        CsrGraph.Builder b = new CsrGraph.Builder(n, true);
+        for (int v = 0; v + 1 < n; v++) {
+            b.addEdge(v, v + 1, 1);
+            if (v + 2 < n) b.addEdge(v, v + 2, 3);
+        }
+        CsrGraph g = b.build();
+        LocalDagPaths local = new LocalDagPaths(g, null);
+
+        Metrics m = new Metrics();
+        LocalDagPaths.Result tail = local.shortestPaths(n - 10, m);
+        assertEquals(10, tail.size());
+        assertEquals(9.0, tail.distance(n - 1));
+        assertEquals(Double.POSITIVE_INFINITY, tail.distance(0));
+        assertTrue(m.edgesSeen < 20);
+
+        m = new Metrics();
+        LocalDagPaths.Result p2p = local.shortestPath(0, 5, m);
+        assertEquals(5.0, p2p.distance(5));
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5}, p2p.path(5));
+        assertEquals(6, m.queuePops);
+        assertFalse(p2p.reached(6));
+
+        assertEquals(0, local.shortestPath(5, 0).size()); // target before the source
+    }
+}
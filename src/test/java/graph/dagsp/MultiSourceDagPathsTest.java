@@ -0,0 +1,49 @@
+package graph.dagsp;
+
+import graph.common.CsrGraph;
+import graph.io.GraphGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+ // Unit tests for the batched multi-source DAG paths.
+ // Every column must equal the single-source result for that source.
+
+public class MultiSourceDagPathsTest {
+
+    @Test
+    public void testMatchesSingleSourceCalls() throws IOException {
+        CsrGraph dag = new GraphGenerator(GraphGenerator.Model.LAYERED, 3_000, 3, 5).toCsr();
+        double[] nw = new double[dag.size()];
+        for (int v = 0; v < nw.length; v++) {
+            nw[v] = v % 7;
+        }
+        int[] sources = {0, 17, 54, 54, 999, 2_999};
+
+        MultiSourceDagPaths batch = new MultiSourceDagPaths(dag, nw);
+        MultiSourceDagPaths.Result sp = batch.shortestPaths(sources);
+        MultiSourceDagPaths.Result lp = batch.longestPaths(sources);
+
+        for (int k = 0; k < sources.length; k++) {
+            assertArrayEquals(new DagShortestPath(dag).shortestPaths(sources[k]).distances, sp.distancesFrom(k));
+            assertArrayEquals(new DagLongestPath(dag, nw).longestPaths(sources[k]).distances, lp.distancesFrom(k));
+        }
+    }
+
+    @Test
+    public void testVertexMajorLayout() {
+        CsrGraph g = new CsrGraph.Builder(3, true)
+                .addEdge(0, 1, 2)
+                .addEdge(1, 2, 3)
+                .build();
+
+        MultiSourceDagPaths.Result r = new MultiSourceDagPaths(g, null).shortestPaths(new int[]{0, 1});
+
+        double inf = Double.POSITIVE_INFINITY;
+        assertArrayEquals(new double[]{0, inf, 2, 0, 5, 3}, r.dist);
+        assertEquals(5.0, r.distance(0, 2));
+        assertEquals(inf, r.distance(1, 0));
+    }
+}
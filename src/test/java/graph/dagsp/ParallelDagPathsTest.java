@@ -0,0 +1,64 @@
+package graph.dagsp;
+
+import graph.common.CsrGraph;
+import graph.io.GraphGenerator;
+import graph.scc.CondensationBuilder;
+import graph.scc.TarjanSCC;
+import graph.topo.ParallelTopoKahn;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+ // Unit tests for the wavefront DAG paths.
+ // Distances and parents must be identical to the sequential DPs.
+
+public class ParallelDagPathsTest {
+
+    @Test
+    public void testMatchesSequential() throws IOException {
+        CsrGraph g = new GraphGenerator(GraphGenerator.Model.RANDOM, 60_000, 2, 3).toCsr();
+        CondensationBuilder.CondensationResult cr = CondensationBuilder.build(g, new TarjanSCC(g).run());
+        CsrGraph dag = cr.dag;
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ParallelTopoKahn.Levels levels = new ParallelTopoKahn(dag, pool).levels();
+            ParallelDagPaths par = new ParallelDagPaths(dag, levels, cr.nodeWeight, pool);
+            DagShortestPath sp = new DagShortestPath(dag);
+            DagLongestPath lp = new DagLongestPath(dag, cr.nodeWeight);
+
+            for (int src : new int[]{0, levels.order[0], levels.order[dag.size() / 2], dag.size() - 1}) {
+                DagShortestPath.Result s1 = sp.shortestPaths(src);
+                DagShortestPath.Result s2 = par.shortestPaths(src);
+                assertArrayEquals(s1.distances, s2.distances);
+                assertArrayEquals(s1.parents, s2.parents);
+
+                DagLongestPath.Result l1 = lp.longestPaths(src);
+                DagLongestPath.Result l2 = par.longestPaths(src);
+                assertArrayEquals(l1.distances, l2.distances);
+                assertArrayEquals(l1.parents, l2.parents);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Equal-length alternatives keep the parent the sequential DP would keep
+    @Test
+    public void testTieKeepsFirstParent() {
+        CsrGraph g = new CsrGraph.Builder(4, true)
+                .addEdge(0, 2, 1)
+                .addEdge(0, 1, 1)
+                .addEdge(2, 3, 1)
+                .addEdge(1, 3, 1)
+                .build();
+
+        DagShortestPath.Result r = new ParallelDagPaths(g, null).shortestPaths(0);
+
+        assertEquals(2.0, r.dist.get(3));
+        assertArrayEquals(new int[]{0, 2, 3}, r.path(3));
+        assertArrayEquals(new DagShortestPath(g).shortestPaths(0).parents, r.parents);
+    }
+}
@@ -0,0 +1,64 @@
+package graph.dagsp;
+
+import graph.common.CsrGraph;
+import graph.common.Metrics;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+ // Unit tests for the prepared DAG handle.
+ // Verifies that results match the plain classes and that the LRU cache is used and bounded.
+
+public class PreparedDagTest {
+
+    private static CsrGraph diamond() {
+        return new CsrGraph.Builder(4, true)
+                .addEdge(0, 1, 1)
+                .addEdge(0, 2, 4)
+                .addEdge(1, 3, 5)
+                .addEdge(2, 3, 2)
+                .build();
+    }
+
+    // Same distances as the uncached classes
+    @Test
+    public void testMatchesPlainClasses() {
+        CsrGraph g = diamond();
+        double[] nw = {1, 2, 3, 4};
+        PreparedDag dag = new PreparedDag(g, nw, 8);
+
+        assertArrayEquals(new DagShortestPath(g).shortestPaths(0).distances, dag.shortestPaths(0).distances);
+        assertArrayEquals(new DagLongestPath(g, nw).longestPaths(0).distances, dag.longestPaths(0).distances);
+        assertArrayEquals(new int[]{0, 2, 3}, dag.longestPaths(0).path(3));
+    }
+
+    // A repeated query is a cache hit and does no relaxations
+    @Test
+    public void testRepeatedQueryHitsCache() {
+        PreparedDag dag = new PreparedDag(diamond(), null, 8);
+        DagShortestPath.Result first = dag.shortestPaths(0);
+
+        Metrics m = new Metrics();
+        DagShortestPath.Result second = dag.shortestPaths(0, m);
+
+        assertSame(first, second);
+        assertEquals(0, m.relaxations);
+        assertEquals(1, dag.cacheHits());
+        assertEquals(1, dag.cacheMisses());
+    }
+
+    // The least recently used source is evicted once the cache is full
+    @Test
+    public void testLruEviction() {
+        PreparedDag dag = new PreparedDag(diamond(), null, 2);
+        DagShortestPath.Result r0 = dag.shortestPaths(0);
+        dag.shortestPaths(1);
+        dag.shortestPaths(0); // 0 becomes most recently used
+        dag.shortestPaths(2); // evicts 1
+
+        assertSame(r0, dag.shortestPaths(0));
+        Metrics m = new Metrics();
+        dag.shortestPaths(1, m);
+        assertTrue(m.relaxations > 0); // recomputed after eviction
+    }
+}
@@ -0,0 +1,72 @@
+package graph.dagsp;
+
+import graph.common.CsrGraph;
+import graph.io.GraphGenerator;
+import graph.scc.CondensationBuilder;
+import graph.scc.TarjanSCC;
+import graph.topo.TopoKahn;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+ // Unit tests for the reachability index.
+ // Every pair must agree with a brute-force transitive closure.
+
+public class ReachabilityIndexTest {
+
+    // Descendants of every vertex, itself included
+    private static BitSet[] closure(CsrGraph g) {
+        int n = g.size();
+        int[] order = new TopoKahn(g).order();
+        BitSet[] reach = new BitSet[n];
+        for (int p = n - 1; p >= 0; p--) {
+            int u = order[p];
+            reach[u] = new BitSet(n);
+            reach[u].set(u);
+            for (int i = g.offsets[u]; i < g.offsets[u + 1]; i++) {
+                reach[u].or(reach[g.targets[i]]);
+            }
+        }
+        return reach;
+    }
+
+    private static void assertAllPairs(CsrGraph g, ReachabilityIndex idx) {
+        BitSet[] reach = closure(g);
+        for (int a = 0; a < g.size(); a++) {
+            for (int b = 0; b < g.size(); b++) {
+                assertEquals(reach[a].get(b), idx.reaches(a, b), a + " -> " + b);
+            }
+        }
+    }
+
+    @Test
+    public void testRandomDags() {
+        Random rnd = new Random(11);
+        for (int round = 0; round < 10; round++) {
+            int n = 60;
+            CsrGraph.Builder b = new CsrGraph.Builder(n, true);
+            for (int e = 0; e < 90; e++) {
+                int u = rnd.nextInt(n);
+                int v = rnd.nextInt(n);
+                if (u < v) b.addEdge(u, v, 1);
+            }
+            CsrGraph g = b.build();
+            for (int k = 1; k <= 4; k++) {
+                assertAllPairs(g, new ReachabilityIndex(g, new TopoKahn(g).order(), k, round, ForkJoinPool.commonPool()));
+            }
+        }
+    }
+
+    // Condensation of a generated city graph with several SCCs
+    @Test
+    public void testCondensation() throws IOException {
+        CsrGraph g = new GraphGenerator(GraphGenerator.Model.POWERLAW, 3_000, 2, 4).toCsr();
+        CsrGraph dag = CondensationBuilder.build(g, new TarjanSCC(g).run()).dag;
+        assertAllPairs(dag, new ReachabilityIndex(dag));
+    }
+}
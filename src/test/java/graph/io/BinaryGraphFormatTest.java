@@ -0,0 +1,105 @@
+package graph.io;
+
+import graph.common.CsrGraph;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+ // Unit tests for the memory-mapped binary graph format.
+ // Verifies round trips, lazy element access and header checks.
+
+public class BinaryGraphFormatTest {
+
+    @TempDir
+    Path dir;
+
+    // Writing and mapping gives back the same CSR arrays and header fields
+    @Test
+    public void testRoundTrip() throws IOException {
+        CsrGraph g = new CsrGraph.Builder(4, true)
+                .addEdge(0, 1, 1.5)
+                .addEdge(0, 2, 2)
+                .addEdge(2, 3, 7)
+                .build(); // odd arc count exercises the padding before weights
+        Path file = dir.resolve("g.bin");
+        BinaryGraphFormat.write(new GraphDataset(g, 2, "node"), file);
+
+        assertTrue(BinaryGraphFormat.isBinary(file.toFile()));
+        MappedGraph mg = BinaryGraphFormat.open(file);
+        assertEquals(4, mg.size());
+        assertEquals(3, mg.edgeCount());
+        assertEquals(2, mg.source());
+        assertEquals("node", mg.weightModel());
+        assertTrue(mg.isDirected());
+
+        // element access straight from the mapping
+        assertEquals(2, mg.offset(1));
+        assertEquals(3, mg.target(2));
+        assertEquals(7.0, mg.weight(2));
+
+        CsrGraph back = mg.toCsr();
+        assertArrayEquals(g.offsets, back.offsets);
+        assertArrayEquals(g.targets, back.targets);
+        assertArrayEquals(g.weights, back.weights);
+    }
+
+    // JSON files are not mistaken for binary ones
+    @Test
+    public void testDetectsJson() throws IOException {
+        Path json = dir.resolve("g.json");
+        java.nio.file.Files.writeString(json, "{\"directed\": true, \"n\": 1, \"edges\": [], \"source\": 0}");
+        assertFalse(BinaryGraphFormat.isBinary(json.toFile()));
+    }
+
+    // The writer refuses to close a file with missing sections
+    @Test
+    public void testIncompleteWriteFails() {
+        assertThrows(IllegalStateException.class, () -> {
+            try (BinaryGraphFormat.Writer w = new BinaryGraphFormat.Writer(dir.resolve("bad.bin"), 2, 1, true, 0, "edge")) {
+                w.offset(0);
+                w.offset(1);
+                w.offset(1);
+                w.target(1);
+            }
+        });
+    }
+
+    // Corrupt offsets or targets fail when the file is opened or loaded, not inside an algorithm
+    @Test
+    public void testCorruptContentsRejected() throws IOException {
+        CsrGraph g = new CsrGraph.Builder(4, true)
+                .addEdge(0, 1, 1)
+                .addEdge(1, 2, 1)
+                .addEdge(2, 3, 1)
+                .build();
+        long[][] damage = {
+                {BinaryGraphFormat.targetsPos(4) + 4, 9}, // target #1 = 9, outside [0, 4)
+                {BinaryGraphFormat.offsetsPos() + 8 * 2, 0}, // offsets[2] = 0 after offsets[1] = 1
+                {BinaryGraphFormat.offsetsPos() + 8 * 4, 2}, // offsets end at 2, m = 3
+        };
+        for (int k = 0; k < damage.length; k++) {
+            Path file = dir.resolve("bad" + k + ".bin");
+            BinaryGraphFormat.write(new GraphDataset(g, 0, "edge"), file);
+            assertDoesNotThrow(() -> BinaryGraphFormat.open(file).validate());
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                long pos = damage[k][0];
+                boolean offset = pos < BinaryGraphFormat.targetsPos(4);
+                ByteBuffer b = ByteBuffer.allocate(offset ? 8 : 4).order(ByteOrder.LITTLE_ENDIAN);
+                if (offset) b.putLong(damage[k][1]);
+                else b.putInt((int) damage[k][1]);
+                ch.write(b.flip(), pos);
+            }
+            MappedGraph mg = BinaryGraphFormat.open(file);
+            assertThrows(IOException.class, mg::validate);
+            assertThrows(IOException.class, mg::toCsr);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package graph.io;
+
+import graph.common.CsrGraph;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+ // Unit tests for the external merge sort and the sorted-run CSR writer.
+
+public class ExternalSorterTest {
+
+    @TempDir
+    Path dir;
+
+    // Enough records for many runs and an intermediate merge pass at the minimum memory
+    @Test
+    public void testSortsAcrossRuns() throws IOException {
+        int count = 100_000;
+        Random rnd = new Random(8);
+        long[] keys = new long[count];
+        try (ExternalSorter s = new ExternalSorter(dir, ExternalSorter.MIN_MEMORY)) {
+            for (int i = 0; i < count; i++) {
+                keys[i] = rnd.nextInt(1000);
+                s.add(keys[i], count - i, i, -i);
+            }
+            Arrays.sort(keys);
+            for (int pass = 0; pass < 2; pass++) { // the result can be read twice
+                try (ExternalSorter.Cursor c = s.sorted()) {
+                    long prevKey = Long.MIN_VALUE;
+                    long prevSeq = Long.MIN_VALUE;
+                    for (int i = 0; i < count; i++) {
+                        assertTrue(c.next());
+                        assertEquals(keys[i], c.key);
+                        assertTrue(c.key > prevKey || c.seq > prevSeq);
+                        assertEquals(count - c.seq, c.a);
+                        assertEquals(-c.a, c.b);
+                        prevKey = c.key;
+                        prevSeq = c.seq;
+                    }
+                    assertFalse(c.next());
+                }
+            }
+        }
+        try (Stream<Path> left = Files.list(dir)) {
+            assertEquals(0, left.count()); // runs are deleted on close
+        }
+    }
+
+    // Two sorters spilling into the same directory keep their runs apart
+    @Test
+    public void testSortersShareDirectory() throws IOException {
+        int count = 40_000;
+        try (ExternalSorter up = new ExternalSorter(dir, ExternalSorter.MIN_MEMORY);
+             ExternalSorter down = new ExternalSorter(dir, ExternalSorter.MIN_MEMORY)) {
+            for (int i = 0; i < count; i++) {
+                up.add(count - i, 0, 1, i);
+                down.add(i, 0, 2, i);
+            }
+            try (ExternalSorter.Cursor a = up.sorted(); ExternalSorter.Cursor b = down.sorted()) {
+                for (int i = 0; i < count; i++) {
+                    assertTrue(a.next());
+                    assertTrue(b.next());
+                    assertEquals(1, a.a);
+                    assertEquals(i + 1, a.key);
+                    assertEquals(2, b.a);
+                    assertEquals(i, b.key);
+                }
+                assertFalse(a.next());
+                assertFalse(b.next());
+            }
+        }
+        try (Stream<Path> left = Files.list(dir)) {
+            assertEquals(0, left.count());
+        }
+    }
+
+    // Arcs in shuffled order give the same file as CsrGraph.Builder
+    @Test
+    public void testCsrWriterMatchesBuilder() throws IOException {
+        int n = 500;
+        Random rnd = new Random(2);
+        CsrGraph.Builder b = new CsrGraph.Builder(n, true);
+        Path file = dir.resolve("g.bin");
+        try (ExternalCsrWriter w = new ExternalCsrWriter(n, true, 7, "edge", dir, ExternalSorter.MIN_MEMORY)) {
+            for (int i = 0; i < 30_000; i++) {
+                int u = rnd.nextInt(n);
+                int v = rnd.nextInt(n);
+                double x = rnd.nextInt(100) / 4.0;
+                b.addEdge(u, v, x);
+                w.addEdge(u, v, x);
+            }
+            w.finish(file);
+        }
+        CsrGraph expected = b.build();
+        MappedGraph mg = BinaryGraphFormat.open(file);
+        assertEquals(7, mg.source());
+        CsrGraph got = mg.toCsr();
+        assertArrayEquals(expected.offsets, got.offsets);
+        assertArrayEquals(expected.targets, got.targets);
+        assertArrayEquals(expected.weights, got.weights);
+    }
+}
@@ -0,0 +1,71 @@
+package graph.io;
+
+import graph.common.CsrGraph;
+import graph.common.Metrics;
+import graph.scc.TarjanSCC;
+import graph.topo.TopoKahn;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+ // Unit tests for the synthetic graph generator.
+ // Verifies reproducibility, the shape of each model and that every output format agrees.
+
+public class GraphGeneratorTest {
+
+    @TempDir
+    Path dir;
+
+    // Same parameters give the same graph, another seed gives another one
+    @Test
+    public void testSeedIsReproducible() throws IOException {
+        CsrGraph a = new GraphGenerator(GraphGenerator.Model.RANDOM, 500, 3, 7).toCsr();
+        CsrGraph b = new GraphGenerator(GraphGenerator.Model.RANDOM, 500, 3, 7).toCsr();
+        CsrGraph c = new GraphGenerator(GraphGenerator.Model.RANDOM, 500, 3, 8).toCsr();
+
+        assertArrayEquals(a.targets, b.targets);
+        assertArrayEquals(a.weights, b.weights);
+        assertFalse(java.util.Arrays.equals(a.targets, c.targets));
+    }
+
+    // JSON, binary and in-memory output describe the same graph
+    @Test
+    public void testFormatsAgree() throws IOException {
+        for (GraphGenerator.Model model : GraphGenerator.Model.values()) {
+            GraphGenerator gen = new GraphGenerator(model, 300, 4, 1);
+            CsrGraph expected = gen.toCsr();
+            Path json = dir.resolve(model + ".json");
+            Path bin = dir.resolve(model + ".bin");
+            gen.writeJson(json, 0);
+            gen.writeBinary(bin, 0);
+
+            CsrGraph fromJson = JsonGraphLoader.load(json.toFile(), new Metrics()).graph;
+            CsrGraph fromBin = BinaryGraphFormat.open(bin).toCsr();
+            assertArrayEquals(expected.offsets, fromJson.offsets, model.name());
+            assertArrayEquals(expected.targets, fromJson.targets, model.name());
+            assertArrayEquals(expected.weights, fromJson.weights, model.name());
+            assertArrayEquals(expected.offsets, fromBin.offsets, model.name());
+            assertArrayEquals(expected.targets, fromBin.targets, model.name());
+            assertEquals(gen.countEdges(), expected.edgeCount());
+        }
+    }
+
+    // Layered graphs are DAGs, giant graphs have exactly four SCCs
+    @Test
+    public void testModelStructure() throws IOException {
+        CsrGraph layered = new GraphGenerator(GraphGenerator.Model.LAYERED, 2_000, 3, 1).toCsr();
+        assertEquals(2_000, new TopoKahn(layered).order().length);
+
+        CsrGraph giant = new GraphGenerator(GraphGenerator.Model.GIANT, 2_000, 3, 1).toCsr();
+        assertEquals(4, new TarjanSCC(giant).run().count());
+
+        CsrGraph grid = new GraphGenerator(GraphGenerator.Model.GRID, 2_500, 1, 1).toCsr();
+        for (int u = 0; u < grid.size(); u++) {
+            assertTrue(grid.outDegree(u) <= 4);
+        }
+    }
+}
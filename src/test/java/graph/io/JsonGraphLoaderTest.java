@@ -0,0 +1,119 @@
+package graph.io;
+
+import graph.common.CsrGraph;
+import graph.common.Metrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+ // Unit tests for the streaming JSON loader.
+ // Verifies both key orders, unknown keys and error reporting.
+
+public class JsonGraphLoaderTest {
+
+    @TempDir
+    Path dir;
+
+    // Header first: edges go straight into the builder
+    @Test
+    public void testHeaderFirst() throws IOException {
+        String json = "{\"directed\": true, \"n\": 3, \"source\": 1, \"weight_model\": \"edge\","
+                + " \"edges\": [{\"u\": 0, \"v\": 1, \"w\": 2}, {\"w\": 5, \"v\": 2, \"u\": 1}]}";
+        Metrics m = new Metrics();
+        GraphDataset d = JsonGraphLoader.load(new StringReader(json), m);
+
+        assertEquals(3, d.graph.size());
+        assertEquals(2, d.graph.edgeCount());
+        assertEquals(1, d.source);
+        assertEquals("edge", d.weightModel);
+        assertArrayEquals(new int[]{1, 2}, d.graph.targets);
+        assertArrayEquals(new double[]{2, 5}, d.graph.weights);
+        assertEquals(2, m.edgesSeen);
+    }
+
+    // Edges before "n" and "directed", plus keys the loader does not know
+    @Test
+    public void testEdgesFirstAndUnknownKeys() throws IOException {
+        String json = "{\"edges\": [{\"u\": 1, \"v\": 0, \"w\": 1.5, \"label\": \"x\"}],"
+                + " \"comment\": {\"a\": [1, 2]}, \"n\": 2, \"directed\": false}";
+        GraphDataset d = JsonGraphLoader.load(new StringReader(json), new Metrics());
+
+        // undirected edge is stored in both directions
+        assertEquals(2, d.graph.edgeCount());
+        assertEquals(0, d.source);
+        assertFalse(d.graph.isDirected());
+    }
+
+    // Missing fields are reported instead of producing a broken graph
+    @Test
+    public void testMissingFields() {
+        assertThrows(IllegalStateException.class,
+                () -> JsonGraphLoader.load(new StringReader("{\"directed\": true, \"edges\": []}"), new Metrics()));
+        assertThrows(IllegalStateException.class,
+                () -> JsonGraphLoader.load(new StringReader("{\"n\": 2, \"edges\": [{\"u\": 0, \"v\": 1}]}"), new Metrics()));
+    }
+
+    // Random dataset text with the header before or after the edges
+    private static String dataset(int n, int edges, boolean directed, boolean headerFirst, long seed) {
+        Random rnd = new Random(seed);
+        StringBuilder e = new StringBuilder("\"edges\": [");
+        for (int i = 0; i < edges; i++) {
+            if (i > 0) e.append(", ");
+            e.append("{\"u\": ").append(rnd.nextInt(n)).append(", \"v\": ").append(rnd.nextInt(n))
+                    .append(", \"w\": ").append(rnd.nextInt(100) / 4.0).append('}');
+        }
+        e.append(']');
+        String header = "\"directed\": " + directed + ", \"n\": " + n + ", \"source\": 3, \"weight_model\": \"node\"";
+        return "{" + (headerFirst ? header + ", " + e : e + ", " + header) + "}";
+    }
+
+    // Streaming into sorted runs gives the same graph as loading into heap, for both key orders,
+    // and leaves only the binary file behind
+    @Test
+    public void testConvertMatchesLoad() throws IOException {
+        for (boolean directed : new boolean[]{true, false}) {
+            for (boolean headerFirst : new boolean[]{true, false}) {
+                String json = dataset(2_000, 40_000, directed, headerFirst, directed ? 1 : 2);
+                File file = dir.resolve("g.json").toFile();
+                Files.writeString(file.toPath(), json);
+                Path bin = dir.resolve("g.bin");
+                GraphDataset expected = JsonGraphLoader.load(new StringReader(json), new Metrics());
+
+                Metrics m = new Metrics();
+                long arcs = JsonGraphLoader.convert(file, bin, dir, ExternalSorter.MIN_MEMORY, m);
+                assertEquals(40_000, m.edgesSeen);
+                assertEquals(expected.graph.edgeCount(), arcs);
+                MappedGraph mg = BinaryGraphFormat.open(bin);
+                assertEquals(directed, mg.isDirected());
+                assertEquals(3, mg.source());
+                assertEquals("node", mg.weightModel());
+                CsrGraph got = mg.toCsr();
+                assertArrayEquals(expected.graph.offsets, got.offsets);
+                assertArrayEquals(expected.graph.targets, got.targets);
+                assertArrayEquals(expected.graph.weights, got.weights);
+                try (Stream<Path> left = Files.list(dir)) {
+                    assertEquals(2, left.count()); // g.json and g.bin, no sort runs
+                }
+            }
+        }
+    }
+
+    // Conversion errors name the file, like load
+    @Test
+    public void testConvertRejectsBadEdges() throws IOException {
+        File file = dir.resolve("bad.json").toFile();
+        Files.writeString(file.toPath(), "{\"directed\": true, \"n\": 2, \"edges\": [{\"u\": 0, \"v\": 5, \"w\": 1}]}");
+        IOException e = assertThrows(IOException.class,
+                () -> JsonGraphLoader.convert(file, dir.resolve("bad.bin"), dir, ExternalSorter.MIN_MEMORY, new Metrics()));
+        assertTrue(e.getMessage().startsWith("bad.json"), e.getMessage());
+    }
+}
@@ -0,0 +1,162 @@
+package graph.reorder;
+
+import graph.common.CsrGraph;
+import graph.dagsp.DagLongestPath;
+import graph.dagsp.DagShortestPath;
+import graph.io.GraphGenerator;
+import graph.scc.CondensationBuilder;
+import graph.scc.CondensationBuilder.EdgePolicy;
+import graph.scc.TarjanSCC;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+ // Unit tests for vertex relabeling.
+ // Results on the relabeled graph, mapped back, must describe the original graph.
+
+public class ReorderedGraphTest {
+
+    // The generator's ids already have locality; shuffle them like raw input ids
+    private static CsrGraph shuffled(CsrGraph g, long seed) {
+        int[] perm = new int[g.size()];
+        for (int i = 0; i < perm.length; i++) {
+            perm[i] = i;
+        }
+        Random rnd = new Random(seed);
+        for (int i = perm.length - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int t = perm[i];
+            perm[i] = perm[j];
+            perm[j] = t;
+        }
+        return Relabeling.fromOrder(perm).apply(g);
+    }
+
+    private static boolean hasArc(CsrGraph g, int u, int v) {
+        for (int i = g.offsets[u]; i < g.offsets[u + 1]; i++) {
+            if (g.targets[i] == v) return true;
+        }
+        return false;
+    }
+
+    @Test
+    public void testSccAndCondensationMapBack() throws IOException {
+        CsrGraph g = shuffled(new GraphGenerator(GraphGenerator.Model.POWERLAW, 5_000, 3, 6).toCsr(), 1);
+        TarjanSCC.Result expected = new TarjanSCC(g).run();
+
+        for (Relabeling.Strategy s : new Relabeling.Strategy[]{Relabeling.Strategy.BFS, Relabeling.Strategy.RCM, Relabeling.Strategy.DEGREE}) {
+            ReorderedGraph rg = new ReorderedGraph(g, s);
+            TarjanSCC.Result scc = rg.scc();
+            assertEquals(expected.count(), scc.count());
+
+            // same partition: component ids correspond one to one
+            int[] toExpected = new int[scc.count()];
+            Arrays.fill(toExpected, -1);
+            for (int v = 0; v < g.size(); v++) {
+                int c = scc.compId[v];
+                if (toExpected[c] < 0) toExpected[c] = expected.compId[v];
+                assertEquals(toExpected[c], expected.compId[v]);
+                int vertex = v;
+                assertTrue(Arrays.stream(scc.component(c)).anyMatch(x -> x == vertex));
+            }
+
+            // every policy, FIRST and SUM included, gives exactly the weights of the original order
+            for (EdgePolicy policy : EdgePolicy.values()) {
+                CondensationBuilder.CondensationResult expectedDag = CondensationBuilder.build(g, expected, policy);
+                CondensationBuilder.CondensationResult cond = rg.condensation(scc, policy);
+                Map<String, Double> arcs = new HashMap<>();
+                for (int c = 0; c < scc.count(); c++) {
+                    assertEquals(expectedDag.nodeWeight[toExpected[c]], cond.nodeWeight[c], policy.name());
+                    for (int i = cond.dag.offsets[c]; i < cond.dag.offsets[c + 1]; i++) {
+                        arcs.put(toExpected[c] + ">" + toExpected[cond.dag.targets[i]], cond.dag.weights[i]);
+                    }
+                }
+                Map<String, Double> expectedArcs = new HashMap<>();
+                for (int c = 0; c < expected.count(); c++) {
+                    for (int i = expectedDag.dag.offsets[c]; i < expectedDag.dag.offsets[c + 1]; i++) {
+                        expectedArcs.put(c + ">" + expectedDag.dag.targets[i], expectedDag.dag.weights[i]);
+                    }
+                }
+                assertEquals(expectedArcs, arcs, policy.name());
+            }
+        }
+    }
+
+    // Parallel cross arcs whose order the relabeling reverses: FIRST must still pick the first
+    // original arc, and SUM must add in the original order (0.1 + 0.2 + 0.3 != 0.3 + 0.2 + 0.1)
+    @Test
+    public void testCondensationKeepsOriginalArcOrder() {
+        CsrGraph g = new CsrGraph.Builder(4, true)
+                .addEdge(0, 1, 1)
+                .addEdge(0, 2, 0.1)
+                .addEdge(1, 0, 1)
+                .addEdge(1, 2, 0.2)
+                .addEdge(1, 3, 0.3)
+                .addEdge(2, 3, 1)
+                .addEdge(3, 2, 1)
+                .build();
+        ReorderedGraph rg = new ReorderedGraph(g, null, Relabeling.fromOrder(new int[]{3, 2, 1, 0}));
+        TarjanSCC.Result scc = rg.scc();
+        assertEquals(2, scc.count());
+        for (EdgePolicy policy : EdgePolicy.values()) {
+            CsrGraph dag = rg.condensation(scc, policy).dag;
+            int a = scc.compId[0];
+            assertEquals(1, dag.edgeCount());
+            assertEquals(scc.compId[2], dag.targets[dag.offsets[a]]);
+            double want = switch (policy) {
+                case FIRST, MIN -> 0.1;
+                case MAX -> 0.3;
+                case SUM -> 0.1 + 0.2 + 0.3;
+            };
+            assertEquals(want, dag.weights[dag.offsets[a]], policy.name());
+        }
+    }
+
+    @Test
+    public void testDagPathsMapBack() throws IOException {
+        CsrGraph dag = shuffled(new GraphGenerator(GraphGenerator.Model.LAYERED, 3_000, 3, 2).toCsr(), 2);
+        double[] nw = new double[dag.size()];
+        Random rnd = new Random(3);
+        for (int v = 0; v < nw.length; v++) {
+            nw[v] = rnd.nextInt(10);
+        }
+        int src = 0;
+        DagShortestPath.Result sp = new DagShortestPath(dag).shortestPaths(src);
+        DagLongestPath.Result lp = new DagLongestPath(dag, nw).longestPaths(src);
+
+        for (Relabeling.Strategy s : Relabeling.Strategy.values()) {
+            ReorderedGraph rg = new ReorderedGraph(dag, nw, Relabeling.of(dag, s));
+            int[] order = rg.topoOrder();
+            int[] pos = new int[order.length];
+            for (int p = 0; p < order.length; p++) {
+                pos[order[p]] = p;
+            }
+            for (int u = 0; u < dag.size(); u++) {
+                for (int i = dag.offsets[u]; i < dag.offsets[u + 1]; i++) {
+                    assertTrue(pos[u] < pos[dag.targets[i]]);
+                }
+            }
+
+            DagShortestPath.Result rsp = rg.shortestPaths(src);
+            DagLongestPath.Result rlp = rg.longestPaths(src);
+            assertArrayEquals(sp.distances, rsp.distances);
+            assertArrayEquals(lp.distances, rlp.distances);
+            for (int t = 0; t < dag.size(); t += 97) {
+                int[] path = rlp.path(t);
+                assertEquals(lp.path(t).length == 0, path.length == 0);
+                if (path.length == 0) continue;
+                assertEquals(src, path[0]);
+                assertEquals(t, path[path.length - 1]);
+                for (int i = 1; i < path.length; i++) {
+                    assertTrue(hasArc(dag, path[i - 1], path[i]));
+                }
+            }
+        }
+    }
+}
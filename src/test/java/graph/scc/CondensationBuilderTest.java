@@ -1,8 +1,14 @@
 package graph.scc;
 
+import graph.common.CsrGraph;
 import graph.common.Graph;
+import graph.scc.CondensationBuilder.EdgePolicy;
 import org.junit.jupiter.api.Test;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class CondensationBuilderTest {
@@ -24,4 +30,104 @@ public class CondensationBuilderTest {
         // second should be 0
         assertTrue(cr.nodeWeight[0] == 5.0 || cr.nodeWeight[1] == 5.0);
     }
+
+    // SCCs A = {0, 1}, B = {2, 3}, C = {4}. A -> B has three parallel arcs, met in adjacency
+    // order with weights 5, 7, 2; B -> C has two (4, 6); A -> C has one (1).
+    private static CsrGraph parallelCrossArcs() {
+        return new CsrGraph.Builder(5, true)
+                .addEdge(0, 1, 1)
+                .addEdge(0, 2, 5)
+                .addEdge(0, 3, 7)
+                .addEdge(1, 0, 2)
+                .addEdge(1, 3, 2)
+                .addEdge(1, 4, 1)
+                .addEdge(2, 3, 3)
+                .addEdge(2, 4, 4)
+                .addEdge(3, 2, 4)
+                .addEdge(3, 4, 6)
+                .build();
+    }
+
+    // Weight of the single DAG arc between the components of u and v, checking there is only one
+    private static double dagWeight(CondensationBuilder.CondensationResult cr, int[] compId, int u, int v) {
+        CsrGraph dag = cr.dag;
+        int cu = compId[u];
+        int found = -1;
+        for (int i = dag.offsets[cu]; i < dag.offsets[cu + 1]; i++) {
+            if (dag.targets[i] == compId[v]) {
+                assertEquals(-1, found, "parallel DAG arcs");
+                found = i;
+            }
+        }
+        assertTrue(found >= 0, "missing DAG arc");
+        return dag.weights[found];
+    }
+
+    @Test
+    public void testEdgePolicies() {
+        CsrGraph g = parallelCrossArcs();
+        TarjanSCC.Result scc = new TarjanSCC(g).run();
+        assertEquals(3, scc.count());
+        double[][] expected = { // A -> B, B -> C, A -> C
+                {5, 4, 1}, // FIRST
+                {2, 4, 1}, // MIN
+                {7, 6, 1}, // MAX
+                {14, 10, 1}, // SUM
+        };
+        for (EdgePolicy policy : EdgePolicy.values()) {
+            CondensationBuilder.CondensationResult cr = CondensationBuilder.build(g, scc, policy);
+            double[] want = expected[policy.ordinal()];
+            assertEquals(3, cr.dag.edgeCount(), policy.name());
+            assertEquals(want[0], dagWeight(cr, scc.compId, 0, 2), policy.name());
+            assertEquals(want[1], dagWeight(cr, scc.compId, 2, 4), policy.name());
+            assertEquals(want[2], dagWeight(cr, scc.compId, 0, 4), policy.name());
+            assertEquals(3.0, cr.nodeWeight[scc.compId[0]]);
+            assertEquals(7.0, cr.nodeWeight[scc.compId[2]]);
+            assertEquals(0.0, cr.nodeWeight[scc.compId[4]]);
+        }
+    }
+
+    // Many components and parallel arcs: the hash map grows, and every policy matches a
+    // direct fold over the arcs in adjacency order
+    @Test
+    public void testEdgePoliciesAgainstDirectFold() {
+        Random rnd = new Random(11);
+        int n = 3_000;
+        CsrGraph.Builder b = new CsrGraph.Builder(n, true);
+        for (int i = 0; i < 30_000; i++) {
+            int u = rnd.nextInt(n);
+            int v = rnd.nextInt(n);
+            b.addEdge(Math.min(u, v), Math.max(u, v), rnd.nextInt(50)); // forward only: a DAG
+        }
+        for (int v = 0; v + 1 < n; v += 2) {
+            b.addEdge(v + 1, v, 1); // pairs {v, v + 1} become SCCs, so cross arcs run in parallel
+        }
+        CsrGraph g = b.build();
+        TarjanSCC.Result scc = new TarjanSCC(g).run();
+        int comps = scc.count();
+        for (EdgePolicy policy : EdgePolicy.values()) {
+            Map<Long, Double> fold = new HashMap<>();
+            for (int u = 0; u < n; u++) {
+                for (int i = g.offsets[u]; i < g.offsets[u + 1]; i++) {
+                    int cu = scc.compId[u];
+                    int cv = scc.compId[g.targets[i]];
+                    if (cu == cv) continue;
+                    double x = g.weights[i];
+                    fold.merge((long) cu * comps + cv, x, (a, c) -> switch (policy) {
+                        case FIRST -> a;
+                        case MIN -> Math.min(a, c);
+                        case MAX -> Math.max(a, c);
+                        case SUM -> a + c;
+                    });
+                }
+            }
+            CsrGraph dag = CondensationBuilder.build(g, scc, policy).dag;
+            assertEquals(fold.size(), dag.edgeCount(), policy.name());
+            for (int c = 0; c < comps; c++) {
+                for (int i = dag.offsets[c]; i < dag.offsets[c + 1]; i++) {
+                    assertEquals(fold.get((long) c * comps + dag.targets[i]), dag.weights[i], policy.name());
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,62 @@
+package graph.scc;
+
+import graph.common.CsrGraph;
+import graph.common.Metrics;
+import graph.io.BinaryGraphFormat;
+import graph.io.GraphGenerator;
+import graph.scc.CondensationBuilder.EdgePolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+ // Unit tests for the semi-external SCC pipeline.
+ // Files on disk must match TarjanSCC + CondensationBuilder, within the memory budget.
+
+public class ExternalSCCTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testMatchesInMemoryPipeline() throws IOException {
+        for (GraphGenerator.Model model : new GraphGenerator.Model[]{GraphGenerator.Model.POWERLAW, GraphGenerator.Model.GRID}) {
+            int n = 20_000;
+            GraphGenerator gen = new GraphGenerator(model, n, 3, 12);
+            Path file = dir.resolve(model + ".bin");
+            gen.writeBinary(file, 0);
+            CsrGraph g = gen.toCsr();
+            TarjanSCC.Result scc = new TarjanSCC(g).run();
+
+            // small enough that the sorts spill several runs
+            long budget = ExternalSCC.sccBytes(n) + (2 << 20);
+            for (EdgePolicy policy : EdgePolicy.values()) {
+                Path out = dir.resolve(model + "-" + policy);
+                ExternalSCC.Result res = new ExternalSCC(budget).run(file, out, policy, new Metrics());
+                CondensationBuilder.CondensationResult expected = CondensationBuilder.build(g, scc, policy);
+
+                assertTrue(res.peakBytes <= budget);
+                assertEquals(scc.count(), res.components);
+                assertArrayEquals(scc.compId, res.readCompIds());
+                assertArrayEquals(expected.nodeWeight, res.readNodeWeights());
+                CsrGraph dag = BinaryGraphFormat.open(res.dagFile).toCsr();
+                assertArrayEquals(expected.dag.offsets, dag.offsets);
+                assertArrayEquals(expected.dag.targets, dag.targets);
+                assertArrayEquals(expected.dag.weights, dag.weights);
+            }
+        }
+    }
+
+    // A budget below the per-vertex arrays fails before any work is done
+    @Test
+    public void testBudgetIsEnforced() throws IOException {
+        Path file = dir.resolve("g.bin");
+        new GraphGenerator(GraphGenerator.Model.RANDOM, 10_000, 2, 1).writeBinary(file, 0);
+        ExternalSCC ext = new ExternalSCC(ExternalSCC.sccBytes(10_000) / 2);
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> ext.run(file, dir.resolve("out")));
+        assertTrue(e.getMessage().contains("memory budget"));
+    }
+}
@@ -0,0 +1,99 @@
+package graph.scc;
+
+import graph.common.CsrGraph;
+import graph.common.Graph;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+ // Unit tests for the incremental SCC / condensation maintenance.
+ // After insertions the state must equal a full TarjanSCC + CondensationBuilder rebuild.
+
+public class IncrementalSCCTest {
+
+    // Closing a cycle merges the components and folds their edges into the node weight
+    @Test
+    public void testMergeOnCycle() {
+        Graph g = new Graph(4, true);
+        g.addEdge(0, 1, 2);
+        g.addEdge(1, 2, 3);
+        g.addEdge(2, 3, 4);
+        g.addEdge(0, 2, 5);
+        IncrementalSCC inc = new IncrementalSCC(g);
+        assertEquals(4, inc.componentCount());
+
+        assertFalse(inc.addEdge(0, 3, 1));
+        assertTrue(inc.addEdge(2, 0, 1));
+
+        assertEquals(2, inc.componentCount());
+        assertEquals(inc.componentOf(0), inc.componentOf(1));
+        assertEquals(inc.componentOf(0), inc.componentOf(2));
+        assertEquals(2 + 3 + 5 + 1, inc.nodeWeightOf(1));
+        assertEquals(1.0, inc.edgeWeight(2, 3)); // FIRST: 0->3 is met before 2->3 in vertex order
+        assertArrayEquals(new int[]{0, 0, 0, 1}, inc.compId());
+    }
+
+    // Random insertions under every edge policy agree with a full rebuild
+    @Test
+    public void testMatchesRebuild() {
+        for (CondensationBuilder.EdgePolicy policy : CondensationBuilder.EdgePolicy.values()) {
+            int n = 300;
+            Random rnd = new Random(policy.ordinal());
+            Graph g = new Graph(n, true);
+            for (int k = 0; k < 250; k++) {
+                g.addEdge(rnd.nextInt(n), rnd.nextInt(n), 1 + rnd.nextInt(9));
+            }
+            IncrementalSCC inc = new IncrementalSCC(CsrGraph.from(g), policy);
+
+            for (int k = 0; k < 300; k++) {
+                int u = rnd.nextInt(n);
+                int v = rnd.nextInt(n);
+                int w = 1 + rnd.nextInt(9);
+                g.addEdge(u, v, w);
+                inc.addEdge(u, v, w);
+                if (k % 50 == 49) assertSame(g, inc, policy);
+            }
+        }
+    }
+
+    private static void assertSame(Graph g, IncrementalSCC inc, CondensationBuilder.EdgePolicy policy) {
+        CsrGraph csr = CsrGraph.from(g);
+        TarjanSCC.Result scc = new TarjanSCC(csr).run();
+        CondensationBuilder.CondensationResult expected = CondensationBuilder.build(csr, scc, policy);
+        CondensationBuilder.CondensationResult actual = inc.condensation();
+        int[] ids = inc.compId();
+        assertEquals(scc.count(), inc.componentCount());
+
+        // same partition: the mapping between the two numberings is a bijection
+        int[] map = new int[scc.count()];
+        java.util.Arrays.fill(map, -1);
+        for (int v = 0; v < g.size(); v++) {
+            int c = scc.compId[v];
+            if (map[c] < 0) map[c] = ids[v];
+            assertEquals(map[c], ids[v]);
+        }
+        for (int c = 0; c < scc.count(); c++) {
+            assertEquals(expected.nodeWeight[c], actual.nodeWeight[map[c]]);
+        }
+
+        // same DAG edges and weights, and the numbering is topological
+        assertEquals(expected.dag.edgeCount(), actual.dag.edgeCount());
+        for (int c = 0; c < scc.count(); c++) {
+            for (int i = expected.dag.offsets[c]; i < expected.dag.offsets[c + 1]; i++) {
+                int a = map[c];
+                int b = map[expected.dag.targets[i]];
+                assertTrue(a < b);
+                boolean found = false;
+                for (int j = actual.dag.offsets[a]; j < actual.dag.offsets[a + 1]; j++) {
+                    if (actual.dag.targets[j] == b) {
+                        assertEquals(expected.dag.weights[i], actual.dag.weights[j]);
+                        found = true;
+                    }
+                }
+                assertTrue(found);
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package graph.scc;
+
+import graph.common.CsrGraph;
+import graph.common.Metrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+ // Unit tests for the parallel forward-backward SCC decomposition.
+ // The component partition must be identical to the one found by TarjanSCC.
+
+public class ParallelSCCTest {
+
+    // Each vertex is mapped to the smallest vertex of its component, which names the partition
+    private static int[] canonical(TarjanSCC.Result res, int n) {
+        int[] min = new int[res.count()];
+        java.util.Arrays.fill(min, Integer.MAX_VALUE);
+        for (int v = 0; v < n; v++) {
+            min[res.compId[v]] = Math.min(min[res.compId[v]], v);
+        }
+        int[] rep = new int[n];
+        for (int v = 0; v < n; v++) {
+            rep[v] = min[res.compId[v]];
+        }
+        return rep;
+    }
+
+    // One giant cycle plus random chords and many small satellites
+    private static CsrGraph giantPlusSmall(int n, long seed) {
+        Random rnd = new Random(seed);
+        CsrGraph.Builder b = new CsrGraph.Builder(n, true);
+        int giant = n / 2;
+        for (int v = 0; v < giant; v++) {
+            b.addEdge(v, (v + 1) % giant, 1);
+        }
+        for (int e = 0; e < n; e++) {
+            b.addEdge(rnd.nextInt(n), rnd.nextInt(n), 1);
+        }
+        for (int v = giant; v + 1 < n; v += 3) {
+            b.addEdge(v, v + 1, 1); // small chains and 2-cycles outside the giant SCC
+            b.addEdge(v + 1, v, 1);
+        }
+        return b.build();
+    }
+
+    // Small thresholds force every code path: trimming, parallel sweeps and Tarjan leaves
+    @Test
+    public void testMatchesTarjanOnRandomGraphs() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (long seed = 1; seed <= 5; seed++) {
+                CsrGraph g = giantPlusSmall(5_000, seed);
+                TarjanSCC.Result expected = new TarjanSCC(g).run();
+                TarjanSCC.Result actual = new ParallelSCC(g, pool, 64, 16).run();
+
+                assertEquals(expected.count(), actual.count());
+                assertArrayEquals(canonical(expected, g.size()), canonical(actual, g.size()));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Default thresholds on a graph large enough to use them
+    @Test
+    public void testDefaultThresholds() {
+        CsrGraph g = giantPlusSmall(100_000, 42);
+        Metrics m = new Metrics();
+        TarjanSCC.Result actual = new ParallelSCC(g).run(m);
+        TarjanSCC.Result expected = new TarjanSCC(g).run();
+
+        assertArrayEquals(canonical(expected, g.size()), canonical(actual, g.size()));
+        assertTrue(m.dfsVisits >= g.size());
+        // numbering by smallest vertex: vertex 0 is always in component 0
+        assertEquals(0, actual.compId[0]);
+    }
+
+    // A pure DAG is dissolved by trimming alone
+    @Test
+    public void testDagIsAllSingletons() {
+        int n = 10_000;
+        CsrGraph.Builder b = new CsrGraph.Builder(n, true);
+        for (int v = 0; v + 1 < n; v++) {
+            b.addEdge(v, v + 1, 1);
+        }
+        TarjanSCC.Result res = new ParallelSCC(b.build()).run();
+        assertEquals(n, res.count());
+    }
+
+    // A long chain of 2-cycles: every split peels off one tiny SCC, which must neither nest one
+    // task per split (stack overflow) nor rescan the rest once per component (quadratic time)
+    @Test
+    public void testLongChainOfTwoCycles() {
+        int n = 1_000_000;
+        CsrGraph.Builder b = new CsrGraph.Builder(n, true);
+        for (int v = 0; v + 1 < n; v += 2) {
+            b.addEdge(v, v + 1, 1);
+            b.addEdge(v + 1, v, 1);
+            if (v + 2 < n) b.addEdge(v + 1, v + 2, 1);
+        }
+        CsrGraph g = b.build();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            TarjanSCC.Result res = assertTimeoutPreemptively(java.time.Duration.ofSeconds(60),
+                    () -> new ParallelSCC(g, pool).run());
+            assertEquals(n / 2, res.count());
+            for (int v = 0; v < n; v++) {
+                assertEquals(v / 2, res.compId[v]);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package graph.scc;
+
+import graph.common.CsrGraph;
+import graph.io.GraphGenerator;
+import graph.topo.TopoKahn;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+ // Unit tests for the SCC sidecar file.
+ // A sidecar must read back exactly what was written, and only for the same input bytes.
+
+public class SccSidecarTest {
+
+    @TempDir
+    Path dir;
+
+    private SccSidecar sidecarOf(Path input, int n) throws IOException {
+        CsrGraph g = new GraphGenerator(GraphGenerator.Model.POWERLAW, n, 3, 5).toCsr();
+        TarjanSCC.Result scc = new TarjanSCC(g).run();
+        CondensationBuilder.CondensationResult cond = CondensationBuilder.build(g, scc);
+        int[] order = new TopoKahn(cond.dag).order();
+        return new SccSidecar(Files.size(input), SccSidecar.hash(input), n, g.edgeCount(), 0, scc, cond, order);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        for (int n : new int[]{1, 2, 7, 5_000}) {
+            Path input = dir.resolve("g" + n + ".json");
+            Files.writeString(input, "graph " + n);
+            SccSidecar written = sidecarOf(input, n);
+            Path file = SccSidecar.pathFor(input);
+            written.write(file);
+            assertEquals(dir.resolve("g" + n + ".json.scc"), file);
+
+            SccSidecar read = SccSidecar.read(file, Files.size(input), SccSidecar.hash(input));
+            assertNotNull(read);
+            assertEquals(n, read.vertices);
+            assertEquals(written.arcs, read.arcs);
+            assertArrayEquals(written.scc.compId, read.scc.compId);
+            assertArrayEquals(written.scc.compStart, read.scc.compStart);
+            assertArrayEquals(written.scc.compVertices, read.scc.compVertices);
+            assertArrayEquals(written.order, read.order);
+            assertArrayEquals(written.condensation.nodeWeight, read.condensation.nodeWeight);
+            CsrGraph a = written.condensation.dag;
+            CsrGraph b = read.condensation.dag;
+            assertEquals(a.isDirected(), b.isDirected());
+            assertArrayEquals(a.offsets, b.offsets);
+            assertArrayEquals(a.targets, b.targets);
+            assertArrayEquals(a.weights, b.weights);
+        }
+    }
+
+    @Test
+    public void testStaleOrDamagedSidecarIsIgnored() throws IOException {
+        Path input = dir.resolve("g.json");
+        Files.writeString(input, "version 1");
+        Path file = SccSidecar.pathFor(input);
+        assertNull(SccSidecar.read(file, Files.size(input), SccSidecar.hash(input)));
+
+        sidecarOf(input, 1_000).write(file);
+        assertNotNull(SccSidecar.read(file, Files.size(input), SccSidecar.hash(input)));
+
+        // same size, different content
+        Files.writeString(input, "version 2");
+        assertNull(SccSidecar.read(file, Files.size(input), SccSidecar.hash(input)));
+
+        // cut short
+        Files.writeString(input, "version 1");
+        byte[] hash = SccSidecar.hash(input);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.truncate(ch.size() - 8);
+        }
+        assertNull(SccSidecar.read(file, Files.size(input), hash));
+
+        // rewritten, the previous file is replaced
+        sidecarOf(input, 1_000).write(file);
+        assertNotNull(SccSidecar.read(file, Files.size(input), hash));
+        try (var files = Files.list(dir)) {
+            assertEquals(2, files.count()); // no temporary files left behind
+        }
+    }
+
+    // Overwrites the int at byte offset pos
+    @Test
+    public void testFailedMoveLeavesNoTemporaryFile() throws IOException {
+        Path input = dir.resolve("g.json");
+        Files.writeString(input, "graph");
+        Path file = SccSidecar.pathFor(input);
+        // a non-empty directory in the way: the move fails after the temporary file was written
+        Files.createDirectory(file);
+        Files.writeString(file.resolve("keep"), "x");
+        assertThrows(IOException.class, () -> sidecarOf(input, 100).write(file));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(0, files.filter(p -> p.toString().endsWith(".tmp")).count());
+        }
+    }
+
+    private static void patchInt(Path file, long pos, int value) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, value), pos);
+        }
+    }
+
+    @Test
+    public void testCorruptPayloadIsIgnored() throws IOException {
+        Path input = dir.resolve("g.json");
+        Files.writeString(input, "graph");
+        long size = Files.size(input);
+        byte[] hash = SccSidecar.hash(input);
+        Path file = SccSidecar.pathFor(input);
+        SccSidecar written = sidecarOf(input, 1_000);
+        int n = written.vertices;
+        int comps = written.scc.count();
+        assertTrue(comps > 1 && written.condensation.dag.edgeCount() > 0);
+
+        long compId = SccSidecar.HEADER_BYTES;
+        long compStart = compId + 4L * n;
+        long compVertices = compStart + 4L * (comps + 1);
+        long order = compVertices + 4L * n;
+        long offsets = order + 4L * comps;
+        long targets = offsets + 4L * (comps + 1);
+        long[][] damage = {
+                {compId, comps}, // component out of range
+                {compId, -1},
+                {compStart + 4, n + 1}, // not monotone
+                {compVertices, n}, // vertex out of range
+                {order, comps}, // component out of range
+                {offsets + 4L * comps, Integer.MAX_VALUE}, // does not end at the arc count
+                {targets, comps}, // arc leaves the condensation
+                {targets, -5},
+        };
+        for (long[] d : damage) {
+            written.write(file);
+            assertNotNull(SccSidecar.read(file, size, hash));
+            patchInt(file, d[0], (int) d[1]);
+            assertNull(SccSidecar.read(file, size, hash), "value " + d[1] + " at byte " + d[0]);
+        }
+
+        // a duplicate in the topological order is no permutation
+        written.write(file);
+        patchInt(file, order, written.order[1]);
+        assertNull(SccSidecar.read(file, size, hash));
+    }
+}
@@ -1,5 +1,6 @@
 package graph.scc;
 
+import graph.common.CsrGraph;
 import graph.common.Graph;
 import graph.common.Metrics;
 import org.junit.jupiter.api.Test;
@@ -44,4 +45,45 @@ public class TarjanSCTest {
         // Expect at least two SCCs: {0,1} and {2}, {3}
         assertTrue(res.components.size() >= 2);
     }
+
+    // Flat component arrays agree with compId and cover every vertex once
+    @Test
+    public void testFlatComponents() {
+        Graph g = new Graph(5, true);
+        g.addEdge(0, 1, 1);
+        g.addEdge(1, 0, 1);
+        g.addEdge(1, 2, 1);
+        g.addEdge(2, 3, 1);
+        g.addEdge(3, 2, 1);
+
+        TarjanSCC.Result res = new TarjanSCC(g).run();
+
+        assertEquals(3, res.count());
+        assertEquals(5, res.compVertices.length);
+        for (int c = 0; c < res.count(); c++) {
+            for (int v : res.component(c)) {
+                assertEquals(c, res.compId[v]);
+            }
+        }
+        assertEquals(2, res.size(res.compId[0]));
+        assertEquals(1, res.size(res.compId[4]));
+        // Tarjan emits components in reverse topological order
+        assertTrue(res.compId[3] < res.compId[0]);
+    }
+
+    // A one-way chain much deeper than the thread stack could hold recursively
+    @Test
+    public void testDeepChainDoesNotOverflow() {
+        int n = 1_000_000;
+        CsrGraph.Builder b = new CsrGraph.Builder(n, true, n);
+        for (int v = 0; v + 1 < n; v++) {
+            b.addEdge(v, v + 1, 1);
+        }
+        b.addEdge(n - 1, 0, 1); // closes one giant cycle
+
+        TarjanSCC.Result res = new TarjanSCC(b.build()).run();
+
+        assertEquals(1, res.count());
+        assertEquals(n, res.size(0));
+    }
 }
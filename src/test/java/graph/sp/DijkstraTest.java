@@ -0,0 +1,167 @@
+package graph.sp;
+
+import graph.common.CsrGraph;
+import graph.common.Graph;
+import graph.dagsp.DagShortestPath;
+import graph.io.GraphGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+ // Unit tests for Dijkstra.
+ // Distances must match Bellman-Ford on cyclic graphs and DagShortestPath on DAGs; point-to-point
+ // queries must agree with the single-source ones.
+
+public class DijkstraTest {
+
+    private static double[] bellmanFord(CsrGraph g, int src) {
+        double[] dist = new double[g.size()];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[src] = 0;
+        for (boolean changed = true; changed; ) {
+            changed = false;
+            for (int u = 0; u < g.size(); u++) {
+                for (int i = g.offsets[u]; i < g.offsets[u + 1]; i++) {
+                    if (dist[u] + g.weights[i] < dist[g.targets[i]]) {
+                        dist[g.targets[i]] = dist[u] + g.weights[i];
+                        changed = true;
+                    }
+                }
+            }
+        }
+        return dist;
+    }
+
+    // Path starts at src, ends at target, uses existing arcs and has the given length
+    private static void assertPath(CsrGraph g, int src, int target, int[] path, double length) {
+        assertEquals(src, path[0]);
+        assertEquals(target, path[path.length - 1]);
+        double sum = 0;
+        for (int k = 1; k < path.length; k++) {
+            double best = Double.POSITIVE_INFINITY;
+            for (int i = g.offsets[path[k - 1]]; i < g.offsets[path[k - 1] + 1]; i++) {
+                if (g.targets[i] == path[k]) best = Math.min(best, g.weights[i]);
+            }
+            assertTrue(best < Double.POSITIVE_INFINITY, "no arc " + path[k - 1] + " -> " + path[k]);
+            sum += best;
+        }
+        assertEquals(length, sum, 1e-9);
+    }
+
+    @Test
+    public void testMatchesBellmanFordOnCyclicGraphs() throws IOException {
+        for (GraphGenerator.Model model : new GraphGenerator.Model[]{GraphGenerator.Model.GRID,
+                GraphGenerator.Model.GIANT, GraphGenerator.Model.RANDOM}) {
+            CsrGraph g = new GraphGenerator(model, 2_000, 3, 9).toCsr();
+            Dijkstra dijkstra = new Dijkstra(g);
+            for (int src : new int[]{0, 17, 1_999}) {
+                double[] expected = bellmanFord(g, src);
+                DagShortestPath.Result res = dijkstra.shortestPaths(src);
+                assertArrayEquals(expected, res.distances, 1e-9);
+                for (int t = 0; t < g.size(); t += 37) {
+                    Dijkstra.Route r = dijkstra.shortestPath(src, t);
+                    assertEquals(expected[t], r.distance, 1e-9);
+                    assertEquals(expected[t] < Double.POSITIVE_INFINITY, r.reachable());
+                    if (r.reachable()) {
+                        assertPath(g, src, t, r.path, r.distance);
+                        assertPath(g, src, t, res.path(t), r.distance);
+                        assertTrue(r.settled <= g.size());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMatchesDagShortestPath() throws IOException {
+        CsrGraph dag = new GraphGenerator(GraphGenerator.Model.LAYERED, 5_000, 3, 4).toCsr();
+        DagShortestPath.Result expected = new DagShortestPath(dag).shortestPaths(0);
+        for (int arity : new int[]{2, 4, 8}) {
+            assertArrayEquals(expected.distances, new Dijkstra(dag, arity).shortestPaths(0).distances, 1e-9);
+        }
+    }
+
+    @Test
+    public void testEarlyExitAndSmallCases() {
+        // chain 0 -> 1 -> ... -> 9 with a cycle back to 0; 10 is isolated
+        Graph g = new Graph(11, true);
+        for (int v = 0; v < 9; v++) {
+            g.addEdge(v, v + 1, 1);
+        }
+        g.addEdge(9, 0, 1);
+        g.addEdge(0, 5, 10);
+        Dijkstra dijkstra = new Dijkstra(g);
+        Dijkstra.Route r = dijkstra.shortestPath(0, 2);
+        assertEquals(2.0, r.distance);
+        assertArrayEquals(new int[]{0, 1, 2}, r.path);
+        assertEquals(3, r.settled); // 3..9 were never settled
+        assertArrayEquals(new int[]{3, 4, 5, 6, 7, 8, 9, 0}, dijkstra.shortestPath(3, 0).path);
+        assertArrayEquals(new int[]{4}, dijkstra.shortestPath(4, 4).path);
+        assertFalse(dijkstra.shortestPath(0, 10).reachable());
+        assertEquals(Double.POSITIVE_INFINITY, dijkstra.shortestPath(0, 10).distance);
+
+        for (double bad : new double[]{-1, Double.NaN, Double.POSITIVE_INFINITY}) {
+            Graph invalid = new Graph(2, true);
+            invalid.addEdge(0, 1, bad);
+            assertThrows(IllegalArgumentException.class, () -> new Dijkstra(invalid), "weight " + bad);
+        }
+    }
+
+    @Test
+    public void testConcurrentQueries() throws Exception {
+        CsrGraph g = new GraphGenerator(GraphGenerator.Model.POWERLAW, 5_000, 4, 3).toCsr();
+        Dijkstra dijkstra = new Dijkstra(g);
+        int[][] pairs = new int[400][2];
+        double[] expected = new double[pairs.length];
+        Random rnd = new Random(1);
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i][0] = rnd.nextInt(g.size());
+            pairs[i][1] = rnd.nextInt(g.size());
+            expected[i] = dijkstra.shortestPath(pairs[i][0], pairs[i][1]).distance;
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] futures = new Future<?>[4];
+            for (int t = 0; t < futures.length; t++) {
+                int offset = t;
+                futures[t] = pool.submit(() -> {
+                    for (int i = offset; i < pairs.length; i += 2) {
+                        assertEquals(expected[i], dijkstra.shortestPath(pairs[i][0], pairs[i][1]).distance);
+                    }
+                });
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testWorkspacesOutliveThreads() throws Exception {
+        CsrGraph g = new GraphGenerator(GraphGenerator.Model.POWERLAW, 5_000, 4, 3).toCsr();
+        Dijkstra dijkstra = new Dijkstra(g);
+        double expected = dijkstra.shortestPath(0, g.size() - 1).distance;
+        // one fresh thread per query, as in a thread-per-request server
+        for (int i = 0; i < 50; i++) {
+            double[] got = new double[2];
+            Thread t = new Thread(() -> {
+                got[0] = dijkstra.shortestPath(0, g.size() - 1).distance;
+                got[1] = dijkstra.shortestPaths(0).distances[g.size() - 1];
+            });
+            t.start();
+            t.join();
+            assertEquals(expected, got[0]);
+            assertEquals(expected, got[1]);
+        }
+        assertEquals(1, dijkstra.workspacesCreated());
+    }
+}
@@ -0,0 +1,78 @@
+package graph.topo;
+
+import graph.common.CsrGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+ // Unit tests for the incremental topological order.
+ // After every insertion the order must respect all accepted edges.
+
+public class DynamicTopoOrderTest {
+
+    // A back edge is reordered, a cycle is refused
+    @Test
+    public void testReorderAndCycle() {
+        CsrGraph g = new CsrGraph.Builder(4, true)
+                .addEdge(0, 1, 1)
+                .addEdge(2, 3, 1)
+                .build();
+        DynamicTopoOrder topo = new DynamicTopoOrder(g);
+        assertArrayEquals(new int[]{0, 2, 1, 3}, topo.order());
+
+        assertTrue(topo.addEdge(3, 0));
+        assertTrue(topo.position(3) < topo.position(0));
+        assertTrue(topo.position(2) < topo.position(3));
+        assertTrue(topo.position(0) < topo.position(1));
+
+        assertFalse(topo.addEdge(1, 2));
+        assertFalse(topo.addEdge(1, 1));
+        assertTrue(topo.addEdge(2, 1)); // consistent edge, no reordering
+    }
+
+    // Random insertions agree with a brute-force reachability check
+    @Test
+    public void testRandomInsertions() {
+        int n = 200;
+        DynamicTopoOrder topo = new DynamicTopoOrder(new CsrGraph.Builder(n, true).build());
+        List<List<Integer>> adj = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            adj.add(new ArrayList<>());
+        }
+        Random rnd = new Random(7);
+        for (int k = 0; k < 2_000; k++) {
+            int u = rnd.nextInt(n);
+            int v = rnd.nextInt(n);
+            boolean cycle = u == v || reaches(adj, v, u);
+            assertEquals(!cycle, topo.addEdge(u, v), "edge " + u + "->" + v);
+            if (!cycle) adj.get(u).add(v);
+
+            for (int x = 0; x < n; x++) {
+                for (int y : adj.get(x)) {
+                    assertTrue(topo.position(x) < topo.position(y));
+                }
+            }
+        }
+    }
+
+    private static boolean reaches(List<List<Integer>> adj, int from, int to) {
+        boolean[] seen = new boolean[adj.size()];
+        List<Integer> stack = new ArrayList<>(List.of(from));
+        seen[from] = true;
+        while (!stack.isEmpty()) {
+            int x = stack.remove(stack.size() - 1);
+            if (x == to) return true;
+            for (int y : adj.get(x)) {
+                if (!seen[y]) {
+                    seen[y] = true;
+                    stack.add(y);
+                }
+            }
+        }
+        return false;
+    }
+}
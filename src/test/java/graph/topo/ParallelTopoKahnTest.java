@@ -0,0 +1,71 @@
+package graph.topo;
+
+import graph.common.CsrGraph;
+import graph.io.GraphGenerator;
+import graph.scc.CondensationBuilder;
+import graph.scc.TarjanSCC;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+ // Unit tests for the level-synchronous topological sort.
+ // The flattened levels must equal the sequential Kahn order.
+
+public class ParallelTopoKahnTest {
+
+    // Levels of a small diamond with a tail
+    @Test
+    public void testLevels() {
+        CsrGraph g = new CsrGraph.Builder(5, true)
+                .addEdge(0, 2, 1)
+                .addEdge(0, 1, 1)
+                .addEdge(1, 3, 1)
+                .addEdge(2, 3, 1)
+                .addEdge(3, 4, 1)
+                .build();
+
+        ParallelTopoKahn.Levels levels = new ParallelTopoKahn(g).levels();
+
+        assertEquals(4, levels.count());
+        assertArrayEquals(new int[]{0}, levels.level(0));
+        assertArrayEquals(new int[]{2, 1}, levels.level(1));
+        assertArrayEquals(new int[]{3}, levels.level(2));
+        assertArrayEquals(new int[]{4}, levels.level(3));
+        assertEquals(1, levels.position[2]);
+    }
+
+    // Wide levels go through the parallel path and still match TopoKahn exactly
+    @Test
+    public void testMatchesSequentialOrder() throws IOException {
+        CsrGraph g = new GraphGenerator(GraphGenerator.Model.RANDOM, 60_000, 2, 11).toCsr();
+        CsrGraph dag = CondensationBuilder.build(g, new TarjanSCC(g).run()).dag;
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ParallelTopoKahn.Levels levels = new ParallelTopoKahn(dag, pool).levels();
+            assertArrayEquals(new TopoKahn(dag).order(), levels.order);
+            for (int l = 0; l < levels.count(); l++) {
+                for (int v : levels.level(l)) {
+                    for (int i = dag.offsets[v]; i < dag.offsets[v + 1]; i++) {
+                        assertTrue(levels.position[dag.targets[i]] >= levels.levelStart[l + 1]);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Cycles are rejected like in TopoKahn
+    @Test
+    public void testCycleThrows() {
+        CsrGraph g = new CsrGraph.Builder(3, true)
+                .addEdge(0, 1, 1)
+                .addEdge(1, 2, 1)
+                .addEdge(2, 1, 1)
+                .build();
+        assertThrows(IllegalStateException.class, () -> new ParallelTopoKahn(g).levels());
+    }
+}
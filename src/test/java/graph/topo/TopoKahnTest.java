@@ -44,4 +44,13 @@ public class TopoKahnTest {
         // Expect failure because the graph contains a cycle
         assertThrows(IllegalStateException.class, () -> new TopoKahn(g).sort());
     }
+
+    // Expanding a component order lists vertices by component, increasing ids inside each
+    @Test
+    public void testExpandComponentOrder() {
+        int[] compId = {2, 0, 1, 0, 2, 1};
+        int[] order = {1, 2, 0};
+
+        assertArrayEquals(new int[]{2, 5, 0, 4, 1, 3}, TopoKahn.expand(order, compId));
+    }
 }